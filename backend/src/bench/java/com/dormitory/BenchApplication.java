@@ -0,0 +1,46 @@
+package com.dormitory;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the backend without a web server for benchmarks that need the real services and database.
+ *
+ * Uses a private embedded H2 database (MySQL mode) by default. Pass -Dbench.db.url (plus
+ * -Dbench.db.user, -Dbench.db.password) through jmh.args' -jvmArgs to run against a scratch MySQL schema
+ * instead; its tables are recreated.
+ */
+public final class BenchApplication {
+
+    private BenchApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=40",
+                "--logging.level.root=warn"));
+        String dbUrl = System.getProperty("bench.db.url");
+        if (dbUrl != null) {
+            args.add("--spring.datasource.url=" + dbUrl);
+            args.add("--spring.datasource.username=" + System.getProperty("bench.db.user", "root"));
+            args.add("--spring.datasource.password=" + System.getProperty("bench.db.password", ""));
+            args.add("--spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect");
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+        args.addAll(Arrays.asList(extraArgs));
+        return SpringApplication.run(DormitoryApplication.class, args.toArray(new String[0]));
+    }
+}
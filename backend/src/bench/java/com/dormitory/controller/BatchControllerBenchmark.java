@@ -0,0 +1,34 @@
+package com.dormitory.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV line parsing used by the student import, for plain and quoted lines
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BatchControllerBenchmark {
+
+    @Param({
+            "2023001,Zhang San,Male,Computer Science,CS-01,2023,13800000000,zhangsan@example.edu",
+            "2023002,\"Li, Si\",Female,\"Software \"\"Engineering\"\"\",SE-02,2023,13900000000,\"lisi@example.edu\""
+    })
+    private String line;
+
+    private BatchController controller;
+
+    @Setup
+    public void setUp() {
+        controller = new BatchController();
+    }
+
+    @Benchmark
+    public String[] parseCsvLine() {
+        return controller.parseCsvLine(line);
+    }
+}
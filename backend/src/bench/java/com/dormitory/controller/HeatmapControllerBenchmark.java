@@ -0,0 +1,78 @@
+package com.dormitory.controller;
+
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heatmap aggregation loops over in-memory rooms (repositories stubbed, so only the controller's work is measured)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HeatmapControllerBenchmark {
+
+    @Param({"20"})
+    private int buildings;
+
+    @Param({"1000", "10000"})
+    private int rooms;
+
+    private HeatmapController controller;
+
+    @Setup
+    public void setUp() {
+        List<DormBuilding> buildingList = new ArrayList<>();
+        for (int b = 1; b <= buildings; b++) {
+            DormBuilding building = new DormBuilding();
+            building.setBuildingID(b);
+            building.setBuildingName("Building " + b);
+            building.setLocation("Campus " + (b % 3));
+            buildingList.add(building);
+        }
+        List<Room> roomList = new ArrayList<>();
+        for (int r = 1; r <= rooms; r++) {
+            Room room = new Room();
+            room.setRoomID(r);
+            room.setBuildingID(1 + r % buildings);
+            room.setRoomNumber(String.format("%d%02d", 1 + r / 100 % 10, r % 100));
+            room.setCapacity(4);
+            room.setCurrentOccupancy(r % 5);
+            room.setRoomType("Standard");
+            roomList.add(room);
+        }
+
+        DormBuildingRepository buildingRepository = Mockito.mock(DormBuildingRepository.class);
+        RoomRepository roomRepository = Mockito.mock(RoomRepository.class);
+        Mockito.when(buildingRepository.findAll()).thenReturn(buildingList);
+        Mockito.when(buildingRepository.findById(1)).thenReturn(Optional.of(buildingList.get(0)));
+        Mockito.when(roomRepository.findAll()).thenReturn(roomList);
+
+        controller = new HeatmapController();
+        ReflectionTestUtils.setField(controller, "buildingRepository", buildingRepository);
+        ReflectionTestUtils.setField(controller, "roomRepository", roomRepository);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> buildingHeatmap() {
+        return controller.getBuildingHeatmap(1);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Map<String, Object>>> buildingSummary() {
+        return controller.getBuildingSummary();
+    }
+}
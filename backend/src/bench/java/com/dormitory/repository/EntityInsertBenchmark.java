@@ -0,0 +1,79 @@
+package com.dormitory.repository;
+
+import com.dormitory.BenchApplication;
+import com.dormitory.entity.AuditLog;
+import com.dormitory.entity.Bed;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bed and audit-log inserts per second through JPA, with JDBC batching off (batch size 1) and at the
+ * configured size. Both entities use pooled table ids, so Hibernate can batch their inserts; each
+ * invocation saves {@value #ROWS} entities in one transaction.
+ *
+ * Embedded H2 has no network round trip to save, so batching shows little there; run it against a
+ * scratch MySQL schema (see {@link BenchApplication}) to see the real difference, e.g.
+ * -Djmh.args="-f 1 -jvmArgs -Dbench.db.url=jdbc:mysql://localhost:3306/dormitory_bench?rewriteBatchedStatements=true"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class EntityInsertBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private BedRepository bedRepository;
+    private AuditLogRepository auditLogRepository;
+    private TransactionTemplate transactionTemplate;
+    private int roomID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApplication.start("insert_bench_" + batchSize,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        bedRepository = context.getBean(BedRepository.class);
+        auditLogRepository = context.getBean(AuditLogRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Bed> insertBeds() {
+        int room = ++roomID;
+        List<Bed> beds = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Bed bed = new Bed();
+            bed.setRoomID(room);
+            bed.setBedNumber(String.valueOf(i + 1));
+            bed.setStatus("Available");
+            beds.add(bed);
+        }
+        return transactionTemplate.execute(status -> bedRepository.saveAll(beds));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<AuditLog> insertAuditLogs() {
+        List<AuditLog> entries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            entries.add(new AuditLog("UPDATE", "Bed", String.valueOf(i), "benchmark entry " + i, "bench"));
+        }
+        return transactionTemplate.execute(status -> auditLogRepository.saveAll(entries));
+    }
+}
@@ -0,0 +1,52 @@
+package com.dormitory.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying the auth cookie, paid on every guarded request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtTokenServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    private JwtTokenService jwtTokenService;
+    private String validToken;
+    private String badSignatureToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtTokenService = new JwtTokenService();
+        ReflectionTestUtils.setField(jwtTokenService, "authSecret", SECRET);
+
+        long exp = System.currentTimeMillis() / 1000L + 3600;
+        String payload = "{\"username\":\"manager01\",\"role\":\"DormManager\",\"exp\":" + exp + "}";
+        String payloadB64 = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String sig = Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(payloadB64.getBytes(StandardCharsets.UTF_8)));
+        validToken = payloadB64 + "." + sig;
+        badSignatureToken = payloadB64 + "." + sig.substring(1) + "A";
+    }
+
+    @Benchmark
+    public JwtTokenService.TokenClaims verifyValid() {
+        return jwtTokenService.verifyToken(validToken);
+    }
+
+    @Benchmark
+    public JwtTokenService.TokenClaims verifyBadSignature() {
+        return jwtTokenService.verifyToken(badSignatureToken);
+    }
+}
@@ -0,0 +1,72 @@
+package com.dormitory.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a login's password check per work factor, and how many logins per second the hashing pool
+ * sustains when many request threads log in at once (loginThroughput, 32 caller threads)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordHashingServiceBenchmark {
+
+    private static final String PASSWORD = "student123";
+
+    @Param({"pbkdf2-sha256", "pbkdf2-sha512"})
+    public String algorithm;
+
+    @Param({"100000", "210000"})
+    public int iterations;
+
+    private PasswordHashingService passwordHashingService;
+    private String currentHash;
+    private String legacyHash;
+
+    @Setup
+    public void setUp() throws Exception {
+        passwordHashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(passwordHashingService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHashingService, "algorithm", algorithm);
+        ReflectionTestUtils.setField(passwordHashingService, "iterations", iterations);
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 0);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1024);
+        passwordHashingService.init();
+
+        currentHash = passwordHashingService.hashNow(PASSWORD);
+        legacyHash = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(PASSWORD.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public PasswordHashingService.Verification verifyCurrent() {
+        return passwordHashingService.verifyNow(PASSWORD, currentHash);
+    }
+
+    @Benchmark
+    public PasswordHashingService.Verification verifyLegacy() {
+        return passwordHashingService.verifyNow(PASSWORD, legacyHash);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(32)
+    public PasswordHashingService.Verification loginThroughput() {
+        return passwordHashingService.verifyAsync(PASSWORD, currentHash).join();
+    }
+}
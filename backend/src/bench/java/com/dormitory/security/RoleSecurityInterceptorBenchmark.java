@@ -0,0 +1,34 @@
+package com.dormitory.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path -> required roles resolution in the security interceptor, from the first rule to the fall-through
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoleSecurityInterceptorBenchmark {
+
+    @Param({"/api/admin/booking-stats", "/api/students/2023001", "/api/audit/search", "/api/stats/summary"})
+    private String path;
+
+    @Param({"GET", "POST"})
+    private String method;
+
+    private RoleSecurityInterceptor interceptor;
+
+    @Setup
+    public void setUp() {
+        interceptor = new RoleSecurityInterceptor();
+    }
+
+    @Benchmark
+    public String[] requiredRoles() {
+        return interceptor.getRequiredRoles(path, method);
+    }
+}
@@ -0,0 +1,120 @@
+package com.dormitory.service;
+
+import com.dormitory.BenchApplication;
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.entity.Student;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import com.dormitory.repository.StudentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing a freshman cohort of 10,000 students: "plan" is a dry run (greedy fill plus parallel
+ * local search), "commit" also checks everyone in through the batched check-in path.
+ * Every iteration seeds a new cohort (its own enrollment year) and new buildings with a few spare
+ * beds, and fails unless every student of the cohort is placed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class BedAllocationBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int BEDS_PER_ROOM = 4;
+    private static final int ROOMS = STUDENTS / BEDS_PER_ROOM + 100;
+    private static final int ROOMS_PER_BUILDING = 500;
+
+    @Param({"plan", "commit"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private BedAllocationService allocationService;
+    private int cohort;
+    private List<Integer> buildingIDs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApplication.start("allocation_bench_" + mode);
+        allocationService = context.getBean(BedAllocationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void seedCohort() {
+        cohort++;
+        DormBuildingRepository buildingRepository = context.getBean(DormBuildingRepository.class);
+        RoomRepository roomRepository = context.getBean(RoomRepository.class);
+
+        buildingIDs = new ArrayList<>();
+        List<Bed> beds = new ArrayList<>(ROOMS * BEDS_PER_ROOM);
+        DormBuilding building = null;
+        for (int r = 0; r < ROOMS; r++) {
+            if (r % ROOMS_PER_BUILDING == 0) {
+                building = new DormBuilding();
+                building.setBuildingName("Cohort " + cohort + "-" + (char) ('A' + r / ROOMS_PER_BUILDING));
+                building.setLocation("Benchmark");
+                building = buildingRepository.save(building);
+                buildingIDs.add(building.getBuildingID());
+            }
+            Room room = new Room();
+            room.setBuildingID(building.getBuildingID());
+            room.setRoomNumber(String.valueOf(100 + r % ROOMS_PER_BUILDING));
+            room.setCapacity(BEDS_PER_ROOM);
+            room.setCurrentOccupancy(0);
+            room.setRoomType("Standard");
+            room = roomRepository.save(room);
+            for (int b = 1; b <= BEDS_PER_ROOM; b++) {
+                Bed bed = new Bed();
+                bed.setRoomID(room.getRoomID());
+                bed.setBedNumber(String.valueOf(b));
+                bed.setStatus("Available");
+                beds.add(bed);
+            }
+        }
+        context.getBean(BedRepository.class).saveAll(beds);
+
+        // 20 majors x 6 classes, handed out round-robin so the greedy fill has to group them
+        List<Student> students = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setStudentID(String.format("F%02d%06d", cohort, i));
+            s.setName("Freshman " + i);
+            s.setGender(i % 2 == 0 ? "Male" : "Female");
+            s.setMajor("Major " + i % 20);
+            s.setStudentClass("C" + i % 120);
+            s.setEnrollmentYear(enrollmentYear());
+            students.add(s);
+        }
+        context.getBean(StudentRepository.class).saveAll(students);
+    }
+
+    @Benchmark
+    public Map<String, Object> allocateCohort() {
+        boolean dryRun = "plan".equals(mode);
+        Map<String, Object> result = allocationService.allocate(enrollmentYear(), buildingIDs, dryRun, "bench");
+        Object placed = dryRun ? result.get("assigned") : result.get("checkedIn");
+        if (!Integer.valueOf(STUDENTS).equals(placed)) {
+            throw new IllegalStateException("Placed " + placed + " of " + STUDENTS + " students: " + result.get("unassigned"));
+        }
+        return result;
+    }
+
+    private int enrollmentYear() {
+        return 3000 + cohort;
+    }
+}
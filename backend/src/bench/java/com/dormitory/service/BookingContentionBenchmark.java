@@ -0,0 +1,111 @@
+package com.dormitory.service;
+
+import com.dormitory.BenchApplication;
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 500 students clicking the same free bed at the same moment: time until every one of them has an
+ * answer, through the admission layer ("admission") and straight into the booking transaction
+ * ("direct", every click queues on the bed's row lock). Each invocation uses a fresh bed and fresh
+ * student ids, and fails if anything other than exactly one click wins.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class BookingContentionBenchmark {
+
+    private static final int CLICKS = 500;
+
+    @Param({"admission", "direct"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private BookingAdmissionService admissionService;
+    private RoomBookingService roomBookingService;
+    private BedRepository bedRepository;
+    private ExecutorService clickers;
+    private Integer roomID;
+    private Integer bedID;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApplication.start("contention_bench_" + path);
+        admissionService = context.getBean(BookingAdmissionService.class);
+        roomBookingService = context.getBean(RoomBookingService.class);
+        bedRepository = context.getBean(BedRepository.class);
+
+        DormBuilding building = new DormBuilding();
+        building.setBuildingName("Bench");
+        building.setLocation("Benchmark");
+        building = context.getBean(DormBuildingRepository.class).save(building);
+        Room room = new Room();
+        room.setBuildingID(building.getBuildingID());
+        room.setRoomNumber("101");
+        room.setCapacity(CLICKS);
+        room.setCurrentOccupancy(0);
+        room.setRoomType("Standard");
+        roomID = context.getBean(RoomRepository.class).save(room).getRoomID();
+
+        clickers = Executors.newFixedThreadPool(CLICKS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clickers.shutdownNow();
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void newBed() {
+        Bed bed = new Bed();
+        bed.setRoomID(roomID);
+        bed.setBedNumber(String.valueOf(++round));
+        bed.setStatus("Available");
+        bedID = bedRepository.save(bed).getBedID();
+    }
+
+    @Benchmark
+    public int clickSameBed() throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<RoomBookingService.BookingResult>> clicks = new ArrayList<>(CLICKS);
+        for (int i = 0; i < CLICKS; i++) {
+            String studentID = "B" + round + "-" + i;
+            clicks.add(clickers.submit(() -> {
+                go.await();
+                return "admission".equals(path)
+                        ? admissionService.reserveBedForApplication(studentID, bedID)
+                        : roomBookingService.reserveBedForApplication(studentID, bedID);
+            }));
+        }
+        go.countDown();
+
+        int winners = 0;
+        for (Future<RoomBookingService.BookingResult> click : clicks) {
+            if (click.get().isSuccess()) {
+                winners++;
+            }
+        }
+        if (winners != 1) {
+            throw new IllegalStateException(winners + " clicks won bed " + bedID);
+        }
+        return winners;
+    }
+}
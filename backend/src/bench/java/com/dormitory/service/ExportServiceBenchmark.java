@@ -0,0 +1,57 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Student;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel and PDF rendering of the student export at increasing sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ExportServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ExportService exportService;
+    private List<Student> students;
+
+    @Setup
+    public void setUp() {
+        exportService = new ExportService();
+        students = new ArrayList<>(rows);
+        String[] majors = {"Computer Science", "Software Engineering", "Mathematics", "Physics"};
+        for (int i = 0; i < rows; i++) {
+            Student s = new Student();
+            s.setStudentID(String.format("20%08d", i));
+            s.setName("Student " + i);
+            s.setGender(i % 2 == 0 ? "Male" : "Female");
+            s.setMajor(majors[i % majors.length]);
+            s.setStudentClass("C-" + (i % 40));
+            s.setEnrollmentYear(2021 + i % 4);
+            s.setPhone("138" + String.format("%08d", i));
+            s.setEmail("s" + i + "@example.edu");
+            s.setDormBuilding("Building " + (i % 12));
+            s.setRoomNumber(String.valueOf(100 + i % 600));
+            s.setBedNumber(String.valueOf(1 + i % 4));
+            students.add(s);
+        }
+    }
+
+    @Benchmark
+    public byte[] studentsToExcel() throws Exception {
+        return exportService.exportStudentsToExcel(students);
+    }
+
+    @Benchmark
+    public byte[] studentsToPdf() throws Exception {
+        return exportService.exportStudentsToPdf(students);
+    }
+}
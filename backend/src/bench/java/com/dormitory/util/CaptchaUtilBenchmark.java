@@ -0,0 +1,26 @@
+package com.dormitory.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captcha code + image rendering
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CaptchaUtilBenchmark {
+
+    @Setup
+    public void setUp() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Benchmark
+    public CaptchaUtil.CaptchaResult generateCaptcha() {
+        return CaptchaUtil.generateCaptcha();
+    }
+}
@@ -0,0 +1,62 @@
+package com.dormitory.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Post-run booking correctness checks, run straight against the database.
+ * Every query returns the number of violating rows; all must be zero.
+ */
+public class BookingInvariantChecker {
+
+    private static final Map<String, String> CHECKS = new LinkedHashMap<>();
+
+    static {
+        CHECKS.put("bedWithSeveralLiveRecords",
+                "SELECT COUNT(*) FROM (SELECT bedid FROM check_in_out WHERE status = 'CurrentlyLiving' " +
+                "GROUP BY bedid HAVING COUNT(*) > 1) t");
+        CHECKS.put("studentWithSeveralLiveRecords",
+                "SELECT COUNT(*) FROM (SELECT studentid FROM check_in_out WHERE status = 'CurrentlyLiving' " +
+                "GROUP BY studentid HAVING COUNT(*) > 1) t");
+        CHECKS.put("bedWithSeveralPendingApplications",
+                "SELECT COUNT(*) FROM (SELECT bedid FROM room_application WHERE status = 'Pending' " +
+                "GROUP BY bedid HAVING COUNT(*) > 1) t");
+        CHECKS.put("studentWithSeveralPendingApplications",
+                "SELECT COUNT(*) FROM (SELECT studentid FROM room_application WHERE status = 'Pending' " +
+                "GROUP BY studentid HAVING COUNT(*) > 1) t");
+        CHECKS.put("bedPendingAndLive",
+                "SELECT COUNT(*) FROM room_application a JOIN check_in_out c " +
+                "ON a.bedid = c.bedid AND c.status = 'CurrentlyLiving' WHERE a.status = 'Pending'");
+        CHECKS.put("occupiedBedWithoutLiveRecord",
+                "SELECT COUNT(*) FROM bed b WHERE b.status = 'Occupied' AND NOT EXISTS " +
+                "(SELECT 1 FROM check_in_out c WHERE c.bedid = b.bedid AND c.status = 'CurrentlyLiving')");
+        CHECKS.put("liveRecordOnNonOccupiedBed",
+                "SELECT COUNT(*) FROM check_in_out c JOIN bed b ON b.bedid = c.bedid " +
+                "WHERE c.status = 'CurrentlyLiving' AND b.status <> 'Occupied'");
+        CHECKS.put("roomOccupancyMismatch",
+                "SELECT COUNT(*) FROM room r WHERE r.current_occupancy <> (SELECT COUNT(*) FROM check_in_out c " +
+                "JOIN bed b ON b.bedid = c.bedid WHERE b.roomid = r.roomid AND c.status = 'CurrentlyLiving')");
+        CHECKS.put("roomOverCapacity",
+                "SELECT COUNT(*) FROM room r WHERE r.current_occupancy > r.capacity");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingInvariantChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return check name -> number of violations
+     */
+    public Map<String, Long> run() {
+        Map<String, Long> results = new LinkedHashMap<>();
+        CHECKS.forEach((name, sql) -> {
+            Long violations = jdbcTemplate.queryForObject(sql, Long.class);
+            results.put(name, violations != null ? violations : 0L);
+        });
+        return results;
+    }
+}
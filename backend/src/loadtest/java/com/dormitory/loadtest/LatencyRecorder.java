@@ -0,0 +1,72 @@
+package com.dormitory.loadtest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and status codes of one load-test phase
+ */
+public class LatencyRecorder {
+
+    private final String phase;
+    private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private long startNanos;
+    private long endNanos;
+
+    public LatencyRecorder(String phase) {
+        this.phase = phase;
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * @param outcome HTTP status code, or an error name for failed requests
+     */
+    public void record(long nanos, String outcome) {
+        latenciesNanos.add(nanos);
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    public long count(String outcome) {
+        LongAdder adder = outcomes.get(outcome);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public Map<String, Object> summary() {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        double seconds = Math.max(1, endNanos - startNanos) / 1e9;
+
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("phase", phase);
+        s.put("requests", sorted.length);
+        s.put("durationSeconds", round(seconds));
+        s.put("throughputPerSecond", round(sorted.length / seconds));
+        s.put("p50Ms", percentile(sorted, 0.50));
+        s.put("p90Ms", percentile(sorted, 0.90));
+        s.put("p99Ms", percentile(sorted, 0.99));
+        s.put("maxMs", sorted.length > 0 ? round(sorted[sorted.length - 1] / 1e6) : 0);
+        Map<String, Long> byOutcome = new TreeMap<>();
+        outcomes.forEach((k, v) -> byOutcome.put(k, v.sum()));
+        s.put("outcomes", byOutcome);
+        return s;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dormitory.loadtest;
+
+import com.dormitory.service.CaptchaService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Captcha bypass for the load-test harness only (this class is not on the production classpath):
+ * the fixed answer {@link #BYPASS} is accepted for any captcha id.
+ */
+@Configuration
+public class LoadTestCaptchaConfig {
+
+    public static final String BYPASS = "loadtest";
+
+    @Bean
+    @Primary
+    CaptchaService loadTestCaptchaService() {
+        return new CaptchaService() {
+            @Override
+            public boolean validateCaptcha(String id, String text) {
+                return BYPASS.equals(text) || super.validateCaptcha(id, text);
+            }
+        };
+    }
+}
@@ -0,0 +1,377 @@
+package com.dormitory.loadtest;
+
+import com.dormitory.DormitoryApplication;
+import com.dormitory.controller.AdminMonitoringController;
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Housing-lottery load test.
+ *
+ * Boots the backend in-process with the "loadtest" profile (embedded H2 in MySQL mode, or a local
+ * database given with --db-url), seeds students, manager accounts and beds, then drives four phases
+ * at the configured concurrency:
+ *   1. login      every student and manager logs in (captcha bypassed, see LoadTestCaptchaConfig)
+ *   2. browse     students load /available-rooms
+ *   3. apply      students apply for beds, most of them for a small set of contested beds
+ *   4. approve    managers load the pending list and approve every application twice, concurrently
+ * and finishes with the booking invariant checks. The report (throughput, latency percentiles,
+ * outcomes per phase, invariant violations, second-level cache hit ratios) is printed and written as
+ * JSON; the exit code is 1 if any invariant is violated.
+ *
+ * Like a browser client, a request answered 503 with Retry-After (connection bulkhead, full hashing
+ * queue) is sent again after that delay, up to busy-retries times; every attempt is counted.
+ *
+ * Options (--name=value): students, beds, hot-beds, hot-share, concurrency, browse, apply-attempts,
+ * busy-retries, managers, db-url, db-user, db-password, report.
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "loadtest123";
+    private static final int BEDS_PER_ROOM = 4;
+    private static final int ROOMS_PER_BUILDING = 100;
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private String baseUrl;
+    private final List<String> studentIDs = new ArrayList<>();
+    private final List<String> managerNames = new ArrayList<>();
+    private final List<Integer> bedIDs = new ArrayList<>();
+    private final Map<String, String> cookies = new ConcurrentHashMap<>();
+
+    LoadTestRunner(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        System.exit(new LoadTestRunner(options).run());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    int run() throws Exception {
+        // --replica=true adds a read-only H2 pool and routes read-only transactions to it
+        String profiles = Boolean.parseBoolean(options.get("replica")) ? "loadtest,replica-h2" : "loadtest";
+        List<String> appArgs = new ArrayList<>(List.of("--spring.profiles.active=" + profiles, "--server.port=0"));
+        if (options.containsKey("db-url")) {
+            // Local database instead of H2; the loadtest profile recreates its schema
+            appArgs.add("--spring.datasource.url=" + options.get("db-url"));
+            appArgs.add("--spring.datasource.username=" + options.getOrDefault("db-user", "root"));
+            appArgs.add("--spring.datasource.password=" + options.getOrDefault("db-password", ""));
+            appArgs.add("--spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+            appArgs.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect");
+        }
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(DormitoryApplication.class, appArgs.toArray(new String[0]))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+            seed(context);
+
+            int concurrency = intOption("concurrency", 200);
+            List<Map<String, Object>> phases = new ArrayList<>();
+            phases.add(loginPhase(concurrency));
+            phases.add(browsePhase(concurrency, intOption("browse", 2)));
+            phases.add(applyPhase(concurrency));
+            phases.add(approvePhase(concurrency));
+
+            Map<String, Long> invariants = new BookingInvariantChecker(context.getBean(JdbcTemplate.class)).run();
+            long violations = invariants.values().stream().mapToLong(Long::longValue).sum();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", new TreeMap<>(options));
+            report.put("students", studentIDs.size());
+            report.put("beds", bedIDs.size());
+            report.put("concurrency", concurrency);
+            report.put("phases", phases);
+            report.put("invariants", invariants);
+            report.put("secondLevelCache", context.getBean(AdminMonitoringController.class).getCacheStats());
+            report.put("passed", violations == 0);
+
+            File out = new File(options.getOrDefault("report", "target/loadtest-report.json"));
+            if (out.getParentFile() != null) out.getParentFile().mkdirs();
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+            System.out.println("[LoadTest] " + objectMapper.writeValueAsString(report));
+            System.out.println("[LoadTest] Report written to " + out.getAbsolutePath());
+            return violations == 0 ? 0 : 1;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Seeding
+    // ---------------------------------------------------------------------------------------
+
+    private void seed(ConfigurableApplicationContext context) throws Exception {
+        int students = intOption("students", 2000);
+        int beds = intOption("beds", 400);
+        int managers = intOption("managers", 8);
+        // Legacy unsalted SHA-256, as in existing databases, so the login phase also measures the upgrade to PBKDF2
+        String passwordHash = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(PASSWORD.getBytes(StandardCharsets.UTF_8)));
+
+        DormBuildingRepository buildingRepository = context.getBean(DormBuildingRepository.class);
+        RoomRepository roomRepository = context.getBean(RoomRepository.class);
+        BedRepository bedRepository = context.getBean(BedRepository.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+        UserAccountRepository userAccountRepository = context.getBean(UserAccountRepository.class);
+
+        int roomsNeeded = (beds + BEDS_PER_ROOM - 1) / BEDS_PER_ROOM;
+        DormBuilding building = null;
+        List<Bed> bedRows = new ArrayList<>();
+        for (int r = 0; r < roomsNeeded; r++) {
+            if (r % ROOMS_PER_BUILDING == 0) {
+                building = new DormBuilding();
+                building.setBuildingName("LT-" + (char) ('A' + r / ROOMS_PER_BUILDING));
+                building.setLocation("Load test");
+                building = buildingRepository.save(building);
+            }
+            Room room = new Room();
+            room.setBuildingID(building.getBuildingID());
+            room.setRoomNumber(String.valueOf(100 + r % ROOMS_PER_BUILDING));
+            room.setCapacity(BEDS_PER_ROOM);
+            room.setCurrentOccupancy(0);
+            room.setRoomType("Standard");
+            room = roomRepository.save(room);
+            for (int b = 1; b <= BEDS_PER_ROOM && r * BEDS_PER_ROOM + b <= beds; b++) {
+                Bed bed = new Bed();
+                bed.setRoomID(room.getRoomID());
+                bed.setBedNumber(String.valueOf(b));
+                bed.setStatus("Available");
+                bedRows.add(bed);
+            }
+        }
+        bedRepository.saveAll(bedRows).forEach(b -> bedIDs.add(b.getBedID()));
+
+        List<Student> studentRows = new ArrayList<>();
+        List<UserAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            Student s = new Student();
+            s.setStudentID(String.format("LT%06d", i));
+            s.setName("Load Student " + i);
+            s.setGender(i % 2 == 0 ? "Male" : "Female");
+            s.setMajor("Major " + i % 10);
+            s.setStudentClass("C" + i % 30);
+            s.setEnrollmentYear(2026);
+            studentRows.add(s);
+            accounts.add(account(s.getStudentID(), passwordHash, "Student", s.getStudentID()));
+            studentIDs.add(s.getStudentID());
+        }
+        for (int m = 0; m < managers; m++) {
+            String name = "lt-manager-" + m;
+            accounts.add(account(name, passwordHash, "DormManager", null));
+            managerNames.add(name);
+        }
+        studentRepository.saveAll(studentRows);
+        userAccountRepository.saveAll(accounts);
+        System.out.println("[LoadTest] Seeded " + bedIDs.size() + " beds, " + students + " students, " + managers + " managers");
+    }
+
+    private static UserAccount account(String username, String passwordHash, String role, String studentID) {
+        UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setPasswordHash(passwordHash);
+        user.setRole(role);
+        user.setRelatedStudentID(studentID);
+        return user;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Phases
+    // ---------------------------------------------------------------------------------------
+
+    private Map<String, Object> loginPhase(int concurrency) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder("login");
+        List<String> users = new ArrayList<>(studentIDs);
+        users.addAll(managerNames);
+        runConcurrently(recorder, concurrency, users, username -> {
+            String body = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD
+                    + "\",\"captchaId\":\"bypass\",\"captchaText\":\"" + LoadTestCaptchaConfig.BYPASS + "\"}";
+            HttpResponse<String> response = send(recorder, post("/api/auth/login", null, body));
+            if (response != null && response.statusCode() == 200) {
+                response.headers().allValues("Set-Cookie").stream()
+                        .filter(c -> c.startsWith("auth="))
+                        .findFirst()
+                        .ifPresent(c -> cookies.put(username, c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length())));
+            }
+        });
+        return recorder.summary();
+    }
+
+    private Map<String, Object> browsePhase(int concurrency, int perStudent) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder("browse");
+        List<String> visits = new ArrayList<>();
+        for (int i = 0; i < perStudent; i++) visits.addAll(studentIDs);
+        runConcurrently(recorder, concurrency, visits, student ->
+                send(recorder, get("/api/student-portal/available-rooms", cookies.get(student))));
+        return recorder.summary();
+    }
+
+    private Map<String, Object> applyPhase(int concurrency) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder("apply");
+        int hotBeds = Math.min(bedIDs.size(), intOption("hot-beds", Math.max(1, bedIDs.size() / 10)));
+        double hotShare = Double.parseDouble(options.getOrDefault("hot-share", "0.8"));
+        int attempts = intOption("apply-attempts", 2);
+
+        runConcurrently(recorder, concurrency, studentIDs, student -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                int bedID = random.nextDouble() < hotShare
+                        ? bedIDs.get(random.nextInt(hotBeds))
+                        : bedIDs.get(random.nextInt(bedIDs.size()));
+                HttpResponse<String> response = send(recorder,
+                        post("/api/student-portal/apply-room", cookies.get(student), "{\"bedID\":" + bedID + "}"));
+                int status = response != null ? awaitTicket(recorder, student, response) : -1;
+                if (status != 409) {
+                    return; // booked, rejected for another reason, or failed: do not retry
+                }
+            }
+        });
+        return recorder.summary();
+    }
+
+    /**
+     * Follow a 202 ticket until the application is decided
+     *
+     * @return final status code
+     */
+    private int awaitTicket(LatencyRecorder recorder, String student, HttpResponse<String> response) {
+        HttpResponse<String> current = response;
+        try {
+            while (current != null && current.statusCode() == 202) {
+                String ticketId = objectMapper.readTree(current.body()).path("ticketId").asText();
+                current = send(recorder, get("/api/student-portal/apply-room/tickets/" + ticketId + "?waitMs=5000",
+                        cookies.get(student)));
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+        return current != null ? current.statusCode() : -1;
+    }
+
+    private Map<String, Object> approvePhase(int concurrency) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder("approve");
+        String firstManager = managerNames.get(0);
+        HttpResponse<String> pending = send(recorder, get("/api/applications?status=Pending", cookies.get(firstManager)));
+        List<Integer> ids = new ArrayList<>();
+        if (pending != null && pending.statusCode() == 200) {
+            for (JsonNode node : objectMapper.readTree(pending.body())) {
+                ids.add(node.path("applicationID").asInt());
+            }
+        }
+
+        // Every application is approved by two different managers at once
+        List<String[]> approvals = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = String.valueOf(ids.get(i));
+            approvals.add(new String[]{id, managerNames.get(i % managerNames.size())});
+            approvals.add(new String[]{id, managerNames.get((i + 1) % managerNames.size())});
+        }
+        Collections.shuffle(approvals);
+        runConcurrently(recorder, concurrency, approvals, a ->
+                send(recorder, post("/api/applications/" + a[0] + "/approve", cookies.get(a[1]), "")));
+
+        Map<String, Object> summary = recorder.summary();
+        summary.put("pendingApplications", ids.size());
+        return summary;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // HTTP plumbing
+    // ---------------------------------------------------------------------------------------
+
+    private <T> void runConcurrently(LatencyRecorder recorder, int concurrency, List<T> work, Consumer<T> task)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        recorder.start();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : work) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        task.accept(item);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        recorder.stop();
+        System.out.println("[LoadTest] " + recorder.summary());
+    }
+
+    private HttpRequest.Builder request(String path, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+        if (cookie != null) builder.header("Cookie", cookie);
+        return builder;
+    }
+
+    private HttpRequest get(String path, String cookie) {
+        return request(path, cookie).GET().build();
+    }
+
+    private HttpRequest post(String path, String cookie, String json) {
+        return request(path, cookie)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpResponse<String> send(LatencyRecorder recorder, HttpRequest request) {
+        int retries = intOption("busy-retries", 20);
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                recorder.record(System.nanoTime() - start, String.valueOf(response.statusCode()));
+            } catch (Exception e) {
+                recorder.record(System.nanoTime() - start, e.getClass().getSimpleName());
+                return null;
+            }
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (response.statusCode() != 503 || retryAfter.isEmpty() || attempt >= retries) {
+                return response;
+            }
+            try {
+                Thread.sleep(Duration.ofSeconds(Long.parseLong(retryAfter.get().trim())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return response;
+            } catch (NumberFormatException e) {
+                return response;
+            }
+        }
+    }
+}
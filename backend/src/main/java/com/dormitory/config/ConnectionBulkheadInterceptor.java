@@ -0,0 +1,244 @@
+package com.dormitory.config;
+
+import com.dormitory.security.JwtTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead that keeps part of the connection pool free for managers and admins.
+ *
+ * With open-session-in-view a request holds its JDBC connection from the first query until the
+ * response is written, so a burst of student requests can take every connection and leave approvals
+ * waiting for the pool timeout. Requests from anyone other than a DormManager or Admin (students and
+ * anonymous callers) are marked here, and the connections they check out are metered through
+ * {@link QueryCountingDataSource.ConnectionGate}: each one needs a permit from a semaphore sized
+ * pool size - booking queue workers - reserved, held until the connection is closed. When none frees up
+ * within the acquire timeout the checkout fails and the request gets 503 with Retry-After instead of
+ * queueing on the pool. Requests that never touch the database (captcha, polling a queued ticket) and
+ * work continued on other threads take no permit. Manager and admin requests are not metered, so the
+ * reserved connections (and any the students leave unused) are always theirs.
+ * The booking queue workers are not counted here: the pool is sized with one connection per worker.
+ *
+ * With read replica routing the application's DataSource hands out connections lazily and the permit
+ * is taken for the logical connection, so reads that end up on the replica are counted too.
+ */
+@Component
+public class ConnectionBulkheadInterceptor implements AsyncHandlerInterceptor, HandlerExceptionResolver, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionBulkheadInterceptor.class);
+
+    /**
+     * Thrown from the connection checkout of a student request when no permit frees up in time
+     */
+    public static class BulkheadFullException extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        BulkheadFullException() {
+            super("Student share of the connection pool is in use");
+        }
+    }
+
+    // Set while the request thread is serving a student or anonymous request
+    private final ThreadLocal<Boolean> metered = new ThreadLocal<>();
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private QueryCountingDataSource queryCountingDataSource;
+
+    @Value("${app.datasource.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${app.booking.queue.workers:8}")
+    private int bookingWorkers;
+
+    @Value("${app.datasource.bulkhead.reserved-for-managers:4}")
+    private int reservedForManagers;
+
+    @Value("${app.datasource.bulkhead.acquire-timeout-ms:500}")
+    private long acquireTimeoutMs;
+
+    private int studentPermits;
+    private Semaphore studentLane;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        studentPermits = Math.max(1, poolSize - bookingWorkers - reservedForManagers);
+        studentLane = new Semaphore(studentPermits, true);
+        rejected = Counter.builder("dormitory.db.bulkhead.rejected")
+                .description("Student requests turned away because their share of the pool was in use")
+                .register(meterRegistry);
+        Gauge.builder("dormitory.db.bulkhead.available", studentLane, Semaphore::availablePermits)
+                .description("Free student permits")
+                .register(meterRegistry);
+        if (enabled) {
+            queryCountingDataSource.setConnectionGate(this::acquire);
+        }
+        log.info("Connection bulkhead: pool {}, booking workers {}, reserved for managers {}, student permits {}",
+                poolSize, bookingWorkers, reservedForManagers, studentPermits);
+    }
+
+    @PreDestroy
+    void unregister() {
+        queryCountingDataSource.setConnectionGate(null);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (enabled && !"OPTIONS".equalsIgnoreCase(request.getMethod()) && !isManager(request)) {
+            metered.set(Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        metered.remove();
+    }
+
+    /**
+     * The request thread goes back to the container; whatever continues the request is not metered
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        metered.remove();
+    }
+
+    /**
+     * Connection gate: a permit per connection checked out by a marked thread, released when it is closed
+     */
+    private Runnable acquire() throws SQLException {
+        if (metered.get() == null) {
+            return null;
+        }
+        try {
+            if (!studentLane.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new BulkheadFullException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a connection permit", e);
+        }
+        return studentLane::release;
+    }
+
+    /**
+     * Turns a refused checkout into 503, whatever the persistence layer wrapped it in
+     */
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof BulkheadFullException) {
+                if (!response.isCommitted()) {
+                    try {
+                        sendBusy(response);
+                    } catch (IOException e) {
+                        log.debug("Could not write the busy response", e);
+                    }
+                }
+                return new ModelAndView();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * Role set by RoleSecurityInterceptor on protected paths, otherwise read from the auth cookie
+     */
+    private boolean isManager(HttpServletRequest request) {
+        Object role = request.getAttribute("authenticatedRole");
+        if (role == null) {
+            String token = null;
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if ("auth".equals(cookie.getName())) {
+                        token = cookie.getValue();
+                    }
+                }
+            }
+            if (token == null) {
+                return false;
+            }
+            JwtTokenService.TokenClaims claims = jwtTokenService.verifyToken(token);
+            role = claims.isValid() ? claims.getRole() : null;
+        }
+        return "DormManager".equals(role) || "Admin".equals(role);
+    }
+
+    private void sendBusy(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Server busy, please retry\",\"status\":503}");
+    }
+
+    /**
+     * Bulkhead state plus a snapshot of each Hikari pool (primary, and the replica when routing is on)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Object> pools = new LinkedHashMap<>();
+        for (Gauge active : meterRegistry.find("hikaricp.connections.active").gauges()) {
+            String pool = active.getId().getTag("pool");
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("activeConnections", (long) active.value());
+            poolStats.put("idleConnections", poolGauge("hikaricp.connections.idle", pool));
+            poolStats.put("threadsAwaitingConnection", poolGauge("hikaricp.connections.pending", pool));
+            pools.put(pool, poolStats);
+        }
+        stats.put("pools", pools);
+        stats.put("enabled", enabled);
+        stats.put("poolSize", poolSize);
+        stats.put("bookingWorkers", bookingWorkers);
+        stats.put("reservedForManagers", reservedForManagers);
+        stats.put("studentPermits", studentPermits);
+        stats.put("studentPermitsAvailable", studentLane.availablePermits());
+        stats.put("studentRequestsWaiting", studentLane.getQueueLength());
+        stats.put("rejected", (long) rejected.count());
+        return stats;
+    }
+
+    private Long poolGauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? (long) gauge.value() : null;
+    }
+}
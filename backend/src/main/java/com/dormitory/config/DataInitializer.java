@@ -2,6 +2,11 @@ package com.dormitory.config;
 
 import com.dormitory.entity.*;
 import com.dormitory.repository.*;
+import com.dormitory.security.PasswordHashingService;
+import com.dormitory.service.OccupancyLedger;
+import com.dormitory.util.SampledLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,22 +15,26 @@ import org.springframework.core.io.ClassPathResource;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-import java.util.List;
 
 @Configuration
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+    /** Per-row messages while seeding thousands of students */
+    private static final SampledLogger rowLog = new SampledLogger(log, 10);
+
     @Bean
     CommandLineRunner initDatabase(StudentRepository studentRepository,
                                    DormBuildingRepository buildingRepository,
                                    RoomRepository roomRepository,
                                    BedRepository bedRepository,
-                                   UserAccountRepository userAccountRepository) {
+                                   UserAccountRepository userAccountRepository,
+                                   OccupancyLedger occupancyLedger,
+                                   PasswordHashingService passwordHashingService) {
         return args -> {
-            System.out.println("Checking data initialization...");
+            log.info("Checking data initialization...");
+            // Seeded accounts share the default password; hash it once instead of once per student
+            String studentPasswordHash = null;
             try (BufferedReader br = new BufferedReader(new InputStreamReader(
                     new ClassPathResource("student_dormitory_dataset_chinese.csv").getInputStream(), StandardCharsets.UTF_8))) {
                 
@@ -89,6 +98,8 @@ public class DataInitializer {
                                 bed.setBedNumber(cleanBedNum);
                                 bed.setStatus("Occupied");
                                 bedRepository.save(bed);
+                                occupancyLedger.record(OccupancyEvent.CHECK_IN, bed.getBedID(), room.getRoomID(),
+                                        building.getBuildingID(), studentId);
                             }
                         }
                         
@@ -96,64 +107,40 @@ public class DataInitializer {
                         if (userAccountRepository.findByUsername(studentId).isEmpty()) {
                             UserAccount user = new UserAccount();
                             user.setUsername(studentId);
-                            user.setPasswordHash(hashPassword("student123"));
+                            if (studentPasswordHash == null) {
+                                studentPasswordHash = passwordHashingService.hashNow("student123");
+                            }
+                            user.setPasswordHash(studentPasswordHash);
                             user.setRole("Student");
                             user.setRelatedStudentID(studentId);
                             userAccountRepository.save(user);
-                            System.out.println("Created user for student: " + studentId);
+                            rowLog.info("Created user for student: {}", studentId);
                         }
                     }
                 }
                 
                 // Sync room occupancy with actual occupied beds count
-                syncRoomOccupancy(roomRepository, bedRepository);
+                syncRoomOccupancy(occupancyLedger);
                 
-                System.out.println("Database initialization check complete.");
+                log.info("Database initialization check complete.");
             } catch (Exception e) {
-                System.err.println("Error initializing data: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error initializing data", e);
             }
         };
     }
 
     /**
-     * Sync room occupancy counts with actual occupied bed counts.
-     * This ensures data consistency between Room.currentOccupancy and actual Bed status.
+     * Sync room occupancy counts with the occupancy ledger.
+     * The ledger replays events since its last snapshot instead of scanning every bed.
      */
-    private void syncRoomOccupancy(RoomRepository roomRepository, BedRepository bedRepository) {
-        System.out.println("Syncing room occupancy data...");
-        List<Room> allRooms = roomRepository.findAll();
-        int updatedCount = 0;
-        
-        for (Room room : allRooms) {
-            // Count occupied beds for this room
-            List<Bed> beds = bedRepository.findByRoomID(room.getRoomID());
-            int occupiedCount = (int) beds.stream()
-                    .filter(b -> "Occupied".equalsIgnoreCase(b.getStatus()))
-                    .count();
-            
-            // Update if different
-            if (room.getCurrentOccupancy() == null || room.getCurrentOccupancy() != occupiedCount) {
-                room.setCurrentOccupancy(occupiedCount);
-                roomRepository.save(room);
-                updatedCount++;
-            }
-        }
-        
+    private void syncRoomOccupancy(OccupancyLedger occupancyLedger) {
+        log.info("Syncing room occupancy data...");
+        int updatedCount = occupancyLedger.rebuildRoomOccupancy();
+
         if (updatedCount > 0) {
-            System.out.println("Updated occupancy for " + updatedCount + " rooms.");
+            log.info("Updated occupancy for {} rooms.", updatedCount);
         } else {
-            System.out.println("Room occupancy data is consistent.");
-        }
-    }
-
-    private String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
+            log.info("Room occupancy data is consistent.");
         }
     }
 }
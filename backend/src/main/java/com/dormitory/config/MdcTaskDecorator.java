@@ -0,0 +1,47 @@
+package com.dormitory.config;
+
+import com.dormitory.service.Tracer;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's logging context (correlation id) and current trace span into
+ * background tasks, so work handed off to another thread is logged and traced as part of the request.
+ * Spring Boot applies it to the @Async executor; other executors wrap tasks with {@link #wrap}.
+ */
+@Component
+public class MdcTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return wrap(runnable);
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Tracer.Span span = Tracer.current();
+        if (context == null && span == null) {
+            return runnable;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            Tracer.Span previousSpan = Tracer.swap(span);
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                runnable.run();
+            } finally {
+                Tracer.swap(previousSpan);
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
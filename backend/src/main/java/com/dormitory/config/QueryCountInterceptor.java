@@ -0,0 +1,60 @@
+package com.dormitory.config;
+
+import com.dormitory.service.QueryStatsService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Opens a {@link QueryScope} for each API request and hands the counts to {@link QueryStatsService},
+ * keyed by handler (Controller.method) so the number of distinct keys stays bounded.
+ */
+@Component
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".scope";
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async re-dispatch of a streaming response is not counted a second time
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryScope.open());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request, handler);
+    }
+
+    /**
+     * Streaming and async responses: count what ran on the request thread, then release it
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish(request, handler);
+    }
+
+    private void finish(HttpServletRequest request, Object handler) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryScope scope) {
+            scope.close();
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            queryStatsService.record(handlerName(handler), request.getMethod(), request.getRequestURI(), scope);
+        }
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,199 @@
+package com.dormitory.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps the DataSource so every JDBC statement and fetched row is charged to the open
+ * {@link QueryScope}s of the calling thread, and statements slower than the slow-query threshold
+ * are handed to the registered {@link SlowStatementListener} with their SQL and bind parameters.
+ *
+ * Plain JDK proxies over Connection, Statement and ResultSet: JPA, native queries and JdbcTemplate
+ * are all counted the same way. unwrap()/isWrapperFor() pass through, so pool metrics and
+ * Spring Boot's Hikari integration still see the real pool.
+ *
+ * Connection checkouts also go through the registered {@link ConnectionGate}, which can hold a caller
+ * back (or refuse it) before it takes a connection from the pool, and is told when that connection is closed.
+ */
+@Component
+public class QueryCountingDataSource implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Receives statements that took longer than its threshold (called on the executing thread)
+     */
+    public interface SlowStatementListener {
+        long thresholdNanos();
+
+        void slowStatement(String sql, Map<Integer, Object> parameters, long nanos);
+    }
+
+    /**
+     * Meters connection checkouts (called on the thread asking for the connection)
+     */
+    public interface ConnectionGate {
+        /**
+         * Called before a connection is taken from the pool. Returns the action to run when the
+         * connection is closed, or null when the caller is not metered; throws to refuse the checkout.
+         */
+        Runnable acquire() throws SQLException;
+    }
+
+    private static volatile SlowStatementListener slowStatementListener;
+
+    // Per application context, unlike the listener: each context meters its own pool
+    private volatile ConnectionGate connectionGate;
+
+    /**
+     * Registered by the slow-query service once it is initialised; the proxies are created before it exists
+     */
+    public static void setSlowStatementListener(SlowStatementListener listener) {
+        slowStatementListener = listener;
+    }
+
+    /**
+     * Registered by the connection bulkhead once it is initialised
+     */
+    public void setConnectionGate(ConnectionGate gate) {
+        connectionGate = gate;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Only the application's DataSource, so pools behind it are never counted twice
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                ConnectionGate gate = connectionGate;
+                Runnable release = gate != null && "getConnection".equals(method.getName()) ? gate.acquire() : null;
+                Object result;
+                try {
+                    result = invoke(target, method, args);
+                } catch (Throwable e) {
+                    if (release != null) {
+                        release.run();
+                    }
+                    throw e;
+                }
+                return result instanceof Connection c ? proxy(Connection.class, c, connectionHandler(release)) : result;
+            });
+        }
+        return bean;
+    }
+
+    private static InvocationHandlerFor<Connection> connectionHandler(Runnable release) {
+        AtomicBoolean open = new AtomicBoolean(true);
+        return (target, method, args) -> {
+            if (release != null && "close".equals(method.getName()) && open.compareAndSet(true, false)) {
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    release.run();
+                }
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return wrapStatement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object wrapStatement(Class<?> type, Statement statement, String preparedSql) {
+        boolean prepared = PreparedStatement.class.isAssignableFrom(type);
+        Map<Integer, Object> parameters = prepared ? new TreeMap<>() : null;
+        return proxy((Class<Statement>) type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                long start = System.nanoTime();
+                try {
+                    return wrapResultSet(invoke(target, method, args));
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    if (QueryScope.active()) {
+                        QueryScope.statementExecuted(sql, nanos);
+                    }
+                    SlowStatementListener listener = slowStatementListener;
+                    if (listener != null && sql != null && nanos >= listener.thresholdNanos()) {
+                        listener.slowStatement(sql, parameters != null ? new TreeMap<>(parameters) : Map.of(), nanos);
+                    }
+                }
+            }
+            if (parameters != null) {
+                // PreparedStatement.setXxx(index, value, ...) / setNull(index, type) / clearParameters()
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+            }
+            Object result = invoke(target, method, args);
+            return "getResultSet".equals(name) || "getGeneratedKeys".equals(name) ? wrapResultSet(result) : result;
+        });
+    }
+
+    private static Object wrapResultSet(Object result) {
+        if (!(result instanceof ResultSet resultSet)) {
+            return result;
+        }
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object value = invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(value)) {
+                QueryScope.rowFetched();
+            }
+            return value;
+        });
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Proxy plumbing
+    // ---------------------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface InvocationHandlerFor<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandlerFor<T> handler) {
+        InvocationHandler h = (proxy, method, args) -> {
+            String name = method.getName();
+            if ("equals".equals(name) && args != null && args.length == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name) && args == null) {
+                return "QueryCounting[" + target + "]";
+            }
+            return handler.invoke(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, h));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dormitory.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC statements, rows and time spent on the current thread while the scope is open.
+ *
+ * Scopes nest: every statement is charged to all scopes open on the thread, so a test can wrap a
+ * MockMvc call in its own scope while the request interceptor opens another one inside it.
+ * Counting is done by {@link QueryCountingDataSource}; when no scope is open it costs one
+ * thread-local lookup per statement.
+ *
+ * <pre>
+ * try (QueryScope scope = QueryScope.open()) {
+ *     mockMvc.perform(get("/api/applications"));
+ *     scope.assertMaxStatements(5);
+ * }
+ * </pre>
+ */
+public class QueryScope implements AutoCloseable {
+
+    /** Distinct SQL strings tracked per scope for repeat (N+1) detection */
+    private static final int MAX_TRACKED_SQL = 200;
+
+    private static final ThreadLocal<Deque<QueryScope>> OPEN = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private int statements;
+    private long rows;
+    private long elapsedNanos;
+    private final Map<String, Integer> sqlCounts = new HashMap<>();
+    private String mostRepeatedSql;
+    private int mostRepeatedCount;
+    private boolean closed;
+
+    private QueryScope() {
+    }
+
+    public static QueryScope open() {
+        QueryScope scope = new QueryScope();
+        OPEN.get().push(scope);
+        return scope;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            OPEN.get().remove(this);
+        }
+    }
+
+    static boolean active() {
+        return !OPEN.get().isEmpty();
+    }
+
+    static void statementExecuted(String sql, long nanos) {
+        for (QueryScope scope : OPEN.get()) {
+            scope.statements++;
+            scope.elapsedNanos += nanos;
+            if (sql != null && (scope.sqlCounts.size() < MAX_TRACKED_SQL || scope.sqlCounts.containsKey(sql))) {
+                int count = scope.sqlCounts.merge(sql, 1, Integer::sum);
+                if (count > scope.mostRepeatedCount) {
+                    scope.mostRepeatedCount = count;
+                    scope.mostRepeatedSql = sql;
+                }
+            }
+        }
+    }
+
+    static void rowFetched() {
+        for (QueryScope scope : OPEN.get()) {
+            scope.rows++;
+        }
+    }
+
+    public int getStatements() { return statements; }
+    public long getRows() { return rows; }
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+    public int getDistinctStatements() { return sqlCounts.size(); }
+
+    /** SQL executed most often in this scope; many repeats of one statement usually mean N+1 */
+    public String getMostRepeatedSql() { return mostRepeatedSql; }
+    public int getMostRepeatedCount() { return mostRepeatedCount; }
+
+    /**
+     * Test helper: fail if more than the given number of statements ran in this scope
+     */
+    public QueryScope assertMaxStatements(int max) {
+        if (statements > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statements but " + statements + " were executed"
+                    + (mostRepeatedCount > 1 ? "; repeated " + mostRepeatedCount + "x: " + mostRepeatedSql : ""));
+        }
+        return this;
+    }
+
+    /**
+     * Test helper: fail if any single statement ran more than the given number of times
+     */
+    public QueryScope assertMaxRepeats(int max) {
+        if (mostRepeatedCount > max) {
+            throw new AssertionError("Expected no statement to run more than " + max + " times but "
+                    + mostRepeatedCount + " executions of: " + mostRepeatedSql);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + rows + " rows, " + getElapsedMillis() + " ms";
+    }
+}
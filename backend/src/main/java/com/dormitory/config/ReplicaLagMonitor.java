@@ -0,0 +1,130 @@
+package com.dormitory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures replica lag with a heartbeat row: every check writes the current time to
+ * replica_heartbeat on the primary and reads it back from the replica. The difference between now and
+ * the value the replica returns is how far behind it is (close to zero when replication keeps up).
+ *
+ * The replica is used for read-only work only while the last check succeeded and the lag was within
+ * app.datasource.replica.max-lag-ms; otherwise {@link ReplicaRoutingDataSource} falls back to the
+ * primary until a later check sees it caught up. Works on any database, unlike SHOW REPLICA STATUS.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMs = -1;
+    private volatile String lastError;
+    private volatile LocalDateTime lastCheckedAt;
+    private boolean heartbeatTableReady;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+    }
+
+    void setRoutingDataSource(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean usable;
+        try {
+            long beat = System.currentTimeMillis();
+            writeHeartbeat(beat);
+            long seen = readHeartbeat();
+            lastLagMs = seen >= 0 ? System.currentTimeMillis() - seen : -1;
+            lastError = seen >= 0 ? null : "no heartbeat on replica yet";
+            usable = seen >= 0 && lastLagMs <= maxLagMs;
+        } catch (SQLException e) {
+            lastError = e.getMessage();
+            usable = false;
+        }
+        lastCheckedAt = LocalDateTime.now();
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica back in use (lag {} ms)", lastLagMs);
+            } else {
+                log.warn("Replica out of use, reads go to the primary (lag {} ms, limit {} ms{})",
+                        lastLagMs, maxLagMs, lastError != null ? ", " + lastError : "");
+            }
+            replicaUsable = usable;
+        }
+    }
+
+    private void writeHeartbeat(long beat) throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            if (!heartbeatTableReady) {
+                try (Statement ddl = connection.createStatement()) {
+                    ddl.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+                }
+                heartbeatTableReady = true;
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1")) {
+                update.setLong(1, beat);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)")) {
+                        insert.setLong(1, beat);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * @return the heartbeat the replica has, or -1 if it has none yet
+     */
+    private long readHeartbeat() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT beat_millis FROM replica_heartbeat WHERE id = 1")) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", true);
+        stats.put("replicaUsable", replicaUsable);
+        stats.put("lagMs", lastLagMs);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("lastCheckedAt", lastCheckedAt);
+        stats.put("lastError", lastError);
+        if (routingDataSource != null) {
+            stats.put("primaryConnections", routingDataSource.getPrimaryConnections());
+            stats.put("replicaConnections", routingDataSource.getReplicaConnections());
+            stats.put("readOnlyFallbacks", routingDataSource.getFallbacks());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,94 @@
+package com.dormitory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read/write splitting, enabled with app.datasource.replica.enabled=true.
+ *
+ * Replaces Spring Boot's single pool with two: the primary (spring.datasource.*, tuned by
+ * spring.datasource.hikari.*) and a read-only replica pool (app.datasource.replica.*). The application's
+ * "dataSource" routes between them with {@link ReplicaRoutingDataSource}, so @Transactional(readOnly = true)
+ * work (the dashboard controllers, Spring Data finders outside a transaction) reads from the replica while
+ * bookings and every other write stay on the primary. It keeps the bean name "dataSource", so statement
+ * counting and the slow-query log still see every statement exactly once.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:16}") int maximumPoolSize) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("dormitory-replica-pool");
+        replica.setMaximumPoolSize(maximumPoolSize);
+        replica.setConnectionTimeout(5000);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        return new ReplicaLagMonitor(primary, replica, maxLagMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor);
+        routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primary, ReplicaRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        lagMonitor.setRoutingDataSource(routing);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Give the connection back at the end of each transaction. With open-session-in-view the session
+     * would otherwise keep its first connection for the whole request, and a write following a
+     * read-only transaction would reuse the replica connection.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
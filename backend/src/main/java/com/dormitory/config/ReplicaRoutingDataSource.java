@@ -0,0 +1,47 @@
+package com.dormitory.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections opened inside a read-only transaction to the replica pool and everything else
+ * (writes, and reads outside a transaction) to the primary. When {@link ReplicaLagMonitor} reports the
+ * replica as behind or unreachable, read-only work falls back to the primary as well.
+ *
+ * The read-only flag is only known once the transaction has started, so this sits behind a
+ * LazyConnectionDataSourceProxy that defers the real getConnection() to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable()) {
+                replicaConnections.incrementAndGet();
+                return REPLICA;
+            }
+            fallbacks.incrementAndGet();
+        }
+        primaryConnections.incrementAndGet();
+        return PRIMARY;
+    }
+
+    public long getPrimaryConnections() { return primaryConnections.get(); }
+    public long getReplicaConnections() { return replicaConnections.get(); }
+    public long getFallbacks() { return fallbacks.get(); }
+}
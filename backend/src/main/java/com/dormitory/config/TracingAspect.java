@@ -0,0 +1,67 @@
+package com.dormitory.config;
+
+import com.dormitory.service.Tracer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Opens a {@link Tracer} span around every controller, service and repository call.
+ *
+ * Span names are Type.method; @Async service methods get kind "async" (they run on the executor thread,
+ * parented to the caller through MdcTaskDecorator). Controller spans record the HTTP method and path.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Around("within(com.dormitory.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint pjp) throws Throwable {
+        Tracer.Span span = tracer.start(name(pjp), "controller");
+        if (span != null && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs) {
+            HttpServletRequest request = attrs.getRequest();
+            span.attribute("http", request.getMethod() + " " + request.getRequestURI());
+        }
+        return proceed(pjp, span);
+    }
+
+    @Around("within(com.dormitory.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint pjp) throws Throwable {
+        boolean async = ((MethodSignature) pjp.getSignature()).getMethod().isAnnotationPresent(Async.class);
+        return proceed(pjp, tracer.start(name(pjp), async ? "async" : "service"));
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object traceRepository(ProceedingJoinPoint pjp) throws Throwable {
+        // Repositories are JDK proxies; name them after the application interface, not the proxy class
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(pjp.getThis());
+        String type = interfaces.length > 0 ? interfaces[0].getSimpleName() : pjp.getSignature().getDeclaringType().getSimpleName();
+        return proceed(pjp, tracer.start(type + "." + pjp.getSignature().getName(), "repository"));
+    }
+
+    private Object proceed(ProceedingJoinPoint pjp, Tracer.Span span) throws Throwable {
+        try {
+            return pjp.proceed();
+        } catch (Throwable t) {
+            if (span != null) span.fail(t);
+            throw t;
+        } finally {
+            tracer.finish(span);
+        }
+    }
+
+    private static String name(ProceedingJoinPoint pjp) {
+        return pjp.getSignature().getDeclaringType().getSimpleName() + "." + pjp.getSignature().getName();
+    }
+}
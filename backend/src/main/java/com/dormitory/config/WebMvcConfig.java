@@ -17,8 +17,17 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private RoleSecurityInterceptor roleSecurityInterceptor;
 
+    @Autowired
+    private QueryCountInterceptor queryCountInterceptor;
+
+    @Autowired
+    private ConnectionBulkheadInterceptor connectionBulkheadInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // Per-request SQL statement counts (registered first so it also covers rejected requests)
+        registry.addInterceptor(queryCountInterceptor).addPathPatterns("/api/**");
+
         // Register the role security interceptor for all API endpoints
         registry.addInterceptor(roleSecurityInterceptor)
                 .addPathPatterns("/api/**")
@@ -30,6 +39,11 @@ public class WebMvcConfig implements WebMvcConfigurer {
                     "/api/captcha/**",
                     "/api/health"
                 );
+
+        // Connection-pool bulkhead, after the role check so it can use the authenticated role
+        registry.addInterceptor(connectionBulkheadInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/health");
     }
 
     @Override
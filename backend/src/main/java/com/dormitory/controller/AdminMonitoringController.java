@@ -0,0 +1,240 @@
+package com.dormitory.controller;
+
+import com.dormitory.config.ConnectionBulkheadInterceptor;
+import com.dormitory.config.ReplicaLagMonitor;
+import com.dormitory.security.PasswordHashingService;
+import com.dormitory.security.RequiresRole;
+import com.dormitory.service.AppMetrics;
+import com.dormitory.service.ApplicationQueueService;
+import com.dormitory.service.BookingRetryExecutor;
+import com.dormitory.service.QueryStatsService;
+import com.dormitory.service.RateLimitService;
+import com.dormitory.service.ReservationExpiryQueue;
+import com.dormitory.service.SlowQueryService;
+import com.dormitory.service.Tracer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin-only diagnostics for the running backend (caches, pools, queues, metrics).
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiresRole({"Admin"})
+public class AdminMonitoringController {
+
+    private static final String[] ENTITY_REGIONS = {"dormitory.building", "dormitory.room"};
+    private static final String QUERY_REGION = "default-query-results-region";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookingRetryExecutor bookingRetryExecutor;
+
+    @Autowired
+    private ApplicationQueueService applicationQueueService;
+
+    @Autowired
+    private ReservationExpiryQueue reservationExpiryQueue;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Autowired
+    private SlowQueryService slowQueryService;
+
+    @Autowired
+    private ConnectionBulkheadInterceptor connectionBulkhead;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    /** Only present when read replica routing is enabled */
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private Tracer tracer;
+
+    /**
+     * Second-level cache hit ratios for the reference-data regions
+     */
+    @GetMapping("/cache-stats")
+    public Map<String, Object> getCacheStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String region : ENTITY_REGIONS) {
+            result.put(region, regionStats(stats.getDomainDataRegionStatistics(region)));
+        }
+        result.put(QUERY_REGION, regionStats(stats.getQueryRegionStatistics(QUERY_REGION)));
+        result.put("overallHitRatio", ratio(stats.getSecondLevelCacheHitCount(), stats.getSecondLevelCacheMissCount()));
+        result.put("statisticsEnabled", stats.isStatisticsEnabled());
+        return result;
+    }
+
+    /**
+     * Booking transaction retry counters (deadlocks / lock-wait timeouts) per operation
+     */
+    @GetMapping("/booking-stats")
+    public Map<String, Object> getBookingStats() {
+        return bookingRetryExecutor.getStats();
+    }
+
+    /**
+     * Room application waiting-room depth and throughput
+     */
+    @GetMapping("/booking-queue")
+    public Map<String, Object> getBookingQueueStats() {
+        return applicationQueueService.getStats();
+    }
+
+    /**
+     * Reservations waiting to expire, retries in progress and dead letters
+     */
+    @GetMapping("/reservation-expiry")
+    public Map<String, Object> getReservationExpiry() {
+        return reservationExpiryQueue.getStats();
+    }
+
+    /**
+     * Application metrics as JSON (the same meters Prometheus scrapes from /actuator/prometheus)
+     */
+    @GetMapping("/metrics")
+    public Map<String, Object> getMetrics() {
+        return appMetrics.dashboard();
+    }
+
+    /**
+     * Connection pool usage and the student/manager bulkhead
+     */
+    @GetMapping("/db-pool")
+    public Map<String, Object> getDbPool() {
+        return connectionBulkhead.getStats();
+    }
+
+    /**
+     * Password hashing pool: work factor, queue depth, rejections and upgraded hashes
+     */
+    @GetMapping("/password-hashing")
+    public Map<String, Object> getPasswordHashing() {
+        return passwordHashingService.getStats();
+    }
+
+    /**
+     * Login and captcha rate limits with allowed/rejected counts
+     */
+    @GetMapping("/rate-limits")
+    public Map<String, Object> getRateLimits() {
+        return rateLimitService.getStats();
+    }
+
+    /**
+     * Replica lag and how many connections went to the primary and the replica
+     */
+    @GetMapping("/db-routing")
+    public Map<String, Object> getDbRouting() {
+        return replicaLagMonitor != null ? replicaLagMonitor.getStats() : Map.of("enabled", false);
+    }
+
+    /**
+     * Handlers with the most SQL statements per request and suspected N+1 loops
+     */
+    @GetMapping("/query-stats")
+    public Map<String, Object> getQueryStats(@RequestParam(defaultValue = "20") int limit) {
+        return queryStatsService.topOffenders(limit);
+    }
+
+    /**
+     * Clear the query statistics (e.g. after deploying a fix)
+     */
+    @DeleteMapping("/query-stats")
+    public Map<String, Object> resetQueryStats() {
+        queryStatsService.reset();
+        return Map.of("message", "Query statistics cleared");
+    }
+
+    /**
+     * Slow statements by fingerprint with their captured EXPLAIN plans; sort by total, max or count
+     */
+    @GetMapping("/slow-queries")
+    public Map<String, Object> getSlowQueries(@RequestParam(defaultValue = "20") int limit,
+                                              @RequestParam(defaultValue = "total") String sort) {
+        return slowQueryService.report(limit, sort);
+    }
+
+    /**
+     * Clear the slow-query log
+     */
+    @DeleteMapping("/slow-queries")
+    public Map<String, Object> resetSlowQueries() {
+        slowQueryService.reset();
+        return Map.of("message", "Slow-query log cleared");
+    }
+
+    /**
+     * Slowest recent request traces, optionally filtered by handler name or path
+     */
+    @GetMapping("/traces")
+    public Map<String, Object> getTraces(@RequestParam(defaultValue = "20") int limit,
+                                         @RequestParam(required = false) String name) {
+        return tracer.slowest(limit, name);
+    }
+
+    /**
+     * Full span tree of one trace
+     */
+    @GetMapping("/traces/{traceId}")
+    public ResponseEntity<?> getTrace(@PathVariable String traceId) {
+        Tracer.Span trace = tracer.find(traceId);
+        return trace != null ? ResponseEntity.ok(trace) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/traces")
+    public Map<String, Object> clearTraces() {
+        tracer.clear();
+        return Map.of("message", "Traces cleared");
+    }
+
+    private Map<String, Object> regionStats(CacheRegionStatistics region) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        if (region == null) {
+            item.put("hits", 0L);
+            item.put("misses", 0L);
+            item.put("puts", 0L);
+            item.put("hitRatio", 0.0);
+            return item;
+        }
+        item.put("hits", region.getHitCount());
+        item.put("misses", region.getMissCount());
+        item.put("puts", region.getPutCount());
+        item.put("elementsInMemory", region.getElementCountInMemory());
+        item.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+        return item;
+    }
+
+    private double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? Math.round(hits * 10000.0 / total) / 100.0 : 0.0;
+    }
+}
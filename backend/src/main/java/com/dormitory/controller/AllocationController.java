@@ -0,0 +1,42 @@
+package com.dormitory.controller;
+
+import com.dormitory.dto.AllocationRequest;
+import com.dormitory.security.JwtTokenService;
+import com.dormitory.security.RequiresRole;
+import com.dormitory.service.BedAllocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Bulk bed allocation for incoming cohorts.
+ */
+@RestController
+@RequestMapping("/api/manager/allocation")
+@RequiresRole({"DormManager", "Admin"})
+public class AllocationController {
+
+    @Autowired
+    private BedAllocationService bedAllocationService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    /**
+     * Compute an allocation plan for unassigned students.
+     * Dry run by default; send "dryRun": false to check everyone in through the batched path
+     */
+    @PostMapping
+    public ResponseEntity<?> allocate(@CookieValue(name = "auth", required = false) String authToken,
+                                      @RequestBody(required = false) AllocationRequest request) {
+        AllocationRequest req = request != null ? request : new AllocationRequest();
+        boolean dryRun = req.getDryRun() == null || req.getDryRun();
+        String username = jwtTokenService.verifyToken(authToken).getUsername();
+
+        Map<String, Object> result = bedAllocationService.allocate(
+                req.getEnrollmentYear(), req.getBuildingIDs(), dryRun, username != null ? username : "system");
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,14 +1,27 @@
 package com.dormitory.controller;
 
+import com.dormitory.dto.AuditSearchCriteria;
 import com.dormitory.entity.AuditLog;
 import com.dormitory.repository.AuditLogRepository;
 import com.dormitory.security.RequiresRole;
+import com.dormitory.service.AppMetrics;
+import com.dormitory.service.AuditRetentionService;
+import com.dormitory.service.AuditSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,33 +30,39 @@ import java.util.Map;
 @RequiresRole({"DormManager", "Admin"})  // Only managers/admins can view audit logs
 public class AuditController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditRetentionService auditRetentionService;
+
+    @Autowired
+    private AuditSearchService auditSearchService;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Value("${app.audit.export-timeout-ms:600000}")
+    private long exportTimeoutMs;
+
     /**
      * Get paginated audit logs
      */
     @GetMapping
+    @Transactional(readOnly = true)
     public Map<String, Object> getAuditLogs(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int size) {
-        
-        Pageable pageable = PageRequest.of(Math.max(0, page - 1), size);
-        Page<AuditLog> logPage = auditLogRepository.findAllByOrderByTimestampDesc(pageable);
-        
-        return Map.of(
-            "items", logPage.getContent(),
-            "total", logPage.getTotalElements(),
-            "page", page,
-            "size", size,
-            "totalPages", logPage.getTotalPages()
-        );
+        return toPage(auditLogRepository.findAllByOrderByTimestampDesc(pageable(page, size)), page);
     }
 
     /**
      * Get recent audit logs (last 100)
      */
     @GetMapping("/recent")
+    @Transactional(readOnly = true)
     public List<AuditLog> getRecentLogs() {
         return auditLogRepository.findTop100ByOrderByTimestampDesc();
     }
@@ -52,31 +71,113 @@ public class AuditController {
      * Get logs by entity type
      */
     @GetMapping("/entity/{entityType}")
-    public List<AuditLog> getLogsByEntityType(@PathVariable String entityType) {
-        return auditLogRepository.findByEntityTypeOrderByTimestampDesc(entityType);
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLogsByEntityType(@PathVariable String entityType,
+                                                   @RequestParam(defaultValue = "1") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        return toPage(auditLogRepository.findByEntityTypeOrderByTimestampDesc(entityType, pageable(page, size)), page);
     }
 
     /**
      * Get logs by user
      */
     @GetMapping("/user/{username}")
-    public List<AuditLog> getLogsByUser(@PathVariable String username) {
-        return auditLogRepository.findByPerformedByOrderByTimestampDesc(username);
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLogsByUser(@PathVariable String username,
+                                             @RequestParam(defaultValue = "1") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        return toPage(auditLogRepository.findByPerformedByOrderByTimestampDesc(username, pageable(page, size)), page);
     }
 
     /**
      * Get logs by action
      */
     @GetMapping("/action/{action}")
-    public List<AuditLog> getLogsByAction(@PathVariable String action) {
-        return auditLogRepository.findByActionOrderByTimestampDesc(action);
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLogsByAction(@PathVariable String action,
+                                               @RequestParam(defaultValue = "1") int page,
+                                               @RequestParam(defaultValue = "20") int size) {
+        return toPage(auditLogRepository.findByActionOrderByTimestampDesc(action, pageable(page, size)), page);
     }
 
     /**
      * Get history for a specific entity
      */
     @GetMapping("/history/{entityId}")
-    public List<AuditLog> getEntityHistory(@PathVariable String entityId) {
-        return auditLogRepository.findByEntityIdOrderByTimestampDesc(entityId);
+    @Transactional(readOnly = true)
+    public Map<String, Object> getEntityHistory(@PathVariable String entityId,
+                                                @RequestParam(defaultValue = "1") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        return toPage(auditLogRepository.findByEntityIdOrderByTimestampDesc(entityId, pageable(page, size)), page);
+    }
+
+    /**
+     * Search by any combination of action, entityType, entityId, performedBy, ipAddress and
+     * from/to (ISO date-time), newest first. Pass the previous response's nextCursor to continue.
+     */
+    @GetMapping("/search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> search(AuditSearchCriteria criteria,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(auditSearchService.search(criteria, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Export the full search result as NDJSON, streamed row by row.
+     * Runs under app.audit.export-timeout-ms instead of the much shorter default async timeout
+     */
+    @GetMapping("/search/export")
+    public ResponseEntity<StreamingResponseBody> exportSearch(AuditSearchCriteria criteria, HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+        StreamingResponseBody body = out -> {
+            long start = System.nanoTime();
+            long rows = auditSearchService.export(criteria, out);
+            appMetrics.recordExport("audit", "ndjson", rows, System.nanoTime() - start);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=audit-export.ndjson")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Get partition layout, archive files and the last retention run
+     */
+    @GetMapping("/storage")
+    @RequiresRole({"Admin"})
+    public Map<String, Object> getStorage() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("partitions", auditRetentionService.partitions());
+        result.put("archives", auditRetentionService.listArchives());
+        result.put("lastRetentionRun", auditRetentionService.getLastReport());
+        return result;
+    }
+
+    /**
+     * Run partition maintenance and retention now
+     */
+    @PostMapping("/retention")
+    @RequiresRole({"Admin"})
+    public Map<String, Object> runRetention() {
+        return auditRetentionService.run();
+    }
+
+    private static Pageable pageable(int page, int size) {
+        return PageRequest.of(Math.max(0, page - 1), Math.min(Math.max(1, size), MAX_PAGE_SIZE));
+    }
+
+    private static Map<String, Object> toPage(Page<AuditLog> logPage, int page) {
+        return Map.of(
+            "items", logPage.getContent(),
+            "total", logPage.getTotalElements(),
+            "page", Math.max(1, page),
+            "size", logPage.getSize(),
+            "totalPages", logPage.getTotalPages()
+        );
     }
 }
@@ -8,7 +8,12 @@ import com.dormitory.entity.UserAccount;
 import com.dormitory.entity.Student;
 import com.dormitory.repository.StudentRepository;
 import com.dormitory.repository.UserAccountRepository;
+import com.dormitory.security.PasswordHashingService;
+import com.dormitory.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -16,15 +21,16 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private UserAccountRepository userAccountRepository;
 
@@ -34,6 +40,12 @@ public class AuthController {
     @Autowired
     private com.dormitory.service.CaptchaService captchaService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
     @Value("${app.auth.secret:change-me}")
     private String authSecret;
 
@@ -121,21 +133,38 @@ public class AuthController {
         }
     }
 
+    /**
+     * Password checks run on the hashing pool; the request thread is released while they wait
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Throttle per client address and per account before any captcha, database or hashing work
+        if (!rateLimitService.tryAcquire(RateLimitService.LOGIN_IP, rateLimitService.clientAddress(httpRequest))) {
+            return CompletableFuture.completedFuture(tooManyAttempts(RateLimitService.LOGIN_IP));
+        }
+        if (!rateLimitService.tryAcquire(RateLimitService.LOGIN_USERNAME, request.getUsername())) {
+            return CompletableFuture.completedFuture(tooManyAttempts(RateLimitService.LOGIN_USERNAME));
+        }
+
         // Validate Captcha
         if (!captchaService.validateCaptcha(request.getCaptchaId(), request.getCaptchaText())) {
-            return ResponseEntity.badRequest().body("Invalid or expired captcha");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid or expired captcha"));
         }
 
+        // Unknown users are checked against a dummy hash, so they take as long as a wrong password
         UserAccount user = userAccountRepository.findByUsername(request.getUsername()).orElse(null);
-        if (user == null) {
-            return ResponseEntity.badRequest().body("Invalid username or password");
-        }
+        return passwordHashingService.verifyAsync(request.getPassword(), user != null ? user.getPasswordHash() : null)
+                .<ResponseEntity<?>>thenApply(verification -> loginResult(user, request.getPassword(), verification))
+                .exceptionally(this::hashingFailed);
+    }
 
-        if (!verifyPassword(request.getPassword(), user.getPasswordHash())) {
+    private ResponseEntity<?> loginResult(UserAccount user, String rawPassword, PasswordHashingService.Verification verification) {
+        if (user == null || !verification.matches()) {
             return ResponseEntity.badRequest().body("Invalid username or password");
         }
+        if (verification.needsRehash()) {
+            upgradeHash(user, rawPassword);
+        }
 
         LoginResponse resp = new LoginResponse(
             user.getUserID(),
@@ -159,55 +188,91 @@ public class AuthController {
             .body(resp);
     }
 
+    /**
+     * Store a hash with the current algorithm and work factor (legacy SHA-256 or older parameters).
+     * Done in the background after the login response; a failure only means it is retried next login.
+     */
+    private void upgradeHash(UserAccount user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        passwordHashingService.hashAsync(rawPassword)
+                .thenAccept(newHash -> {
+                    if (userAccountRepository.replacePasswordHash(user.getUserID(), oldHash, newHash) > 0) {
+                        passwordHashingService.recordRehash();
+                    }
+                })
+                .exceptionally(e -> {
+                    log.warn("Could not upgrade password hash of {}: {}", user.getUsername(), e.getMessage());
+                    return null;
+                });
+    }
+
+    private ResponseEntity<?> tooManyAttempts(String limit) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitService.retryAfterSeconds(limit)))
+                .body("Too many login attempts, please try again later");
+    }
+
+    /**
+     * Hashing queue full: ask the client to retry instead of failing the request
+     */
+    private ResponseEntity<?> hashingFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof PasswordHashingService.BusyException) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body("Server busy, please retry");
+        }
+        throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+    }
+
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody UserAccount user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody UserAccount user) {
         if (userAccountRepository.findByUsername(user.getUsername()).isPresent()) {
-            return ResponseEntity.badRequest().body("Username already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username already exists"));
         }
-        user.setPasswordHash(hashPassword(user.getPasswordHash())); // Assume frontend sends raw password in this field for register
-        userAccountRepository.save(user);
-        return ResponseEntity.ok("User registered successfully");
+        // Assume frontend sends raw password in this field for register
+        return passwordHashingService.hashAsync(user.getPasswordHash())
+                .<ResponseEntity<?>>thenApply(hash -> {
+                    user.setPasswordHash(hash);
+                    userAccountRepository.save(user);
+                    return ResponseEntity.ok("User registered successfully");
+                })
+                .exceptionally(this::hashingFailed);
     }
 
     @PostMapping("/change-password")
-    public ResponseEntity<?> changePassword(@RequestBody ChangePasswordRequest request) {
+    public CompletableFuture<ResponseEntity<?>> changePassword(@RequestBody ChangePasswordRequest request) {
         UserAccount user = userAccountRepository.findByUsername(request.getUsername()).orElse(null);
         if (user == null) {
-            return ResponseEntity.badRequest().body("User not found");
-        }
-
-        if (!verifyPassword(request.getOldPassword(), user.getPasswordHash())) {
-            return ResponseEntity.badRequest().body("Invalid old password");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("User not found"));
         }
 
-        user.setPasswordHash(hashPassword(request.getNewPassword()));
-        userAccountRepository.save(user);
-        return ResponseEntity.ok("Password changed successfully");
+        return passwordHashingService.verifyAsync(request.getOldPassword(), user.getPasswordHash())
+                .<ResponseEntity<?>>thenCompose(verification -> {
+                    if (!verification.matches()) {
+                        return CompletableFuture.<ResponseEntity<?>>completedFuture(ResponseEntity.badRequest().body("Invalid old password"));
+                    }
+                    return passwordHashingService.hashAsync(request.getNewPassword())
+                            .<ResponseEntity<?>>thenApply(hash -> {
+                                user.setPasswordHash(hash);
+                                userAccountRepository.save(user);
+                                return ResponseEntity.ok("Password changed successfully");
+                            });
+                })
+                .exceptionally(this::hashingFailed);
     }
 
     @PostMapping("/admin/reset-password")
-    public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest request) {
+    public CompletableFuture<ResponseEntity<?>> resetPassword(@RequestBody ResetPasswordRequest request) {
         UserAccount user = userAccountRepository.findByUsername(request.getUsername()).orElse(null);
         if (user == null) {
-            return ResponseEntity.badRequest().body("User not found");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("User not found"));
         }
-        user.setPasswordHash(hashPassword(request.getNewPassword()));
-        userAccountRepository.save(user);
-        return ResponseEntity.ok("Password reset successfully");
-    }
-
-    private String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
-        }
-    }
-
-    private boolean verifyPassword(String rawPassword, String hashedPassword) {
-        return hashPassword(rawPassword).equals(hashedPassword);
+        return passwordHashingService.hashAsync(request.getNewPassword())
+                .<ResponseEntity<?>>thenApply(hash -> {
+                    user.setPasswordHash(hash);
+                    userAccountRepository.save(user);
+                    return ResponseEntity.ok("Password reset successfully");
+                })
+                .exceptionally(this::hashingFailed);
     }
 
     private String buildSignedToken(String username, String role, int maxAgeSeconds) {
@@ -239,7 +304,7 @@ public class AuthController {
         if (userAccountRepository.findByUsername("admin").isEmpty()) {
             UserAccount admin = new UserAccount();
             admin.setUsername("admin");
-            admin.setPasswordHash(hashPassword("admin123"));
+            admin.setPasswordHash(passwordHashingService.hashNow("admin123"));
             admin.setRole("Admin");
             userAccountRepository.save(admin);
         }
@@ -248,7 +313,7 @@ public class AuthController {
         if (userAccountRepository.findByUsername("manager").isEmpty()) {
             UserAccount manager = new UserAccount();
             manager.setUsername("manager");
-            manager.setPasswordHash(hashPassword("manager123"));
+            manager.setPasswordHash(passwordHashingService.hashNow("manager123"));
             manager.setRole("DormManager");
             userAccountRepository.save(manager);
         }
@@ -271,12 +336,12 @@ public class AuthController {
 
             UserAccount student = new UserAccount();
             student.setUsername(studentId); // Use Student ID as username
-            student.setPasswordHash(hashPassword("student123"));
+            student.setPasswordHash(passwordHashingService.hashNow("student123"));
             student.setRole("Student");
             student.setRelatedStudentID(studentId);
             userAccountRepository.save(student);
             
-            System.out.println("Created student user: " + studentId);
+            log.info("Created student user: {}", studentId);
         }
     }
 }
@@ -2,7 +2,9 @@ package com.dormitory.controller;
 
 import com.dormitory.entity.Student;
 import com.dormitory.repository.StudentRepository;
+import com.dormitory.security.JwtTokenService;
 import com.dormitory.security.RequiresRole;
+import com.dormitory.service.BatchCheckInService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -22,6 +24,12 @@ public class BatchController {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private BatchCheckInService batchCheckInService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
     /**
      * Export all students as CSV
      */
@@ -176,28 +184,31 @@ public class BatchController {
      * Batch check-in students
      */
     @PostMapping("/checkin")
-    public ResponseEntity<?> batchCheckIn(@RequestBody List<Map<String, Object>> assignments) {
+    public ResponseEntity<?> batchCheckIn(@CookieValue(name = "auth", required = false) String authToken,
+                                          @RequestBody List<Map<String, Object>> assignments) {
         // Each assignment: { studentID: "xxx", bedID: 123 }
-        List<String> success = new ArrayList<>();
+        List<BatchCheckInService.Assignment> valid = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
         for (Map<String, Object> assignment : assignments) {
-            String studentId = (String) assignment.get("studentID");
-            Integer bedId = (Integer) assignment.get("bedID");
+            Object studentId = assignment.get("studentID");
+            Object bedId = assignment.get("bedID");
             
-            if (studentId == null || bedId == null) {
+            if (!(studentId instanceof String) || !(bedId instanceof Number)) {
                 errors.add("Invalid assignment: missing studentID or bedID");
                 continue;
             }
+            valid.add(new BatchCheckInService.Assignment((String) studentId, ((Number) bedId).intValue()));
+        }
 
-            // This would call the check-in logic from DormitoryController
-            // For simplicity, just record the intent
-            // In production, you'd extract the check-in logic to a service
-            success.add(studentId + " -> Bed " + bedId);
+        String username = jwtTokenService.verifyToken(authToken).getUsername();
+        BatchCheckInService.BatchResult result = batchCheckInService.checkIn(valid, username != null ? username : "system");
+        for (Map<String, Object> skipped : result.getSkipped()) {
+            errors.add(skipped.get("studentID") + " -> Bed " + skipped.get("bedID") + ": " + skipped.get("reason"));
         }
 
         return ResponseEntity.ok(Map.of(
-            "processed", success.size(),
+            "processed", result.getCheckedIn(),
             "errors", errors
         ));
     }
@@ -210,7 +221,7 @@ public class BatchController {
         return value;
     }
 
-    private String[] parseCsvLine(String line) {
+    String[] parseCsvLine(String line) {
         List<String> parts = new ArrayList<>();
         StringBuilder current = new StringBuilder();
         boolean inQuotes = false;
@@ -1,7 +1,10 @@
 package com.dormitory.controller;
 
 import com.dormitory.service.CaptchaService;
+import com.dormitory.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,8 +21,19 @@ public class CaptchaController {
     @Autowired
     private CaptchaService captchaService;
 
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    /**
+     * Rendering a captcha image is CPU-heavy, so generation is rate limited per client address
+     */
     @GetMapping("/captcha")
-    public ResponseEntity<Map<String, String>> getCaptcha() {
+    public ResponseEntity<Map<String, String>> getCaptcha(HttpServletRequest request) {
+        if (!rateLimitService.tryAcquire(RateLimitService.CAPTCHA_IP, rateLimitService.clientAddress(request))) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitService.retryAfterSeconds(RateLimitService.CAPTCHA_IP)))
+                    .build();
+        }
         try {
             return ResponseEntity.ok(captchaService.createCaptcha());
         } catch (IOException e) {
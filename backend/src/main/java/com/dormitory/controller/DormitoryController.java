@@ -5,6 +5,7 @@ import com.dormitory.dto.CheckInRequest;
 import com.dormitory.entity.Bed;
 import com.dormitory.entity.CheckInOut;
 import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.OccupancyEvent;
 import com.dormitory.entity.Room;
 import com.dormitory.entity.Student;
 import com.dormitory.repository.BedRepository;
@@ -13,12 +14,17 @@ import com.dormitory.repository.DormBuildingRepository;
 import com.dormitory.repository.RoomRepository;
 import com.dormitory.repository.StudentRepository;
 import com.dormitory.security.RequiresRole;
+import com.dormitory.service.BedClaimRegistry;
 import com.dormitory.service.EmailService;
+import com.dormitory.service.OccupancyDirtyTracker;
+import com.dormitory.service.OccupancyLedger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,6 +53,15 @@ public class DormitoryController {
     @Autowired
     private com.dormitory.service.AuditService auditService;
 
+    @Autowired
+    private BedClaimRegistry bedClaimRegistry;
+
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
+    @Autowired
+    private OccupancyDirtyTracker occupancyDirtyTracker;
+
     @GetMapping
     public List<DormBuilding> getAllBuildings() {
         return buildingRepository.findAll();
@@ -148,6 +163,7 @@ public class DormitoryController {
 
     @PostMapping("/{buildingId}/rooms")
     @RequiresRole({"DormManager", "Admin"})
+    @Transactional
     public Room addRoom(@PathVariable Integer buildingId, @RequestBody Room room) {
         room.setBuildingID(buildingId);
         // Initialize occupancy if not provided
@@ -156,15 +172,17 @@ public class DormitoryController {
         }
         Room savedRoom = roomRepository.save(room);
         
-        // Automatically create beds based on room capacity
+        // Automatically create beds based on room capacity (saved as one JDBC batch)
         int capacity = room.getCapacity() != null ? room.getCapacity() : 0;
+        List<Bed> beds = new ArrayList<>();
         for (int i = 1; i <= capacity; i++) {
             Bed bed = new Bed();
             bed.setRoomID(savedRoom.getRoomID());
             bed.setBedNumber(String.valueOf(i));
             bed.setStatus("Available");
-            bedRepository.save(bed);
+            beds.add(bed);
         }
+        bedRepository.saveAll(beds);
         
         return savedRoom;
     }
@@ -174,6 +192,7 @@ public class DormitoryController {
      */
     @PutMapping("/rooms/{id}")
     @RequiresRole({"DormManager", "Admin"})
+    @Transactional
     public ResponseEntity<?> updateRoom(@PathVariable Integer id, @RequestBody Room roomDetails) {
         return roomRepository.findById(id).map(room -> {
             int oldCapacity = room.getCapacity() != null ? room.getCapacity() : 0;
@@ -187,13 +206,15 @@ public class DormitoryController {
             // Handle capacity changes
             if (newCapacity > oldCapacity) {
                 // Add new beds
+                List<Bed> newBeds = new ArrayList<>();
                 for (int i = oldCapacity + 1; i <= newCapacity; i++) {
                     Bed bed = new Bed();
                     bed.setRoomID(id);
                     bed.setBedNumber(String.valueOf(i));
                     bed.setStatus("Available");
-                    bedRepository.save(bed);
+                    newBeds.add(bed);
                 }
+                bedRepository.saveAll(newBeds);
             } else if (newCapacity < oldCapacity) {
                 // Remove excess beds (only if they are available)
                 List<Bed> beds = bedRepository.findAll().stream()
@@ -220,6 +241,8 @@ public class DormitoryController {
                 room.setCurrentOccupancy((int) actualOccupied);
             }
             
+            // Bed set changed: have the reconciler verify this room
+            occupancyDirtyTracker.markRoom(id);
             return ResponseEntity.ok(roomRepository.save(room));
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -230,17 +253,16 @@ public class DormitoryController {
      */
     @PostMapping("/sync-beds")
     @RequiresRole({"DormManager", "Admin"})
+    @Transactional
     public ResponseEntity<?> syncBeds() {
-        int bedsCreated = 0;
+        List<Bed> newBeds = new ArrayList<>();
         List<Room> rooms = roomRepository.findAll();
         
         for (Room room : rooms) {
             int capacity = room.getCapacity() != null ? room.getCapacity() : 0;
             
             // Get existing beds for this room
-            List<Bed> existingBeds = bedRepository.findAll().stream()
-                    .filter(b -> b.getRoomID().equals(room.getRoomID()))
-                    .toList();
+            List<Bed> existingBeds = bedRepository.findByRoomID(room.getRoomID());
             
             // Create missing beds
             for (int i = 1; i <= capacity; i++) {
@@ -253,13 +275,13 @@ public class DormitoryController {
                     bed.setRoomID(room.getRoomID());
                     bed.setBedNumber(bedNumber);
                     bed.setStatus("Available");
-                    bedRepository.save(bed);
-                    bedsCreated++;
+                    newBeds.add(bed);
                 }
             }
         }
+        bedRepository.saveAll(newBeds);
         
-        return ResponseEntity.ok(String.format("Synced beds. Created %d new beds.", bedsCreated));
+        return ResponseEntity.ok(String.format("Synced beds. Created %d new beds.", newBeds.size()));
     }
 
     @DeleteMapping("/rooms/{id}")
@@ -288,6 +310,7 @@ public class DormitoryController {
 
     @PostMapping("/check-in")
     @RequiresRole({"DormManager", "Admin"})
+    @Transactional
     public ResponseEntity<?> checkIn(@RequestBody CheckInRequest request) {
         // 1. Validate Student
         Student student = studentRepository.findById(request.getStudentID()).orElse(null);
@@ -342,6 +365,8 @@ public class DormitoryController {
         checkInOut.setCheckInDate(LocalDate.now());
         checkInOut.setStatus("CurrentlyLiving");
         checkInOutRepository.save(checkInOut);
+        occupancyLedger.record(OccupancyEvent.CHECK_IN, bed.getBedID(), room.getRoomID(), room.getBuildingID(),
+                student.getStudentID());
 
         // Send email notification
         emailService.sendCheckInNotification(student, building.getBuildingName(), room.getRoomNumber(), bed.getBedNumber());
@@ -356,6 +381,7 @@ public class DormitoryController {
 
     @PostMapping("/check-out/{studentId}")
     @RequiresRole({"DormManager", "Admin"})
+    @Transactional
     public ResponseEntity<?> checkOut(@PathVariable String studentId) {
         // 1. Find active check-in record
         CheckInOut record = checkInOutRepository.findByStudentIDAndStatus(studentId, "CurrentlyLiving");
@@ -368,6 +394,8 @@ public class DormitoryController {
         if (bed != null) {
             bed.setStatus("Available");
             bedRepository.save(bed);
+            bedClaimRegistry.releaseAfterCommit(bed.getBedID());
+            occupancyLedger.record(OccupancyEvent.CHECK_OUT, bed, studentId);
 
             // Update Room Occupancy
             Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
@@ -7,6 +7,7 @@ import com.dormitory.repository.RoomRepository;
 import com.dormitory.security.RequiresRole;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -31,6 +32,7 @@ public class HeatmapController {
      */
     @GetMapping("/buildings")
     @RequiresRole({"Admin", "DormManager"})
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Map<String, Object>>> getBuildings() {
         List<DormBuilding> buildings = buildingRepository.findAll();
         List<Map<String, Object>> result = buildings.stream().map(b -> {
@@ -49,6 +51,7 @@ public class HeatmapController {
      */
     @GetMapping("/building/{buildingId}")
     @RequiresRole({"Admin", "DormManager"})
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> getBuildingHeatmap(@PathVariable Integer buildingId) {
         Optional<DormBuilding> buildingOpt = buildingRepository.findById(buildingId);
         if (buildingOpt.isEmpty()) {
@@ -128,6 +131,7 @@ public class HeatmapController {
      */
     @GetMapping("/summary")
     @RequiresRole({"Admin", "DormManager"})
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Map<String, Object>>> getBuildingSummary() {
         List<DormBuilding> buildings = buildingRepository.findAll();
         List<Room> allRooms = roomRepository.findAll();
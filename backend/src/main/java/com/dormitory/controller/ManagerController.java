@@ -1,14 +1,14 @@
 package com.dormitory.controller;
 
-import com.dormitory.dto.OccupancyRow;
 import com.dormitory.entity.RepairRequest;
 import com.dormitory.entity.Student;
 import com.dormitory.repository.RepairRequestRepository;
 import com.dormitory.repository.StudentRepository;
 import com.dormitory.security.RequiresRole;
+import com.dormitory.service.AppMetrics;
 import com.dormitory.service.ExportService;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import com.dormitory.service.OccupancyReconciler;
+import com.dormitory.service.RoomOccupancyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -17,7 +17,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,8 +37,14 @@ public class ManagerController {
     @Autowired
     private ExportService exportService;
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private OccupancyReconciler occupancyReconciler;
+
+    @Autowired
+    private RoomOccupancyService roomOccupancyService;
 
     // --- Search Endpoints ---
 
@@ -72,8 +77,14 @@ public class ManagerController {
         return repairRequestRepository.findAll();
     }
 
-    // --- Occupancy from DB View ---
+    // --- Occupancy from the materialized RoomOccupancy table ---
+
+    /**
+     * Get one page of the occupancy grid. Pass the previous page's nextCursor to page by keyset
+     * instead of offset; building and room filter by prefix.
+     */
     @GetMapping("/occupancy")
+    @Transactional(readOnly = true)
     public com.dormitory.dto.OccupancyPage getOccupancy(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -82,105 +93,49 @@ public class ManagerController {
             @RequestParam(required = false) Double minRate,
             @RequestParam(required = false) Double maxRate,
             @RequestParam(required = false) String sort,
-            @RequestParam(required = false) String order) {
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor) {
         if (page < 1) page = 1;
         if (size < 1) size = 1;
         if (size > 100) size = 100;
 
-        StringBuilder where = new StringBuilder(" WHERE 1=1");
-        java.util.Map<String, Object> params = new java.util.HashMap<>();
-        if (building != null && !building.isBlank()) {
-            where.append(" AND BuildingName LIKE :building");
-            params.put("building", "%" + building + "%");
-        }
-        if (room != null && !room.isBlank()) {
-            where.append(" AND RoomNumber LIKE :room");
-            params.put("room", "%" + room + "%");
-        }
-        if (minRate != null) {
-            where.append(" AND OccupancyRate >= :minRate");
-            params.put("minRate", minRate);
-        }
-        if (maxRate != null) {
-            where.append(" AND OccupancyRate <= :maxRate");
-            params.put("maxRate", maxRate);
-        }
-
-        // Count total with filters
-        jakarta.persistence.Query countQuery = entityManager
-                .createNativeQuery("SELECT COUNT(*) FROM vw_room_occupancy" + where);
-        for (var e : params.entrySet()) countQuery.setParameter(e.getKey(), e.getValue());
-        Number totalNum = (Number) countQuery.getSingleResult();
-        long total = totalNum != null ? totalNum.longValue() : 0L;
-
-        int offset = (page - 1) * size;
-
-        String sortKey = (sort == null || sort.isBlank()) ? "building" : sort.toLowerCase();
-        String sortCol;
-        switch (sortKey) {
-            case "room": sortCol = "RoomNumber"; break;
-            case "capacity": sortCol = "capacity"; break;
-            case "current": sortCol = "CurrentOccupancy"; break;
-            case "rate": sortCol = "OccupancyRate"; break;
-            default: sortCol = "BuildingName"; break;
-        }
-        String dir = (order != null && order.equalsIgnoreCase("desc")) ? "DESC" : "ASC";
-
-        jakarta.persistence.Query dataQuery = entityManager
-                .createNativeQuery(
-                        "SELECT BuildingName, RoomNumber, capacity, CurrentOccupancy, OccupancyRate " +
-                    "FROM vw_room_occupancy" + where + " ORDER BY " + sortCol + " " + dir + ", BuildingName, RoomNumber LIMIT :size OFFSET :offset");
-        for (var e : params.entrySet()) dataQuery.setParameter(e.getKey(), e.getValue());
-        dataQuery.setParameter("size", size);
-        dataQuery.setParameter("offset", offset);
-        @SuppressWarnings("unchecked")
-        List<Object[]> rows = (List<Object[]>) dataQuery.getResultList();
-
-        List<OccupancyRow> items = new ArrayList<>();
-        for (Object[] r : rows) {
-            OccupancyRow o = new OccupancyRow();
-            o.setBuildingName(r[0] != null ? r[0].toString() : null);
-            o.setRoomNumber(r[1] != null ? r[1].toString() : null);
-            o.setCapacity(r[2] != null ? ((Number) r[2]).intValue() : null);
-            o.setCurrentOccupancy(r[3] != null ? ((Number) r[3]).intValue() : null);
-            o.setOccupancyRate(r[4] != null ? ((Number) r[4]).doubleValue() : null);
-            items.add(o);
-        }
-
-        return new com.dormitory.dto.OccupancyPage(items, total, page, size);
+        return roomOccupancyService.findPage(page, size, building, room, minRate, maxRate, sort, order, cursor);
     }
 
     // --- Data Sync Endpoints ---
 
+    /**
+     * Verify and repair every room (or only rooms touched since the last check with full=false).
+     * Each room is fixed in its own short transaction, so bookings are not blocked
+     */
     @PostMapping("/sync-occupancy")
-    @Transactional
-    public ResponseEntity<?> syncOccupancy() {
+    public ResponseEntity<?> syncOccupancy(@RequestParam(defaultValue = "true") boolean full) {
         try {
-            // Update Room.CurrentOccupancy based on actual active CheckInOut records
-            int updated = entityManager.createNativeQuery(
-                "UPDATE Room r SET CurrentOccupancy = (" +
-                "    SELECT COUNT(*) FROM CheckInOut c " +
-                "    JOIN Bed b ON c.BedID = b.BedID " +
-                "    WHERE b.RoomID = r.RoomID AND c.Status = 'CurrentlyLiving'" +
-                ")").executeUpdate();
-            
-            // Also sync Bed status
-            entityManager.createNativeQuery(
-                "UPDATE Bed b SET Status = CASE " +
-                "    WHEN EXISTS (SELECT 1 FROM CheckInOut c WHERE c.BedID = b.BedID AND c.Status = 'CurrentlyLiving') " +
-                "    THEN 'Occupied' ELSE 'Available' END"
-            ).executeUpdate();
-
-            return ResponseEntity.ok("Synced occupancy and bed status for all rooms.");
+            OccupancyReconciler.DriftReport report = occupancyReconciler.reconcile(full);
+            if (report == null) {
+                return ResponseEntity.status(409).body("An occupancy check is already running. Please try again shortly.");
+            }
+            return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to sync occupancy: " + e.getMessage());
         }
     }
 
+    /**
+     * Get recent drift reports (newest first) and the number of rooms waiting to be checked
+     */
+    @GetMapping("/sync-occupancy/reports")
+    public java.util.Map<String, Object> getDriftReports() {
+        java.util.Map<String, Object> result = new java.util.LinkedHashMap<>(occupancyReconciler.getPending());
+        result.put("reports", occupancyReconciler.getReports());
+        return result;
+    }
+
     // --- Export Endpoints (CSV) ---
 
     @GetMapping("/export/students")
     public ResponseEntity<byte[]> exportStudents() {
+        long start = System.nanoTime();
         List<Student> students = studentRepository.findAll();
         StringBuilder csv = new StringBuilder();
         csv.append("Student ID,Name,Gender,Major,Class,Phone,Building,Room,Bed\n");
@@ -198,6 +153,7 @@ public class ManagerController {
         }
 
         byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        appMetrics.recordExport("students", "csv", students.size(), System.nanoTime() - start);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=students.csv")
                 .contentType(MediaType.parseMediaType("text/csv"))
@@ -206,6 +162,7 @@ public class ManagerController {
 
     @GetMapping("/export/repairs")
     public ResponseEntity<byte[]> exportRepairs() {
+        long start = System.nanoTime();
         List<RepairRequest> repairs = repairRequestRepository.findAll();
         StringBuilder csv = new StringBuilder();
         csv.append("ID,Room ID,Submitter,Description,Status,Submit Time\n");
@@ -220,6 +177,7 @@ public class ManagerController {
         }
 
         byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        appMetrics.recordExport("repairs", "csv", repairs.size(), System.nanoTime() - start);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=repairs.csv")
                 .contentType(MediaType.parseMediaType("text/csv"))
@@ -231,8 +189,10 @@ public class ManagerController {
     @GetMapping("/export/students/excel")
     public ResponseEntity<byte[]> exportStudentsExcel() {
         try {
+            long start = System.nanoTime();
             List<Student> students = studentRepository.findAll();
             byte[] excelData = exportService.exportStudentsToExcel(students);
+            appMetrics.recordExport("students", "xlsx", students.size(), System.nanoTime() - start);
             
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=students.xlsx")
@@ -246,8 +206,10 @@ public class ManagerController {
     @GetMapping("/export/repairs/excel")
     public ResponseEntity<byte[]> exportRepairsExcel() {
         try {
+            long start = System.nanoTime();
             List<RepairRequest> repairs = repairRequestRepository.findAll();
             byte[] excelData = exportService.exportRepairsToExcel(repairs);
+            appMetrics.recordExport("repairs", "xlsx", repairs.size(), System.nanoTime() - start);
             
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=repairs.xlsx")
@@ -263,8 +225,10 @@ public class ManagerController {
     @GetMapping("/export/students/pdf")
     public ResponseEntity<byte[]> exportStudentsPdf() {
         try {
+            long start = System.nanoTime();
             List<Student> students = studentRepository.findAll();
             byte[] pdfData = exportService.exportStudentsToPdf(students);
+            appMetrics.recordExport("students", "pdf", students.size(), System.nanoTime() - start);
             
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=students.pdf")
@@ -278,8 +242,10 @@ public class ManagerController {
     @GetMapping("/export/repairs/pdf")
     public ResponseEntity<byte[]> exportRepairsPdf() {
         try {
+            long start = System.nanoTime();
             List<RepairRequest> repairs = repairRequestRepository.findAll();
             byte[] pdfData = exportService.exportRepairsToPdf(repairs);
+            appMetrics.recordExport("repairs", "pdf", repairs.size(), System.nanoTime() - start);
             
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=repairs.pdf")
@@ -0,0 +1,72 @@
+package com.dormitory.controller;
+
+import com.dormitory.security.RequiresRole;
+import com.dormitory.service.OccupancyLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Occupancy history served from the occupancy event ledger.
+ */
+@RestController
+@RequestMapping("/api/manager/occupancy/ledger")
+@RequiresRole({"DormManager", "Admin"})
+public class OccupancyLedgerController {
+
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
+    /**
+     * Get current occupied/reserved bed counts (optionally for one building)
+     */
+    @GetMapping("/current")
+    public Map<String, Object> getCurrent(@RequestParam(required = false) Integer buildingId) {
+        return occupancyLedger.currentOccupancy(buildingId);
+    }
+
+    /**
+     * Get occupancy as of a date (end of that day) or an exact timestamp
+     */
+    @GetMapping("/at")
+    public ResponseEntity<?> getAt(@RequestParam(required = false) Integer buildingId,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime time) {
+        LocalDateTime pointInTime = time != null ? time
+                : date != null ? LocalDateTime.of(date, LocalTime.MAX) : null;
+        if (pointInTime == null) {
+            return ResponseEntity.badRequest().body("Provide either date (yyyy-MM-dd) or time (ISO date-time)");
+        }
+        return ResponseEntity.ok(occupancyLedger.occupancyAt(buildingId, pointInTime));
+    }
+
+    /**
+     * Fold recent events into a new snapshot now instead of waiting for the nightly run
+     */
+    @PostMapping("/snapshot")
+    public Map<String, Object> takeSnapshot() {
+        var snapshot = occupancyLedger.takeSnapshot();
+        return Map.of(
+                "watermark", snapshot.getWatermark(),
+                "bedsHeld", snapshot.getBedCount(),
+                "eventsFolded", snapshot.getEventCount());
+    }
+
+    /**
+     * Rebuild the projection from the last snapshot and correct Room.currentOccupancy from it
+     */
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        int roomsUpdated = occupancyLedger.rebuildRoomOccupancy();
+        return Map.of(
+                "roomsUpdated", roomsUpdated,
+                "elapsedMs", System.currentTimeMillis() - start);
+    }
+}
@@ -16,6 +16,8 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Controller for manager/admin to handle room applications.
@@ -86,7 +88,20 @@ public class RoomApplicationController {
             applications = roomApplicationRepository.findAll();
         }
 
-        // Enrich with student and room info
+        // Enrich with student and room info, one query per table rather than per application
+        Map<String, Student> students = studentRepository.findAllById(applications.stream()
+                        .map(RoomApplication::getStudentID).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+        Map<Integer, Bed> beds = bedRepository.findAllById(applications.stream()
+                        .map(RoomApplication::getBedID).filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Bed::getBedID, Function.identity()));
+        Map<Integer, Room> rooms = roomRepository.findAllById(beds.values().stream()
+                        .map(Bed::getRoomID).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Room::getRoomID, Function.identity()));
+        Map<Integer, DormBuilding> buildings = buildingRepository.findAllById(rooms.values().stream()
+                        .map(Room::getBuildingID).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+
         List<Map<String, Object>> result = new ArrayList<>();
         for (RoomApplication app : applications) {
             Map<String, Object> appInfo = new HashMap<>();
@@ -99,7 +114,7 @@ public class RoomApplicationController {
             appInfo.put("rejectReason", app.getRejectReason());
 
             // Get student info
-            Student student = studentRepository.findById(app.getStudentID()).orElse(null);
+            Student student = students.get(app.getStudentID());
             if (student != null) {
                 appInfo.put("studentName", student.getName());
                 appInfo.put("major", student.getMajor());
@@ -107,16 +122,16 @@ public class RoomApplicationController {
             }
 
             // Get bed/room/building info
-            Bed bed = bedRepository.findById(app.getBedID()).orElse(null);
+            Bed bed = beds.get(app.getBedID());
             if (bed != null) {
                 appInfo.put("bedID", bed.getBedID());
                 appInfo.put("bedNumber", bed.getBedNumber());
                 appInfo.put("bedStatus", bed.getStatus());
-                Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
+                Room room = rooms.get(bed.getRoomID());
                 if (room != null) {
                     appInfo.put("roomNumber", room.getRoomNumber());
                     appInfo.put("roomType", room.getRoomType());
-                    DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
+                    DormBuilding building = buildings.get(room.getBuildingID());
                     if (building != null) {
                         appInfo.put("buildingName", building.getBuildingName());
                     }
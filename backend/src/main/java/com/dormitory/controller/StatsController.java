@@ -1,10 +1,21 @@
 package com.dormitory.controller;
 
 import com.dormitory.repository.*;
+import com.dormitory.entity.CheckInOut;
+import com.dormitory.entity.OccupancySeries;
+import com.dormitory.security.RequiresRole;
+import com.dormitory.service.OccupancyCube;
+import com.dormitory.service.OccupancyTimeSeries;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/stats")
@@ -28,10 +39,17 @@ public class StatsController {
     @Autowired
     private CheckInOutRepository checkInOutRepository;
 
+    @Autowired
+    private OccupancyCube occupancyCube;
+
+    @Autowired
+    private OccupancyTimeSeries occupancyTimeSeries;
+
     /**
      * Dashboard summary stats
      */
     @GetMapping("/summary")
+    @Transactional(readOnly = true)
     public Map<String, Object> getSummary() {
         Map<String, Object> stats = new HashMap<>();
         
@@ -69,6 +87,7 @@ public class StatsController {
      * Occupancy by building (for bar chart)
      */
     @GetMapping("/occupancy-by-building")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getOccupancyByBuilding() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -99,6 +118,7 @@ public class StatsController {
      * Repair requests by status (for pie chart)
      */
     @GetMapping("/repairs-by-status")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getRepairsByStatus() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -122,6 +142,7 @@ public class StatsController {
      * Students by major (for pie/bar chart)
      */
     @GetMapping("/students-by-major")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getStudentsByMajor() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -148,6 +169,7 @@ public class StatsController {
      * Students by enrollment year (for line/bar chart)
      */
     @GetMapping("/students-by-year")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getStudentsByYear() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -173,33 +195,27 @@ public class StatsController {
      * Recent check-ins/check-outs (for activity timeline)
      */
     @GetMapping("/recent-activity")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getRecentActivity() {
         List<Map<String, Object>> data = new ArrayList<>();
-        
-        checkInOutRepository.findAll().stream()
-                .sorted((a, b) -> {
-                    var dateA = a.getCheckOutDate() != null ? a.getCheckOutDate() : a.getCheckInDate();
-                    var dateB = b.getCheckOutDate() != null ? b.getCheckOutDate() : b.getCheckInDate();
-                    if (dateA == null) return 1;
-                    if (dateB == null) return -1;
-                    return dateB.compareTo(dateA);
-                })
-                .limit(20)
-                .forEach(record -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("studentID", record.getStudentID());
-                    item.put("status", record.getStatus());
-                    item.put("checkInDate", record.getCheckInDate());
-                    item.put("checkOutDate", record.getCheckOutDate());
-                    
-                    // Get student name
-                    studentRepository.findById(record.getStudentID()).ifPresent(s -> 
-                        item.put("studentName", s.getName())
-                    );
-                    
-                    data.add(item);
-                });
-        
+
+        List<CheckInOut> records = checkInOutRepository.findRecentActivity(PageRequest.of(0, 20));
+        Map<String, String> names = new HashMap<>();
+        studentRepository.findAllById(records.stream().map(CheckInOut::getStudentID).collect(Collectors.toSet()))
+                .forEach(s -> names.put(s.getStudentID(), s.getName()));
+
+        for (CheckInOut record : records) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("studentID", record.getStudentID());
+            item.put("status", record.getStatus());
+            item.put("checkInDate", record.getCheckInDate());
+            item.put("checkOutDate", record.getCheckOutDate());
+            if (names.containsKey(record.getStudentID())) {
+                item.put("studentName", names.get(record.getStudentID()));
+            }
+            data.add(item);
+        }
+
         return data;
     }
 
@@ -207,6 +223,7 @@ public class StatsController {
      * Gender distribution (for pie chart)
      */
     @GetMapping("/gender-distribution")
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getGenderDistribution() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -225,4 +242,114 @@ public class StatsController {
         
         return data;
     }
+
+    /**
+     * Generic pivot over the in-memory occupancy cube.
+     * Example: /api/stats/cube?groupBy=building,gender&filter=enrollmentYear:2023,2024;bedStatus:Occupied
+     */
+    @GetMapping("/cube")
+    public ResponseEntity<?> queryCube(@RequestParam(required = false) String groupBy,
+                                       @RequestParam(required = false) String filter) {
+        List<String> dims = new ArrayList<>();
+        if (groupBy != null && !groupBy.isBlank()) {
+            for (String d : groupBy.split(",")) {
+                if (!d.isBlank()) dims.add(d.trim());
+            }
+        }
+        Map<String, Set<String>> filters = new LinkedHashMap<>();
+        if (filter != null && !filter.isBlank()) {
+            for (String clause : filter.split(";")) {
+                int colon = clause.indexOf(':');
+                if (colon <= 0) {
+                    return ResponseEntity.badRequest().body("Invalid filter clause: " + clause);
+                }
+                Set<String> values = new LinkedHashSet<>();
+                for (String v : clause.substring(colon + 1).split(",")) {
+                    values.add(v.trim());
+                }
+                filters.put(clause.substring(0, colon).trim(), values);
+            }
+        }
+        try {
+            return ResponseEntity.ok(occupancyCube.query(dims, filters));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cube dimensions, their values and available measures
+     */
+    @GetMapping("/cube/dimensions")
+    public Map<String, Object> getCubeDimensions() {
+        return occupancyCube.describe();
+    }
+
+    /**
+     * Occupancy trend of every building (granularity day, week or month; default: last 180 days)
+     */
+    @GetMapping("/trends/buildings")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getBuildingTrends(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!isGranularity(granularity)) {
+            return ResponseEntity.badRequest().body("granularity must be day, week or month");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        return ResponseEntity.ok(occupancyTimeSeries.buildingTrends(granularity, from != null ? from : end.minusDays(180), end));
+    }
+
+    /**
+     * Occupancy trend of one building
+     */
+    @GetMapping("/trends/buildings/{buildingId}")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getBuildingTrend(
+            @PathVariable Integer buildingId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trend(OccupancySeries.BUILDING, buildingId, granularity, from, to);
+    }
+
+    /**
+     * Occupancy trend of one room
+     */
+    @GetMapping("/trends/rooms/{roomId}")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getRoomTrend(
+            @PathVariable Integer roomId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trend(OccupancySeries.ROOM, roomId, granularity, from, to);
+    }
+
+    /**
+     * Rebuild the time series from the full CheckInOut history
+     */
+    @PostMapping("/trends/backfill")
+    @RequiresRole({"DormManager", "Admin"})
+    public Map<String, Object> backfillTrends() {
+        return occupancyTimeSeries.backfill();
+    }
+
+    private ResponseEntity<?> trend(String scope, Integer id, String granularity, LocalDate from, LocalDate to) {
+        if (!isGranularity(granularity)) {
+            return ResponseEntity.badRequest().body("granularity must be day, week or month");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        Map<String, Object> trend = occupancyTimeSeries.trend(scope, id, granularity,
+                from != null ? from : end.minusDays(180), end);
+        return trend != null ? ResponseEntity.ok(trend) : ResponseEntity.notFound().build();
+    }
+
+    private static boolean isGranularity(String granularity) {
+        return OccupancyTimeSeries.DAY.equals(granularity) || OccupancyTimeSeries.WEEK.equals(granularity)
+                || OccupancyTimeSeries.MONTH.equals(granularity);
+    }
 }
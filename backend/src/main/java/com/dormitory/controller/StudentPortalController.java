@@ -4,6 +4,7 @@ import com.dormitory.dto.RoomApplicationRequest;
 import com.dormitory.dto.StudentProfileRequest;
 import com.dormitory.entity.*;
 import com.dormitory.repository.*;
+import com.dormitory.service.ApplicationQueueService;
 import com.dormitory.service.AuditService;
 import com.dormitory.service.EmailService;
 import com.dormitory.service.RoomBookingService;
@@ -16,6 +17,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -56,7 +60,10 @@ public class StudentPortalController {
     private EmailService emailService;
 
     @Autowired
-    private RoomBookingService roomBookingService;
+    private ApplicationQueueService applicationQueueService;
+
+    @Value("${app.booking.queue.sync-wait-ms:30000}")
+    private long syncWaitMs;
 
     @Value("${app.auth.secret:change-me}")
     private String authSecret;
@@ -276,51 +283,123 @@ public class StudentPortalController {
 
     /**
      * Apply for a room/bed (creates application for manager approval)
-     * Uses RoomBookingService for thread-safe concurrent booking prevention
+     * The request waits in the application queue without holding a request thread; if it is not
+     * processed within app.booking.queue.sync-wait-ms the client gets 202 with a ticket to poll
      */
     @PostMapping("/apply-room")
-    public ResponseEntity<?> applyForRoom(
+    public CompletableFuture<ResponseEntity<?>> applyForRoom(
+            @CookieValue(name = "auth", required = false) String authToken,
+            @RequestBody RoomApplicationRequest request) {
+        return submitApplication(authToken, request, syncWaitMs);
+    }
+
+    /**
+     * Queue a room application and return a ticket immediately (202)
+     */
+    @PostMapping("/apply-room/tickets")
+    public CompletableFuture<ResponseEntity<?>> queueRoomApplication(
             @CookieValue(name = "auth", required = false) String authToken,
             @RequestBody RoomApplicationRequest request) {
+        return submitApplication(authToken, request, 0);
+    }
+
+    /**
+     * Get the state of a queued room application.
+     * Optional waitMs long-polls until the ticket finishes (capped at the sync wait)
+     */
+    @GetMapping("/apply-room/tickets/{ticketId}")
+    public CompletableFuture<ResponseEntity<?>> getApplicationTicket(
+            @CookieValue(name = "auth", required = false) String authToken,
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") long waitMs) {
 
         String username = getUsernameFromToken(authToken);
         if (username == null) {
-            return ResponseEntity.status(401).body("Not authenticated");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Not authenticated"));
+        }
+
+        UserAccount user = userAccountRepository.findByUsername(username).orElse(null);
+        ApplicationQueueService.Ticket ticket = applicationQueueService.getTicket(ticketId);
+        if (user == null || ticket == null || !ticket.getStudentID().equals(user.getRelatedStudentID())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(404).body("Ticket not found or expired"));
+        }
+
+        return ticketResponse(ticket, Math.min(Math.max(waitMs, 0), syncWaitMs));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> submitApplication(String authToken, RoomApplicationRequest request, long waitMs) {
+        String username = getUsernameFromToken(authToken);
+        if (username == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Not authenticated"));
         }
 
         UserAccount user = userAccountRepository.findByUsername(username).orElse(null);
         if (user == null) {
-            return ResponseEntity.status(401).body("User not found");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("User not found"));
         }
 
         // Check if student has profile
         if (user.getRelatedStudentID() == null) {
-            return ResponseEntity.badRequest().body("Please create your profile first");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Please create your profile first"));
         }
 
         Student student = studentRepository.findById(user.getRelatedStudentID()).orElse(null);
         if (student == null) {
-            return ResponseEntity.badRequest().body("Student profile not found");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Student profile not found"));
         }
 
         // Check if already has a room
         if (student.getDormBuilding() != null && student.getRoomNumber() != null) {
-            return ResponseEntity.badRequest().body("You already have a room assigned. Please check out first.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("You already have a room assigned. Please check out first."));
         }
 
         // Check if there's an existing active check-in
         CheckInOut existing = checkInOutRepository.findByStudentIDAndStatus(student.getStudentID(), "CurrentlyLiving");
         if (existing != null) {
-            return ResponseEntity.badRequest().body("You are already checked in");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("You are already checked in"));
+        }
+
+        // Queue workers go through the admission layer and the booking service,
+        // so two students cannot reserve the same bed
+        ApplicationQueueService.Ticket ticket;
+        try {
+            ticket = applicationQueueService.submit(student.getStudentID(), request.getBedID(), username);
+        } catch (ApplicationQueueService.QueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503)
+                    .header("Retry-After", "5")
+                    .body(Map.of("error", e.getMessage(), "code", "QUEUE_FULL")));
+        } catch (ApplicationQueueService.TicketConflictException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "code", "APPLICATION_IN_QUEUE",
+                    "ticketId", e.getTicketId(),
+                    "pollUrl", "/api/student-portal/apply-room/tickets/" + e.getTicketId())));
         }
 
-        // Use the booking service for thread-safe bed reservation
-        // This prevents two students from applying for the same bed simultaneously
-        RoomBookingService.BookingResult result = roomBookingService.reserveBedForApplication(
-            student.getStudentID(), 
-            request.getBedID()
-        );
+        return ticketResponse(ticket, waitMs);
+    }
 
+    /**
+     * Booking response once the ticket finishes, or 202 with the ticket after waitMs
+     */
+    private CompletableFuture<ResponseEntity<?>> ticketResponse(ApplicationQueueService.Ticket ticket, long waitMs) {
+        return applicationQueueService.awaitAsync(ticket, waitMs)
+                .<ResponseEntity<?>>thenApply(result -> result == null ? ticketAccepted(ticket) : bookingResponse(result));
+    }
+
+    private ResponseEntity<?> ticketAccepted(ApplicationQueueService.Ticket ticket) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticketId", ticket.getTicketId());
+        response.put("status", ticket.getStatus().name());
+        response.put("position", applicationQueueService.positionOf(ticket));
+        response.put("pollUrl", "/api/student-portal/apply-room/tickets/" + ticket.getTicketId());
+        return ResponseEntity.accepted().body(response);
+    }
+
+    /**
+     * Built from the result alone: this runs on the queue worker that completed the ticket
+     */
+    private ResponseEntity<?> bookingResponse(RoomBookingService.BookingResult result) {
         if (!result.isSuccess()) {
             // Map error codes to user-friendly messages
             if ("BED_NOT_FOUND".equals(result.getErrorCode())) {
@@ -344,22 +423,11 @@ public class StudentPortalController {
             return ResponseEntity.status(500).body(result.getMessage());
         }
 
-        // Get room and building info for response
-        Bed bed = bedRepository.findById(request.getBedID()).orElse(null);
-        Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
-        DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
-
-        // Audit log
-        auditService.log("ROOM_APPLICATION", "STUDENT", student.getStudentID(),
-                String.format("Room application submitted for %s Room %s Bed %s", 
-                        building.getBuildingName(), room.getRoomNumber(), bed.getBedNumber()),
-                username);
-
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Room application submitted! Please wait for manager approval.");
-        response.put("building", building.getBuildingName());
-        response.put("room", room.getRoomNumber());
-        response.put("bed", bed.getBedNumber());
+        response.put("building", result.getBuildingName());
+        response.put("room", result.getRoomNumber());
+        response.put("bed", result.getBedNumber());
         response.put("status", "Pending");
 
         return ResponseEntity.ok(response);
@@ -388,7 +456,17 @@ public class StudentPortalController {
 
         List<RoomApplication> applications = roomApplicationRepository.findByStudentID(user.getRelatedStudentID());
 
-        // Enrich with room/building info
+        // Enrich with room/building info, one query per table rather than per application
+        Map<Integer, Bed> beds = bedRepository.findAllById(applications.stream()
+                        .map(RoomApplication::getBedID).filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Bed::getBedID, Function.identity()));
+        Map<Integer, Room> rooms = roomRepository.findAllById(beds.values().stream()
+                        .map(Bed::getRoomID).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Room::getRoomID, Function.identity()));
+        Map<Integer, DormBuilding> buildings = buildingRepository.findAllById(rooms.values().stream()
+                        .map(Room::getBuildingID).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+
         List<Map<String, Object>> result = new ArrayList<>();
         for (RoomApplication app : applications) {
             Map<String, Object> appInfo = new HashMap<>();
@@ -399,13 +477,13 @@ public class StudentPortalController {
             appInfo.put("processedBy", app.getProcessedBy());
             appInfo.put("rejectReason", app.getRejectReason());
 
-            Bed bed = bedRepository.findById(app.getBedID()).orElse(null);
+            Bed bed = beds.get(app.getBedID());
             if (bed != null) {
                 appInfo.put("bedNumber", bed.getBedNumber());
-                Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
+                Room room = rooms.get(bed.getRoomID());
                 if (room != null) {
                     appInfo.put("roomNumber", room.getRoomNumber());
-                    DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
+                    DormBuilding building = buildings.get(room.getBuildingID());
                     if (building != null) {
                         appInfo.put("buildingName", building.getBuildingName());
                     }
@@ -0,0 +1,36 @@
+package com.dormitory.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AllocationRequest {
+    private Integer enrollmentYear;   // only place this cohort (null = every unassigned student)
+    private List<Integer> buildingIDs; // only use these buildings (null/empty = all)
+    private Boolean dryRun;           // defaults to true: compute the plan without committing
+
+    public Integer getEnrollmentYear() {
+        return enrollmentYear;
+    }
+
+    public void setEnrollmentYear(Integer enrollmentYear) {
+        this.enrollmentYear = enrollmentYear;
+    }
+
+    public List<Integer> getBuildingIDs() {
+        return buildingIDs;
+    }
+
+    public void setBuildingIDs(List<Integer> buildingIDs) {
+        this.buildingIDs = buildingIDs;
+    }
+
+    public Boolean getDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(Boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+}
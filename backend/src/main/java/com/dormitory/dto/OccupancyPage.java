@@ -7,6 +7,7 @@ public class OccupancyPage {
     private long total;
     private int page;
     private int size;
+    private String nextCursor;
 
     public OccupancyPage() {}
 
@@ -25,4 +26,6 @@ public class OccupancyPage {
     public void setPage(int page) { this.page = page; }
     public int getSize() { return size; }
     public void setSize(int size) { this.size = size; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
 }
@@ -3,12 +3,27 @@ package com.dormitory.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * Append-only audit trail. In MySQL the table is range-partitioned by month on timestamp
+ * (database/migration_audit_partitions.sql); old months are archived and dropped by
+ * {@link com.dormitory.service.AuditRetentionService}. Every index ends with timestamp (and, implicitly,
+ * the primary key) so each finder and the keyset search read one index range in order.
+ */
 @Entity
-@Table(name = "AuditLog")
+@Table(name = "AuditLog", indexes = {
+        @Index(name = "idx_audit_log_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_audit_log_entity_type", columnList = "entityType, timestamp"),
+        @Index(name = "idx_audit_log_entity_id", columnList = "entityId, timestamp"),
+        @Index(name = "idx_audit_log_performed_by", columnList = "performedBy, timestamp"),
+        @Index(name = "idx_audit_log_action", columnList = "action, timestamp"),
+        @Index(name = "idx_audit_log_ip_address", columnList = "ipAddress, timestamp")
+})
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_log_id_gen")
+    @TableGenerator(name = "audit_log_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "AuditLog", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -1,14 +1,22 @@
 package com.dormitory.entity;
 
+import com.dormitory.service.OccupancyCubeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name = "Bed")
 @Data
+@EntityListeners(OccupancyCubeListener.class)
 public class Bed {
+    /**
+     * Table-based pooled ids (shared "id_generator" table) instead of IDENTITY,
+     * so Hibernate can batch bed inserts when rooms are created.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bed_id_gen")
+    @TableGenerator(name = "bed_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "Bed", allocationSize = 50)
     private Integer bedID;
 
     private Integer roomID;
@@ -1,15 +1,23 @@
 package com.dormitory.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.dormitory.service.OccupancyCubeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "CheckInOut")
+@Table(name = "CheckInOut", indexes = {
+        @Index(name = "idx_check_in_out_student_status", columnList = "studentID, status"),
+        @Index(name = "idx_check_in_out_bed_status", columnList = "bedID, status")
+})
 @Data
+@EntityListeners(OccupancyCubeListener.class)
 public class CheckInOut {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "check_in_out_id_gen")
+    @TableGenerator(name = "check_in_out_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "CheckInOut", allocationSize = 50)
     private Integer recordID;
 
     private String studentID;
@@ -18,6 +26,20 @@ public class CheckInOut {
     private LocalDate checkOutDate;
     private String status; // CurrentlyLiving, CheckedOut
 
+    /**
+     * Equals bedID while the record is CurrentlyLiving, otherwise null.
+     * The unique key on this column allows at most one live check-in per bed.
+     */
+    @JsonIgnore
+    @Column(unique = true)
+    private Integer liveBedID;
+
+    @PrePersist
+    @PreUpdate
+    void syncLiveBedKey() {
+        liveBedID = "CurrentlyLiving".equals(status) ? bedID : null;
+    }
+
     public Integer getRecordID() {
         return recordID;
     }
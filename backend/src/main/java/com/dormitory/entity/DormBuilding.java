@@ -1,11 +1,22 @@
 package com.dormitory.entity;
 
+import com.dormitory.service.OccupancyCubeListener;
+import com.dormitory.service.RoomOccupancyListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/**
+ * Reference data: buildings are read on almost every request but change rarely,
+ * so they live in the Hibernate second-level cache (region "dormitory.building").
+ */
 @Entity
 @Table(name = "DormBuilding")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "dormitory.building")
 @Data
+@EntityListeners({RoomOccupancyListener.class, OccupancyCubeListener.class})
 public class DormBuilding {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
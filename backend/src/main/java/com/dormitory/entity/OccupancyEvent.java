@@ -0,0 +1,108 @@
+package com.dormitory.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a bed occupancy change.
+ * Written in the same transaction as the Bed/CheckInOut change it describes; never updated.
+ */
+@Entity
+@Table(name = "OccupancyEvent", indexes = {
+        @Index(name = "idx_occupancy_event_time", columnList = "occurredAt"),
+        @Index(name = "idx_occupancy_event_building_time", columnList = "buildingID, occurredAt")
+})
+public class OccupancyEvent {
+
+    public static final String RESERVE = "RESERVE";
+    public static final String RELEASE = "RELEASE";
+    public static final String CHECK_IN = "CHECK_IN";
+    public static final String CHECK_OUT = "CHECK_OUT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "occupancy_event_id_gen")
+    @TableGenerator(name = "occupancy_event_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "OccupancyEvent", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String eventType; // RESERVE, RELEASE, CHECK_IN, CHECK_OUT
+
+    @Column(nullable = false)
+    private Integer bedID;
+
+    private Integer roomID;
+    private Integer buildingID;
+    private String studentID;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    public OccupancyEvent() {
+    }
+
+    public OccupancyEvent(String eventType, Integer bedID, Integer roomID, Integer buildingID, String studentID) {
+        this.eventType = eventType;
+        this.bedID = bedID;
+        this.roomID = roomID;
+        this.buildingID = buildingID;
+        this.studentID = studentID;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Integer getBedID() {
+        return bedID;
+    }
+
+    public void setBedID(Integer bedID) {
+        this.bedID = bedID;
+    }
+
+    public Integer getRoomID() {
+        return roomID;
+    }
+
+    public void setRoomID(Integer roomID) {
+        this.roomID = roomID;
+    }
+
+    public Integer getBuildingID() {
+        return buildingID;
+    }
+
+    public void setBuildingID(Integer buildingID) {
+        this.buildingID = buildingID;
+    }
+
+    public String getStudentID() {
+        return studentID;
+    }
+
+    public void setStudentID(String studentID) {
+        this.studentID = studentID;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
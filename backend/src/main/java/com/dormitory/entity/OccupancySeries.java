@@ -0,0 +1,98 @@
+package com.dormitory.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily occupancy counts of one building or room, from {@code startDate} for {@code days} days.
+ * {@code data} holds the counts as zigzag varint deltas (day-to-day change), which is one byte per
+ * day for almost every day; see {@link com.dormitory.service.OccupancyTimeSeries}.
+ */
+@Entity
+@Table(name = "OccupancySeries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_occupancy_series_scope", columnNames = {"scope", "entityID"})
+})
+public class OccupancySeries {
+
+    public static final String BUILDING = "B";
+    public static final String ROOM = "R";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 1)
+    private String scope;
+
+    @Column(nullable = false)
+    private Integer entityID;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private Integer days;
+
+    @Lob
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    private LocalDateTime updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public Integer getEntityID() {
+        return entityID;
+    }
+
+    public void setEntityID(Integer entityID) {
+        this.entityID = entityID;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public Integer getDays() {
+        return days;
+    }
+
+    public void setDays(Integer days) {
+        this.days = days;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
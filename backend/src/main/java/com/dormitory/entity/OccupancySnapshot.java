@@ -0,0 +1,81 @@
+package com.dormitory.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Full bed occupancy state as of {@code watermark}: every OccupancyEvent with
+ * occurredAt <= watermark is folded in. Only non-Available beds are stored,
+ * one "bedID,roomID,buildingID,state,studentID" line each (state O = occupied, R = reserved).
+ */
+@Entity
+@Table(name = "OccupancySnapshot", indexes = {
+        @Index(name = "idx_occupancy_snapshot_watermark", columnList = "watermark")
+})
+public class OccupancySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+
+    private Integer bedCount;    // beds held (occupied or reserved)
+    private Integer eventCount;  // events folded in since the previous snapshot
+
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String payload;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+
+    public Integer getBedCount() {
+        return bedCount;
+    }
+
+    public void setBedCount(Integer bedCount) {
+        this.bedCount = bedCount;
+    }
+
+    public Integer getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(Integer eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
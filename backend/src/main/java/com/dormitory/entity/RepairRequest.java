@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 @Data
 public class RepairRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "repair_request_id_gen")
+    @TableGenerator(name = "repair_request_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "RepairRequest", allocationSize = 50)
     private Integer repairID;
 
     private Integer roomID;
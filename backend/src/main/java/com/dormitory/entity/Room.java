@@ -1,11 +1,24 @@
 package com.dormitory.entity;
 
+import com.dormitory.service.OccupancyCubeListener;
+import com.dormitory.service.RoomOccupancyListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/**
+ * Reference data: rooms are read on almost every request, so they live in the Hibernate
+ * second-level cache (region "dormitory.room"). currentOccupancy changes on every booking;
+ * READ_WRITE refreshes the entry after each update, and no Room query uses the query cache,
+ * because every such write would invalidate it.
+ */
 @Entity
 @Table(name = "Room")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "dormitory.room")
 @Data
+@EntityListeners({RoomOccupancyListener.class, OccupancyCubeListener.class})
 public class Room {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,5 +1,6 @@
 package com.dormitory.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -9,7 +10,9 @@ import java.time.LocalDateTime;
 @Data
 public class RoomApplication {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "room_application_id_gen")
+    @TableGenerator(name = "room_application_id_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "RoomApplication", allocationSize = 50)
     private Integer applicationID;
 
     private String studentID;
@@ -23,6 +26,21 @@ public class RoomApplication {
     private String processedBy; // username of manager who processed
     private String rejectReason;
 
+    /**
+     * Equals studentID while the application is Pending, otherwise null.
+     * The unique key on this column allows at most one Pending application per student
+     * without needing range locks on (studentID, status).
+     */
+    @JsonIgnore
+    @Column(unique = true)
+    private String pendingStudentID;
+
+    @PrePersist
+    @PreUpdate
+    void syncPendingKey() {
+        pendingStudentID = "Pending".equals(status) ? studentID : null;
+    }
+
     // Getters and setters
     public Integer getApplicationID() {
         return applicationID;
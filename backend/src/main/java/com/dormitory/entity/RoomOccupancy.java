@@ -0,0 +1,106 @@
+package com.dormitory.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized per-room occupancy row (replaces paging over vw_room_occupancy).
+ * Maintained from Room/DormBuilding writes by {@link com.dormitory.service.RoomOccupancyService};
+ * each index ends with (buildingName, roomNumber, roomID) so every sort order can be keyset-paged.
+ */
+@Entity
+@Table(name = "RoomOccupancy", indexes = {
+        @Index(name = "idx_room_occupancy_building", columnList = "buildingName, roomNumber, roomID"),
+        @Index(name = "idx_room_occupancy_room", columnList = "roomNumber, buildingName, roomID"),
+        @Index(name = "idx_room_occupancy_rate", columnList = "occupancyRate, buildingName, roomNumber, roomID"),
+        @Index(name = "idx_room_occupancy_capacity", columnList = "capacity, buildingName, roomNumber, roomID"),
+        @Index(name = "idx_room_occupancy_current", columnList = "currentOccupancy, buildingName, roomNumber, roomID")
+})
+public class RoomOccupancy {
+
+    @Id
+    private Integer roomID;
+
+    private Integer buildingID;
+
+    @Column(nullable = false, length = 100)
+    private String buildingName;
+
+    @Column(nullable = false, length = 50)
+    private String roomNumber;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer currentOccupancy;
+
+    @Column(nullable = false)
+    private Double occupancyRate; // percent, 2 decimals
+
+    private LocalDateTime updatedAt;
+
+    public Integer getRoomID() {
+        return roomID;
+    }
+
+    public void setRoomID(Integer roomID) {
+        this.roomID = roomID;
+    }
+
+    public Integer getBuildingID() {
+        return buildingID;
+    }
+
+    public void setBuildingID(Integer buildingID) {
+        this.buildingID = buildingID;
+    }
+
+    public String getBuildingName() {
+        return buildingName;
+    }
+
+    public void setBuildingName(String buildingName) {
+        this.buildingName = buildingName;
+    }
+
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    public void setRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getCurrentOccupancy() {
+        return currentOccupancy;
+    }
+
+    public void setCurrentOccupancy(Integer currentOccupancy) {
+        this.currentOccupancy = currentOccupancy;
+    }
+
+    public Double getOccupancyRate() {
+        return occupancyRate;
+    }
+
+    public void setOccupancyRate(Double occupancyRate) {
+        this.occupancyRate = occupancyRate;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
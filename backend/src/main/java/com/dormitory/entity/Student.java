@@ -1,6 +1,8 @@
 package com.dormitory.entity;
 
+import com.dormitory.service.OccupancyCubeListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -8,6 +10,7 @@ import lombok.Data;
 @Entity
 @Table(name = "Student")
 @Data
+@EntityListeners(OccupancyCubeListener.class)
 public class Student {
     @Id
     private String studentID;
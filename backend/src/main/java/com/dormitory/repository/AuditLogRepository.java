@@ -12,17 +12,19 @@ import java.util.List;
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
-    List<AuditLog> findByEntityTypeOrderByTimestampDesc(String entityType);
+    Page<AuditLog> findByEntityTypeOrderByTimestampDesc(String entityType, Pageable pageable);
     
-    List<AuditLog> findByEntityIdOrderByTimestampDesc(String entityId);
+    Page<AuditLog> findByEntityIdOrderByTimestampDesc(String entityId, Pageable pageable);
     
-    List<AuditLog> findByPerformedByOrderByTimestampDesc(String performedBy);
+    Page<AuditLog> findByPerformedByOrderByTimestampDesc(String performedBy, Pageable pageable);
     
-    List<AuditLog> findByActionOrderByTimestampDesc(String action);
+    Page<AuditLog> findByActionOrderByTimestampDesc(String action, Pageable pageable);
     
     Page<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
     
-    List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+    Page<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end, Pageable pageable);
     
     List<AuditLog> findTop100ByOrderByTimestampDesc();
+
+    long countByTimestampLessThan(LocalDateTime before);
 }
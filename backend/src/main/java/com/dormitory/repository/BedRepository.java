@@ -1,12 +1,15 @@
 package com.dormitory.repository;
 
 import com.dormitory.entity.Bed;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -59,4 +62,12 @@ public interface BedRepository extends JpaRepository<Bed, Integer> {
     @Modifying
     @Query("UPDATE Bed b SET b.status = 'Occupied' WHERE b.bedID = :bedId AND (b.status = 'Reserved' OR b.status = 'Available')")
     int occupyReservedBed(@Param("bedId") Integer bedId);
+
+    /**
+     * Lock a set of beds for a batched check-in.
+     * Rows are locked in bedID order so concurrent batches cannot deadlock each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Bed b WHERE b.bedID IN :ids ORDER BY b.bedID")
+    List<Bed> findAllForUpdate(@Param("ids") Collection<Integer> ids);
 }
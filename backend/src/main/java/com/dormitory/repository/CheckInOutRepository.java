@@ -1,11 +1,30 @@
 package com.dormitory.repository;
 
 import com.dormitory.entity.CheckInOut;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CheckInOutRepository extends JpaRepository<CheckInOut, Integer> {
     List<CheckInOut> findByStudentID(String studentID);
     List<CheckInOut> findByStatus(String status);
     CheckInOut findByStudentIDAndStatus(String studentID, String status);
+    List<CheckInOut> findByStatusAndStudentIDIn(String status, Collection<String> studentIDs);
+    List<CheckInOut> findByStatusAndBedIDIn(String status, Collection<Integer> bedIDs);
+
+    // Latest check-in or check-out first; pass the number of records wanted as the page size
+    @Query("SELECT c FROM CheckInOut c ORDER BY COALESCE(c.checkOutDate, c.checkInDate) DESC NULLS LAST")
+    List<CheckInOut> findRecentActivity(Pageable pageable);
+
+    // (bedID, checkInDate, checkOutDate) rows, not entities, so the persistence context stays empty.
+    // Must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.bedID, c.checkInDate, c.checkOutDate FROM CheckInOut c WHERE c.checkInDate IS NOT NULL")
+    Stream<Object[]> streamStays();
 }
@@ -1,10 +1,15 @@
 package com.dormitory.repository;
 
 import com.dormitory.entity.DormBuilding;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DormBuildingRepository extends JpaRepository<DormBuilding, Integer> {
+    // Natural-key lookup served from the query cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     DormBuilding findByBuildingName(String buildingName);
 }
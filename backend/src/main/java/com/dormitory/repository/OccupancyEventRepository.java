@@ -0,0 +1,26 @@
+package com.dormitory.repository;
+
+import com.dormitory.entity.OccupancyEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Repository
+public interface OccupancyEventRepository extends JpaRepository<OccupancyEvent, Long> {
+
+    // Replay streams must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<OccupancyEvent> streamByOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(
+            LocalDateTime after, LocalDateTime upTo);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<OccupancyEvent> streamByBuildingIDAndOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(
+            Integer buildingID, LocalDateTime after, LocalDateTime upTo);
+
+    long countByOccurredAtAfter(LocalDateTime after);
+}
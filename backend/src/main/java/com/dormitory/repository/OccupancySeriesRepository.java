@@ -0,0 +1,13 @@
+package com.dormitory.repository;
+
+import com.dormitory.entity.OccupancySeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OccupancySeriesRepository extends JpaRepository<OccupancySeries, Long> {
+
+    Optional<OccupancySeries> findByScopeAndEntityID(String scope, Integer entityID);
+}
@@ -0,0 +1,18 @@
+package com.dormitory.repository;
+
+import com.dormitory.entity.OccupancySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OccupancySnapshotRepository extends JpaRepository<OccupancySnapshot, Long> {
+
+    Optional<OccupancySnapshot> findTopByOrderByWatermarkDesc();
+
+    Optional<OccupancySnapshot> findTopByWatermarkLessThanEqualOrderByWatermarkDesc(LocalDateTime pointInTime);
+
+    Optional<OccupancySnapshot> findTopByOrderByWatermarkAsc();
+}
@@ -4,6 +4,7 @@ import com.dormitory.entity.RoomApplication;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +13,5 @@ public interface RoomApplicationRepository extends JpaRepository<RoomApplication
     List<RoomApplication> findByStatus(String status);
     List<RoomApplication> findByStudentIDAndStatus(String studentID, String status);
     boolean existsByStudentIDAndStatus(String studentID, String status);
+    List<RoomApplication> findByStatusAndBedIDIn(String status, Collection<Integer> bedIDs);
 }
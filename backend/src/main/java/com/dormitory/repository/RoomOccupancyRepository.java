@@ -0,0 +1,18 @@
+package com.dormitory.repository;
+
+import com.dormitory.entity.RoomOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface RoomOccupancyRepository extends JpaRepository<RoomOccupancy, Integer> {
+
+    @Modifying
+    @Query("DELETE FROM RoomOccupancy o WHERE o.buildingID IN :buildingIDs")
+    int deleteByBuildingIDs(@Param("buildingIDs") Collection<Integer> buildingIDs);
+}
@@ -1,10 +1,32 @@
 package com.dormitory.repository;
 
 import com.dormitory.entity.Room;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Integer> {
+    // Not query-cached: every booking updates Room.currentOccupancy, which would invalidate the result
     Room findByBuildingIDAndRoomNumber(Integer buildingID, String roomNumber);
+
+    List<Room> findByBuildingIDIn(Collection<Integer> buildingIDs);
+
+    @Query("SELECT r.roomID FROM Room r ORDER BY r.roomID")
+    List<Integer> findAllRoomIDs();
+
+    // Keyset pages for passes over every room
+    List<Room> findByRoomIDGreaterThanOrderByRoomIDAsc(Integer roomID, Pageable pageable);
+
+    // Lock rooms in roomID order for batched occupancy updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.roomID IN :ids ORDER BY r.roomID")
+    List<Room> findAllForUpdate(@Param("ids") Collection<Integer> ids);
 }
@@ -2,8 +2,22 @@ package com.dormitory.repository;
 
 import com.dormitory.entity.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Integer> {
     Optional<UserAccount> findByUsername(String username);
+
+    /**
+     * Replace a password hash only if it is still the one that was verified, so an upgrade after login
+     * never overwrites a password changed in the meantime
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserAccount u SET u.passwordHash = :newHash WHERE u.userID = :userId AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("userId") Integer userId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -0,0 +1,270 @@
+package com.dormitory.security;
+
+import com.dormitory.config.MdcTaskDecorator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Password hashing with an adaptive work factor, off the request threads.
+ *
+ * New hashes are PBKDF2 ("pbkdf2-sha256" or "pbkdf2-sha512", iterations configurable) stored as
+ * {@code algorithm$iterations$salt$hash}, so the parameters travel with each hash and the work factor can
+ * be raised without invalidating existing passwords. Hashes from before this service (unsalted SHA-256,
+ * Base64) still verify; {@link Verification#needsRehash()} tells the caller to store a fresh hash on the
+ * next successful login, which migrates accounts as their owners log in. The same happens for PBKDF2
+ * hashes made with older parameters.
+ *
+ * Hashing and verifying run on a dedicated bounded pool sized to the CPU count. Callers get a future,
+ * so a login spike queues here instead of occupying Tomcat threads; once the queue is full new work is
+ * rejected with {@link BusyException} (503 to the client) rather than piling up.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final int SALT_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.password.algorithm:pbkdf2-sha512}")
+    private String algorithm;
+
+    @Value("${app.auth.password.iterations:210000}")
+    private int iterations;
+
+    @Value("${app.auth.password.threads:0}")
+    private int threads;
+
+    @Value("${app.auth.password.queue-capacity:256}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Timer verifyTimer;
+    private Counter rehashes;
+    private Counter rejected;
+
+    /** Compared against for unknown usernames, so they take as long as a wrong password */
+    private String dummyHash;
+
+    /**
+     * Thrown (through the future) when the hashing queue is full
+     */
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException() {
+            super("Password hashing queue is full");
+        }
+    }
+
+    /**
+     * Outcome of checking a password against a stored hash
+     */
+    public record Verification(boolean matches, boolean needsRehash) {
+    }
+
+    @PostConstruct
+    void init() {
+        // fail fast on a misspelt algorithm
+        keyLength(algorithm);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing", Tags.empty());
+        Gauge.builder("dormitory.auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hash/verify jobs waiting for a hashing thread")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("dormitory.auth.password.hash").description("Time to hash a password").register(meterRegistry);
+        verifyTimer = Timer.builder("dormitory.auth.password.verify").description("Time to verify a password").register(meterRegistry);
+        rehashes = Counter.builder("dormitory.auth.password.rehash").description("Hashes upgraded on login").register(meterRegistry);
+        rejected = Counter.builder("dormitory.auth.password.rejected").description("Jobs rejected, queue full").register(meterRegistry);
+
+        dummyHash = hash(algorithm, iterations, "dummy-password");
+        log.info("Password hashing: {} with {} iterations, {} threads, queue {}", algorithm, iterations, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Asynchronous API (request paths)
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Hash a new password on the hashing pool
+     */
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> hashNow(rawPassword));
+    }
+
+    /**
+     * Check a password on the hashing pool. A null stored hash (unknown user) is checked against a
+     * dummy hash and never matches, so it costs the same as a wrong password.
+     */
+    public CompletableFuture<Verification> verifyAsync(String rawPassword, String storedHash) {
+        return submit(() -> verifyNow(rawPassword, storedHash));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> job) {
+        try {
+            return CompletableFuture.supplyAsync(job, task -> executor.execute(MdcTaskDecorator.wrap(task)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new BusyException());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Synchronous API (seeding, startup, benchmarks)
+    // ---------------------------------------------------------------------------------------
+
+    public String hashNow(String rawPassword) {
+        return hashTimer.record(() -> hash(algorithm, iterations, rawPassword));
+    }
+
+    public Verification verifyNow(String rawPassword, String storedHash) {
+        return verifyTimer.record(() -> {
+            if (storedHash == null || rawPassword == null) {
+                matches(rawPassword != null ? rawPassword : "", dummyHash);
+                return new Verification(false, false);
+            }
+            boolean matches = matches(rawPassword, storedHash);
+            return new Verification(matches, matches && isOutdated(storedHash));
+        });
+    }
+
+    /**
+     * Count a hash that was upgraded after login
+     */
+    public void recordRehash() {
+        rehashes.increment();
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------------------------------
+
+    private boolean matches(String rawPassword, String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        byte[] expected;
+        byte[] actual;
+        if (parts.length == 4) {
+            try {
+                byte[] salt = Base64.getDecoder().decode(parts[2]);
+                expected = Base64.getDecoder().decode(parts[3]);
+                actual = pbkdf2(parts[0], Integer.parseInt(parts[1]), salt, rawPassword, expected.length * 8);
+            } catch (IllegalArgumentException e) {
+                log.warn("Unreadable password hash ({})", e.getMessage());
+                return false;
+            }
+        } else {
+            expected = storedHash.getBytes(StandardCharsets.UTF_8);
+            actual = legacyHash(rawPassword).getBytes(StandardCharsets.UTF_8);
+        }
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private boolean isOutdated(String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        return parts.length != 4 || !parts[0].equals(algorithm) || !parts[1].equals(String.valueOf(iterations));
+    }
+
+    static String hash(String algorithm, int iterations, String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(algorithm, iterations, salt, rawPassword, keyLength(algorithm));
+        Base64.Encoder b64 = Base64.getEncoder();
+        return algorithm + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    private static byte[] pbkdf2(String algorithm, int iterations, byte[] salt, String rawPassword, int keyLengthBits) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, keyLengthBits);
+        try {
+            return SecretKeyFactory.getInstance(jcaName(algorithm)).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error hashing password", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String jcaName(String algorithm) {
+        return switch (algorithm) {
+            case "pbkdf2-sha256" -> "PBKDF2WithHmacSHA256";
+            case "pbkdf2-sha512" -> "PBKDF2WithHmacSHA512";
+            default -> throw new IllegalArgumentException("Unsupported password algorithm: " + algorithm);
+        };
+    }
+
+    private static int keyLength(String algorithm) {
+        return "pbkdf2-sha512".equals(algorithm) ? 512 : 256;
+    }
+
+    /**
+     * Unsalted single-round SHA-256 used before this service; only for verifying old accounts
+     */
+    private static String legacyHash(String rawPassword) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawPassword.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error hashing password", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("algorithm", algorithm);
+        stats.put("iterations", iterations);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("rehashed", (long) rehashes.count());
+        stats.put("meanHashMs", Math.round(hashTimer.mean(TimeUnit.MILLISECONDS) * 100.0) / 100.0);
+        stats.put("meanVerifyMs", Math.round(verifyTimer.mean(TimeUnit.MILLISECONDS) * 100.0) / 100.0);
+        return stats;
+    }
+}
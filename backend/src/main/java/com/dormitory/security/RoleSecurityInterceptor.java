@@ -3,6 +3,7 @@ package com.dormitory.security;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.dormitory.service.AppMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
@@ -36,6 +37,9 @@ public class RoleSecurityInterceptor implements HandlerInterceptor {
     @Autowired
     private JwtTokenService jwtTokenService;
 
+    @Autowired
+    private AppMetrics appMetrics;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String path = request.getRequestURI();
@@ -64,12 +68,14 @@ public class RoleSecurityInterceptor implements HandlerInterceptor {
         JwtTokenService.TokenClaims claims = jwtTokenService.verifyToken(token);
         
         if (!claims.isValid()) {
+            appMetrics.recordTokenFailure(claims.getError());
             sendError(response, HttpServletResponse.SC_UNAUTHORIZED, claims.getError());
             return false;
         }
 
         // Check role authorization
         if (!claims.hasRole(requiredRoles)) {
+            appMetrics.recordAccessDenied(claims.getRole());
             sendError(response, HttpServletResponse.SC_FORBIDDEN, 
                 "Access denied. Required role: " + String.join(" or ", requiredRoles) + 
                 ", your role: " + claims.getRole());
@@ -110,7 +116,7 @@ public class RoleSecurityInterceptor implements HandlerInterceptor {
      * Determine required roles for a given path and HTTP method
      * @return Array of allowed roles, or null if no restriction
      */
-    private String[] getRequiredRoles(String path, String method) {
+    String[] getRequiredRoles(String path, String method) {
         // Admin-only endpoints
         if (path.startsWith("/api/auth/admin/")) {
             return new String[]{"Admin"};
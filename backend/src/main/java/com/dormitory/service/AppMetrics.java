@@ -0,0 +1,195 @@
+package com.dormitory.service;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application meters (booking, auth, export, audit, Hibernate) on the shared Micrometer registry.
+ *
+ * The registry is scraped in Prometheus format from the management port (/actuator/prometheus);
+ * {@link #dashboard()} renders the same meters as JSON for /api/admin/metrics when no Prometheus
+ * server is running. Queue depth gauges are registered by the owning services, and the Spring
+ * async executor (audit and email) is instrumented by Spring Boot as executor.* {name=applicationTaskExecutor}.
+ */
+@Component
+public class AppMetrics {
+
+    public static final String BOOKING = "dormitory.booking";
+    public static final String TOKEN_FAILURES = "dormitory.auth.token.failures";
+    public static final String ACCESS_DENIED = "dormitory.auth.access.denied";
+    public static final String EXPORT = "dormitory.export";
+    public static final String EXPORT_ROWS = "dormitory.export.rows";
+    public static final String AUDIT_WRITES = "dormitory.audit.writes";
+    public static final String REQUEST_QUERIES = "dormitory.http.request.queries";
+    public static final String REQUEST_ROWS = "dormitory.http.request.rows";
+
+    /** Meter name prefixes included in the JSON dashboard */
+    private static final List<String> DASHBOARD_PREFIXES = List.of(
+            "dormitory.", "hibernate.", "executor.", "http.server.requests", "hikaricp.connections",
+            "jvm.memory.used", "jvm.threads.live", "process.cpu.usage");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void bindHibernateStatistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        hibernateCounter(stats, "hibernate.statements.prepared", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        hibernateCounter(stats, "hibernate.queries.executed", "HQL/criteria/native queries executed", Statistics::getQueryExecutionCount);
+        hibernateCounter(stats, "hibernate.entities.loaded", "Entities loaded from the database", Statistics::getEntityLoadCount);
+        hibernateCounter(stats, "hibernate.entities.fetched", "Entities fetched lazily (possible N+1)", Statistics::getEntityFetchCount);
+        hibernateCounter(stats, "hibernate.collections.fetched", "Collections fetched lazily", Statistics::getCollectionFetchCount);
+        hibernateCounter(stats, "hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        hibernateCounter(stats, "hibernate.optimistic.failures", "Optimistic lock failures", Statistics::getOptimisticFailureCount);
+        hibernateCounter(stats, "hibernate.second.level.cache.hits", "Second-level cache hits", Statistics::getSecondLevelCacheHitCount);
+        hibernateCounter(stats, "hibernate.second.level.cache.misses", "Second-level cache misses", Statistics::getSecondLevelCacheMissCount);
+        Gauge.builder("hibernate.queries.slowest.ms", stats, Statistics::getQueryExecutionMaxTime)
+                .description("Slowest query since startup")
+                .register(meterRegistry);
+    }
+
+    private void hibernateCounter(Statistics stats, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, stats, value).description(description).register(meterRegistry);
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------------------------------
+
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Booking operation latency, tagged by operation and outcome (OK or the BookingResult error code)
+     */
+    public void recordBooking(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder(BOOKING)
+                .description("Room booking operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome != null ? outcome : "OK")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Rejected auth cookie, by reason (missing, malformed, signature, claims, expired, error)
+     */
+    public void recordTokenFailure(String error) {
+        meterRegistry.counter(TOKEN_FAILURES, "reason", tokenFailureReason(error)).increment();
+    }
+
+    public void recordAccessDenied(String role) {
+        meterRegistry.counter(ACCESS_DENIED, "role", role != null ? role : "unknown").increment();
+    }
+
+    /**
+     * Export duration and size, by dataset (students, repairs, audit) and format (csv, xlsx, pdf, ndjson)
+     */
+    public void recordExport(String dataset, String format, long rows, long elapsedNanos) {
+        Timer.builder(EXPORT)
+                .description("Report and data export duration")
+                .tags("dataset", dataset, "format", format)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(EXPORT_ROWS)
+                .description("Rows per export")
+                .tags("dataset", dataset, "format", format)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    public void recordAuditWrite(boolean success) {
+        meterRegistry.counter(AUDIT_WRITES, "outcome", success ? "ok" : "failed").increment();
+    }
+
+    /**
+     * JDBC statements issued and rows fetched while serving one request, by handler
+     */
+    public void recordRequestQueries(String handler, int statements, long rows) {
+        DistributionSummary.builder(REQUEST_QUERIES)
+                .description("JDBC statements per HTTP request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(statements);
+        DistributionSummary.builder(REQUEST_ROWS)
+                .description("Rows fetched per HTTP request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    static String tokenFailureReason(String error) {
+        if (error == null) return "error";
+        if (error.startsWith("No token")) return "missing";
+        if (error.startsWith("Invalid token format")) return "malformed";
+        if (error.startsWith("Invalid token signature")) return "signature";
+        if (error.startsWith("Missing required")) return "claims";
+        if (error.startsWith("Token expired")) return "expired";
+        return "error";
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Dashboard
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Current value of every application meter: name -> list of {tags, statistics}
+     */
+    public Map<String, Object> dashboard() {
+        Map<String, List<Map<String, Object>>> meters = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            String name = meter.getId().getName();
+            if (DASHBOARD_PREFIXES.stream().noneMatch(name::startsWith)) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            Map<String, String> tags = new TreeMap<>();
+            meter.getId().getTags().forEach(t -> tags.put(t.getKey(), t.getValue()));
+            item.put("tags", tags);
+            item.put("type", meter.getId().getType().name().toLowerCase(Locale.ROOT));
+            if (meter instanceof Timer timer) {
+                item.put("count", timer.count());
+                item.put("meanMs", round(timer.mean(TimeUnit.MILLISECONDS)));
+                item.put("maxMs", round(timer.max(TimeUnit.MILLISECONDS)));
+                item.put("totalMs", round(timer.totalTime(TimeUnit.MILLISECONDS)));
+                for (ValueAtPercentile p : timer.takeSnapshot().percentileValues()) {
+                    item.put("p" + Math.round(p.percentile() * 100) + "Ms", round(p.value(TimeUnit.MILLISECONDS)));
+                }
+            } else if (meter instanceof DistributionSummary summary) {
+                item.put("count", summary.count());
+                item.put("mean", round(summary.mean()));
+                item.put("max", round(summary.max()));
+                item.put("total", round(summary.totalAmount()));
+            } else {
+                for (Measurement m : meter.measure()) {
+                    item.put(m.getStatistic().getTagValueRepresentation(), round(m.getValue()));
+                }
+            }
+            meters.computeIfAbsent(name, k -> new ArrayList<>()).add(item);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("generatedAt", LocalDateTime.now());
+        result.put("meters", meters);
+        return result;
+    }
+
+    private static double round(double value) {
+        return Double.isFinite(value) ? Math.round(value * 100.0) / 100.0 : 0.0;
+    }
+}
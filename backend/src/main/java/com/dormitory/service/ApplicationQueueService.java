@@ -0,0 +1,291 @@
+package com.dormitory.service;
+
+import com.dormitory.config.MdcTaskDecorator;
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waiting room for room applications.
+ *
+ * Requests are accepted into a bounded FIFO and get a ticket id; a fixed pool of booking
+ * workers drains it through {@link BookingAdmissionService}, so the number of concurrent
+ * booking transactions stays constant no matter how many students click at once.
+ * Each student holds at most one outstanding ticket: submitting again for the same bed returns the
+ * same ticket, so nobody can improve their place in line by retrying, and submitting for another bed
+ * is refused until the first ticket has finished.
+ * Callers wait on {@link #awaitAsync} without holding a thread.
+ */
+@Service
+public class ApplicationQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationQueueService.class);
+
+    @Autowired
+    private BookingAdmissionService bookingAdmissionService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.booking.queue.capacity:2000}")
+    private int capacity;
+
+    @Value("${app.booking.queue.workers:8}")
+    private int workers;
+
+    @Value("${app.booking.queue.ticket-ttl-minutes:10}")
+    private long ticketTtlMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> activeByStudent = new ConcurrentHashMap<>();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public enum TicketStatus { QUEUED, PROCESSING, DONE }
+
+    /**
+     * A queued room application and its eventual booking result
+     */
+    public static class Ticket {
+        private final String ticketId;
+        private final String studentID;
+        private final Integer bedID;
+        private final String username;
+        private volatile long sequence;
+        private final CompletableFuture<RoomBookingService.BookingResult> result = new CompletableFuture<>();
+        private volatile TicketStatus status = TicketStatus.QUEUED;
+        private volatile long completedAt;
+
+        private Ticket(String studentID, Integer bedID, String username) {
+            this.ticketId = UUID.randomUUID().toString();
+            this.studentID = studentID;
+            this.bedID = bedID;
+            this.username = username;
+        }
+
+        public String getTicketId() { return ticketId; }
+        public String getStudentID() { return studentID; }
+        public Integer getBedID() { return bedID; }
+        public TicketStatus getStatus() { return status; }
+
+        /**
+         * The booking result, or null while the ticket is still waiting
+         */
+        public RoomBookingService.BookingResult getResult() {
+            return result.getNow(null);
+        }
+    }
+
+    /**
+     * Thrown when the waiting room is full; callers should answer 503 with Retry-After
+     */
+    public static class QueueFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public QueueFullException() {
+            super("The application queue is full. Please try again shortly.");
+        }
+    }
+
+    /**
+     * Thrown when the student already has a ticket waiting for a different bed; callers should answer 409
+     */
+    public static class TicketConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String ticketId;
+        private final Integer bedID;
+
+        public TicketConflictException(Ticket existing) {
+            super("You already have an application in the queue for another bed. Please wait for it to finish.");
+            this.ticketId = existing.ticketId;
+            this.bedID = existing.bedID;
+        }
+
+        public String getTicketId() { return ticketId; }
+        public Integer getBedID() { return bedID; }
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                r -> {
+                    Thread t = new Thread(r, "booking-worker-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // executor.queued / executor.active / executor.completed {name=booking-queue}
+        new ExecutorServiceMetrics(executor, "booking-queue", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("dormitory.booking.queue.tickets", tickets, Map::size)
+                .description("Tickets tracked (queued, processing or awaiting pickup)")
+                .register(meterRegistry);
+        FunctionCounter.builder("dormitory.booking.queue.rejected", rejected, AtomicLong::get)
+                .description("Applications turned away because the waiting room was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an application, or return the student's outstanding ticket for the same bed
+     *
+     * @throws QueueFullException if the waiting room is at capacity
+     * @throws TicketConflictException if the outstanding ticket is for a different bed
+     */
+    public Ticket submit(String studentID, Integer bedID, String username) {
+        Ticket ticket = new Ticket(studentID, bedID, username);
+        Ticket existing = activeByStudent.putIfAbsent(studentID, ticket);
+        if (existing != null) {
+            if (!Objects.equals(existing.bedID, bedID)) {
+                throw new TicketConflictException(existing);
+            }
+            return existing;
+        }
+
+        ticket.sequence = enqueued.incrementAndGet();
+        tickets.put(ticket.ticketId, ticket);
+        try {
+            executor.execute(MdcTaskDecorator.wrap(() -> process(ticket)));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.ticketId);
+            activeByStudent.remove(studentID, ticket);
+            rejected.incrementAndGet();
+            throw new QueueFullException();
+        }
+        return ticket;
+    }
+
+    public Ticket getTicket(String ticketId) {
+        return ticketId != null ? tickets.get(ticketId) : null;
+    }
+
+    /**
+     * Completes with the booking result once the ticket finishes, or with null after waitMs
+     * if it is still queued or processing. Nothing blocks while waiting; callers continue on the
+     * booking worker that finished the ticket (or on the timeout thread).
+     */
+    public CompletableFuture<RoomBookingService.BookingResult> awaitAsync(Ticket ticket, long waitMs) {
+        if (waitMs <= 0 || ticket.result.isDone()) {
+            return CompletableFuture.completedFuture(ticket.getResult());
+        }
+        // copy() so that timing out this caller's wait does not complete the ticket itself
+        return ticket.result.copy().completeOnTimeout(null, waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Approximate number of tickets ahead of this one (0 once it is being processed)
+     */
+    public long positionOf(Ticket ticket) {
+        if (ticket.status != TicketStatus.QUEUED) {
+            return 0;
+        }
+        return Math.max(0, ticket.sequence - started.get() - 1);
+    }
+
+    /**
+     * Queue depth and throughput counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", executor.getQueue().size());
+        stats.put("processing", executor.getActiveCount());
+        stats.put("capacity", capacity);
+        stats.put("workers", workers);
+        stats.put("accepted", enqueued.get());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejectedQueueFull", rejected.get());
+        stats.put("trackedTickets", tickets.size());
+        return stats;
+    }
+
+    /**
+     * Forget finished tickets once clients had time to read them
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFinishedTickets() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ticketTtlMinutes);
+        tickets.values().removeIf(t -> t.status == TicketStatus.DONE && t.completedAt < cutoff);
+    }
+
+    private void process(Ticket ticket) {
+        started.incrementAndGet();
+        ticket.status = TicketStatus.PROCESSING;
+        RoomBookingService.BookingResult result;
+        try {
+            result = bookingAdmissionService.reserveBedForApplication(ticket.studentID, ticket.bedID);
+            if (result.isSuccess()) {
+                auditService.log("ROOM_APPLICATION", "STUDENT", ticket.studentID,
+                        "Room application submitted for " + describeBed(ticket.bedID), ticket.username);
+            }
+        } catch (Exception e) {
+            log.error("Booking failed for ticket {}", ticket.ticketId, e);
+            result = RoomBookingService.BookingResult.failure(
+                "An error occurred while processing your application: " + e.getMessage(), "SYSTEM_ERROR");
+        }
+        ticket.completedAt = System.currentTimeMillis();
+        ticket.status = TicketStatus.DONE;
+        activeByStudent.remove(ticket.studentID, ticket);
+        ticket.result.complete(result);
+    }
+
+    private String describeBed(Integer bedID) {
+        Bed bed = bedRepository.findById(bedID).orElse(null);
+        if (bed == null) return "Bed " + bedID;
+        Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
+        if (room == null) return "Bed " + bed.getBedNumber();
+        DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
+        return String.format("%s Room %s Bed %s",
+                building != null ? building.getBuildingName() : "", room.getRoomNumber(), bed.getBedNumber());
+    }
+}
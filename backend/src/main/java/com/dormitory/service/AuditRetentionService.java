@@ -0,0 +1,313 @@
+package com.dormitory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Month-partition maintenance and retention for audit_log.
+ *
+ * Keeps a few future monthly partitions split off the catch-all pmax partition, and moves every month
+ * older than the retention window to a gzip NDJSON file in the archive directory (one JSON object per
+ * line). A month is removed from the table only after its archive is fully written and the row count
+ * matches: by DROP PARTITION when the month has its own partition, otherwise by batched deletes.
+ * Works on an unpartitioned table too (no partition maintenance, delete-based removal).
+ */
+@Service
+public class AuditRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRetentionService.class);
+
+    private static final String TABLE = "audit_log";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final int DELETE_BATCH = 5000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.audit.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    @Value("${app.audit.archive-dir:audit-archive}")
+    private String archiveDir;
+
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    private volatile Map<String, Object> lastReport;
+
+    @PostConstruct
+    void initTransactions() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.audit.retention-cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        try {
+            Map<String, Object> report = run();
+            log.info("Retention run: {}", report);
+        } catch (RuntimeException e) {
+            log.error("Retention run failed", e);
+        }
+    }
+
+    /**
+     * Add upcoming partitions, then archive and remove expired months
+     */
+    public synchronized Map<String, Object> run() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", LocalDateTime.now());
+        report.put("partitionsAdded", ensurePartitions());
+
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<Map<String, Object>> archived = new ArrayList<>();
+        Object oldest = readTransaction.execute(status ->
+                entityManager.createNativeQuery("SELECT MIN(timestamp) FROM " + TABLE).getSingleResult());
+        if (oldest != null) {
+            for (YearMonth month = YearMonth.from(toLocalDateTime(oldest)); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                archived.add(archiveMonth(month));
+            }
+        }
+        report.put("retainedFrom", cutoff.atDay(1));
+        report.put("archived", archived);
+        report.put("elapsedMs", System.currentTimeMillis() - start);
+        lastReport = report;
+        return report;
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Partitions
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Partition name -> upper bound, in partition order; empty when the table is not partitioned
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedHashMap<String, String> partitions() {
+        List<Object[]> rows = readTransaction.execute(status -> entityManager.createNativeQuery(
+                        "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION")
+                .setParameter("table", TABLE)
+                .getResultList());
+        LinkedHashMap<String, String> partitions = new LinkedHashMap<>();
+        if (rows != null) {
+            for (Object[] row : rows) {
+                partitions.put(String.valueOf(row[0]), String.valueOf(row[1]));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Split monthly partitions off pmax for this month and the next few
+     *
+     * @return names of the partitions added
+     */
+    public List<String> ensurePartitions() {
+        Map<String, String> existing = partitions();
+        List<String> added = new ArrayList<>();
+        if (existing.isEmpty() || !existing.containsKey("pmax")) {
+            return added;
+        }
+        String last = existing.keySet().stream().filter(n -> n.matches("p\\d{6}")).reduce((a, b) -> b).orElse(null);
+        YearMonth month = last != null ? YearMonth.parse(last.substring(1), DateTimeFormatter.ofPattern("yyyyMM")).plusMonths(1)
+                : YearMonth.now();
+        YearMonth until = YearMonth.now().plusMonths(partitionsAhead);
+        for (; !month.isAfter(until); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            String ddl = "ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO (" +
+                    "PARTITION " + name + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                    "PARTITION pmax VALUES LESS THAN (MAXVALUE))";
+            writeTransaction.executeWithoutResult(status -> entityManager.createNativeQuery(ddl).executeUpdate());
+            added.add(name);
+        }
+        return added;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Archival
+    // ---------------------------------------------------------------------------------------
+
+    private Map<String, Object> archiveMonth(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("month", month.toString());
+
+        long expected = ((Number) readTransaction.execute(status -> entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM " + TABLE + " WHERE timestamp >= :from AND timestamp < :to")
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getSingleResult())).longValue();
+        result.put("rows", expected);
+
+        String partition = month.format(PARTITION_NAME);
+        boolean ownPartition = partitions().containsKey(partition);
+        if (expected > 0) {
+            Path file = writeArchive(month, from, to, expected);
+            result.put("file", file.toString());
+            try {
+                result.put("bytes", Files.size(file));
+            } catch (IOException ignored) {
+                // size is informational only
+            }
+        }
+
+        if (ownPartition) {
+            writeTransaction.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("ALTER TABLE " + TABLE + " DROP PARTITION " + partition)
+                    .executeUpdate());
+            result.put("removedBy", "DROP PARTITION");
+        } else if (expected > 0) {
+            int deleted;
+            do {
+                deleted = Objects.requireNonNull(writeTransaction.execute(status -> entityManager.createNativeQuery(
+                                "DELETE FROM " + TABLE + " WHERE timestamp >= :from AND timestamp < :to LIMIT " + DELETE_BATCH)
+                        .setParameter("from", from)
+                        .setParameter("to", to)
+                        .executeUpdate()));
+            } while (deleted == DELETE_BATCH);
+            result.put("removedBy", "DELETE");
+        }
+        return result;
+    }
+
+    /**
+     * Stream one month to audit-YYYY-MM[.n].ndjson.gz via a temp file; fails unless all rows were written
+     */
+    private Path writeArchive(YearMonth month, LocalDateTime from, LocalDateTime to, long expected) {
+        try {
+            Path dir = Paths.get(archiveDir);
+            Files.createDirectories(dir);
+            Path target = dir.resolve("audit-" + month + ".ndjson.gz");
+            for (int n = 1; Files.exists(target); n++) {
+                target = dir.resolve("audit-" + month + "." + n + ".ndjson.gz");
+            }
+            Path tmp = dir.resolve(target.getFileName() + ".tmp");
+
+            long written;
+            try (OutputStream file = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer out = new OutputStreamWriter(new GZIPOutputStream(file, 64 * 1024), StandardCharsets.UTF_8)) {
+                written = Objects.requireNonNull(readTransaction.execute(status -> streamMonth(from, to, out)));
+            }
+            if (written != expected) {
+                Files.deleteIfExists(tmp);
+                throw new IllegalStateException("Archive of " + month + " wrote " + written + " rows, expected " + expected);
+            }
+            return Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archiving audit month " + month + " failed", e);
+        }
+    }
+
+    private long streamMonth(LocalDateTime from, LocalDateTime to, Writer out) {
+        @SuppressWarnings("unchecked")
+        Stream<Object[]> rows = entityManager.createNativeQuery(
+                        "SELECT id, action, entity_type, entity_id, details, performed_by, timestamp, ip_address " +
+                        "FROM " + TABLE + " WHERE timestamp >= :from AND timestamp < :to ORDER BY timestamp, id")
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream();
+        long[] count = {0};
+        try (rows) {
+            rows.forEach(r -> {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("id", r[0]);
+                line.put("action", r[1]);
+                line.put("entityType", r[2]);
+                line.put("entityId", r[3]);
+                line.put("details", r[4]);
+                line.put("performedBy", r[5]);
+                line.put("timestamp", r[6] != null ? toLocalDateTime(r[6]).toString() : null);
+                line.put("ipAddress", r[7]);
+                try {
+                    out.write(objectMapper.writeValueAsString(line));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Archive files, newest first
+     */
+    public List<Map<String, Object>> listArchives() {
+        Path dir = Paths.get(archiveDir);
+        List<Map<String, Object>> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            paths.filter(p -> p.getFileName().toString().endsWith(".ndjson.gz"))
+                    .sorted(Comparator.reverseOrder())
+                    .forEach(p -> {
+                        Map<String, Object> item = new LinkedHashMap<>();
+                        item.put("file", p.getFileName().toString());
+                        try {
+                            item.put("bytes", Files.size(p));
+                        } catch (IOException ignored) {
+                            item.put("bytes", null);
+                        }
+                        files.add(item);
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return files;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime ldt) return ldt;
+        if (value instanceof Timestamp ts) return ts.toLocalDateTime();
+        if (value instanceof LocalDate d) return d.atStartOfDay();
+        return LocalDateTime.parse(value.toString().replace(' ', 'T'));
+    }
+}
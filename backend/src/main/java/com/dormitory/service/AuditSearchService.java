@@ -0,0 +1,162 @@
+package com.dormitory.service;
+
+import com.dormitory.dto.AuditSearchCriteria;
+import com.dormitory.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Multi-field audit search ordered by (timestamp, id) descending.
+ *
+ * Pages are found by keyset on (timestamp, id), so page N costs the same as page 1; each equality
+ * filter is served by its (column, timestamp) index, whose implicit primary-key suffix supplies id.
+ * The export streams the whole result set as NDJSON with a JDBC fetch size, clearing the persistence
+ * context as it goes, so heap use does not grow with the number of rows.
+ */
+@Service
+public class AuditSearchService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readTransaction;
+
+    @PostConstruct
+    void initReadTransaction() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One page of results after the given cursor (null for the first page)
+     */
+    public Map<String, Object> search(AuditSearchCriteria criteria, String cursor, int size) {
+        int limit = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        Object[] after = decodeCursor(cursor);
+
+        List<AuditLog> rows = readTransaction.execute(status -> entityManager
+                .createQuery(buildQuery(criteria, after))
+                .setMaxResults(limit + 1)
+                .getResultList());
+        boolean hasMore = rows.size() > limit;
+        List<AuditLog> items = hasMore ? rows.subList(0, limit) : rows;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", items);
+        result.put("size", limit);
+        result.put("nextCursor", hasMore ? encodeCursor(items.get(items.size() - 1)) : null);
+        return result;
+    }
+
+    /**
+     * Write every matching row as one JSON object per line
+     *
+     * @return number of rows written
+     */
+    public long export(AuditSearchCriteria criteria, OutputStream out) {
+        Long written = readTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<AuditLog> rows = entityManager.createQuery(buildQuery(criteria, null))
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                Iterator<AuditLog> it = rows.iterator();
+                while (it.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                    if (++count % EXPORT_FETCH_SIZE == 0) {
+                        entityManager.clear();
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        return written != null ? written : 0;
+    }
+
+    private CriteriaQuery<AuditLog> buildQuery(AuditSearchCriteria c, Object[] after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLog> query = cb.createQuery(AuditLog.class);
+        Root<AuditLog> log = query.from(AuditLog.class);
+
+        List<Predicate> where = new ArrayList<>();
+        equal(cb, where, log, "action", c.getAction());
+        equal(cb, where, log, "entityType", c.getEntityType());
+        equal(cb, where, log, "entityId", c.getEntityId());
+        equal(cb, where, log, "performedBy", c.getPerformedBy());
+        equal(cb, where, log, "ipAddress", c.getIpAddress());
+        if (c.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(log.get("timestamp"), c.getFrom()));
+        }
+        if (c.getTo() != null) {
+            where.add(cb.lessThan(log.get("timestamp"), c.getTo()));
+        }
+        if (after != null) {
+            LocalDateTime ts = (LocalDateTime) after[0];
+            Long id = (Long) after[1];
+            where.add(cb.or(
+                    cb.lessThan(log.get("timestamp"), ts),
+                    cb.and(cb.equal(log.get("timestamp"), ts), cb.lessThan(log.get("id"), id))));
+        }
+
+        return query.select(log)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(log.get("timestamp")), cb.desc(log.get("id")));
+    }
+
+    private static void equal(CriteriaBuilder cb, List<Predicate> where, Root<AuditLog> log, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            where.add(cb.equal(log.get(field), value.trim()));
+        }
+    }
+
+    private static String encodeCursor(AuditLog last) {
+        String raw = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = raw.lastIndexOf('|');
+            return new Object[]{LocalDateTime.parse(raw.substring(0, bar)), Long.valueOf(raw.substring(bar + 1))};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -2,16 +2,37 @@ package com.dormitory.service;
 
 import com.dormitory.entity.AuditLog;
 import com.dormitory.repository.AuditLogRepository;
+import com.dormitory.util.SampledLogger;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuditService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Value("${app.logging.audit-sample-per-second:20}")
+    private int samplePerSecond;
+
+    /** Every audit write is already a row in audit_log, so the console only gets a sample */
+    private SampledLogger writes;
+
+    @PostConstruct
+    void initLogging() {
+        writes = new SampledLogger(logger, samplePerSecond);
+    }
+
     /**
      * Log an action asynchronously
      */
@@ -20,9 +41,11 @@ public class AuditService {
         try {
             AuditLog log = new AuditLog(action, entityType, entityId, details, performedBy);
             auditLogRepository.save(log);
-            System.out.println("[Audit] " + action + " " + entityType + " " + entityId + " by " + performedBy);
+            appMetrics.recordAuditWrite(true);
+            writes.info("{} {} {} by {}", action, entityType, entityId, performedBy);
         } catch (Exception e) {
-            System.err.println("[Audit] Failed to log: " + e.getMessage());
+            appMetrics.recordAuditWrite(false);
+            logger.error("Failed to log {} {} {}: {}", action, entityType, entityId, e.getMessage());
         }
     }
 
@@ -35,9 +58,11 @@ public class AuditService {
             AuditLog log = new AuditLog(action, entityType, entityId, details, performedBy);
             log.setIpAddress(ipAddress);
             auditLogRepository.save(log);
-            System.out.println("[Audit] " + action + " " + entityType + " " + entityId + " by " + performedBy + " from " + ipAddress);
+            appMetrics.recordAuditWrite(true);
+            writes.info("{} {} {} by {} from {}", action, entityType, entityId, performedBy, ipAddress);
         } catch (Exception e) {
-            System.err.println("[Audit] Failed to log: " + e.getMessage());
+            appMetrics.recordAuditWrite(false);
+            logger.error("Failed to log {} {} {}: {}", action, entityType, entityId, e.getMessage());
         }
     }
 
@@ -0,0 +1,230 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.CheckInOut;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.OccupancyEvent;
+import com.dormitory.entity.Room;
+import com.dormitory.entity.Student;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.CheckInOutRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import com.dormitory.repository.StudentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checks in many students at once.
+ *
+ * Assignments are committed in chunks; each chunk is one READ_COMMITTED transaction that locks
+ * its beds and then its rooms (same order as RoomBookingService), re-validates every assignment
+ * under the lock and writes beds, rooms, students and CheckInOut rows as JDBC batches.
+ * An assignment whose bed or student changed since it was planned is skipped, not forced.
+ */
+@Service
+public class BatchCheckInService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchCheckInService.class);
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private BedClaimRegistry bedClaimRegistry;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.allocation.commit-chunk-size:500}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void initChunkTransaction() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * One student -> bed pair
+     */
+    public static class Assignment {
+        private final String studentID;
+        private final Integer bedID;
+
+        public Assignment(String studentID, Integer bedID) {
+            this.studentID = studentID;
+            this.bedID = bedID;
+        }
+
+        public String getStudentID() { return studentID; }
+        public Integer getBedID() { return bedID; }
+    }
+
+    /**
+     * Outcome of a batched check-in
+     */
+    public static class BatchResult {
+        private int checkedIn;
+        private final List<Map<String, Object>> skipped = new ArrayList<>();
+        private int failedChunks;
+
+        public int getCheckedIn() { return checkedIn; }
+        public List<Map<String, Object>> getSkipped() { return skipped; }
+        public int getFailedChunks() { return failedChunks; }
+
+        private void skip(Assignment a, String reason) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("studentID", a.getStudentID());
+            item.put("bedID", a.getBedID());
+            item.put("reason", reason);
+            skipped.add(item);
+        }
+    }
+
+    /**
+     * Check in all assignments, chunk by chunk
+     */
+    public BatchResult checkIn(List<Assignment> assignments, String performedBy) {
+        BatchResult result = new BatchResult();
+        for (int from = 0; from < assignments.size(); from += chunkSize) {
+            List<Assignment> chunk = assignments.subList(from, Math.min(from + chunkSize, assignments.size()));
+            BatchResult chunkResult = new BatchResult();
+            try {
+                List<Integer> occupied = chunkTransaction.execute(status -> checkInChunk(chunk, chunkResult));
+                occupied.forEach(bedClaimRegistry::markClaimed);
+                result.checkedIn += chunkResult.checkedIn;
+                result.skipped.addAll(chunkResult.skipped);
+            } catch (RuntimeException e) {
+                log.warn("Chunk starting at {} failed: {}", from, e.getMessage());
+                result.failedChunks++;
+                for (Assignment a : chunk) {
+                    result.skip(a, "Chunk failed: " + e.getMessage());
+                }
+            }
+        }
+
+        if (result.checkedIn > 0) {
+            auditService.log("BULK_CHECK_IN", "Student", "batch",
+                    String.format("Checked in %d students (%d skipped)", result.checkedIn, result.skipped.size()),
+                    performedBy);
+        }
+        return result;
+    }
+
+    private List<Integer> checkInChunk(List<Assignment> chunk, BatchResult result) {
+        Set<Integer> bedIDs = new HashSet<>();
+        Set<String> studentIDs = new HashSet<>();
+        for (Assignment a : chunk) {
+            bedIDs.add(a.getBedID());
+            studentIDs.add(a.getStudentID());
+        }
+
+        Map<Integer, Bed> beds = bedRepository.findAllForUpdate(bedIDs).stream()
+                .collect(Collectors.toMap(Bed::getBedID, Function.identity()));
+        Set<Integer> roomIDs = beds.values().stream().map(Bed::getRoomID).collect(Collectors.toSet());
+        Map<Integer, Room> rooms = roomRepository.findAllForUpdate(roomIDs).stream()
+                .collect(Collectors.toMap(Room::getRoomID, Function.identity()));
+        Set<Integer> buildingIDs = rooms.values().stream().map(Room::getBuildingID).collect(Collectors.toSet());
+        Map<Integer, DormBuilding> buildings = buildingRepository.findAllById(buildingIDs).stream()
+                .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+        Map<String, Student> students = studentRepository.findAllById(studentIDs).stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+        Set<String> living = checkInOutRepository.findByStatusAndStudentIDIn("CurrentlyLiving", studentIDs).stream()
+                .map(CheckInOut::getStudentID)
+                .collect(Collectors.toSet());
+
+        List<Integer> occupied = new ArrayList<>();
+        List<Student> updatedStudents = new ArrayList<>();
+        List<CheckInOut> records = new ArrayList<>();
+        Set<String> seenStudents = new HashSet<>();
+        LocalDate today = LocalDate.now();
+
+        for (Assignment a : chunk) {
+            Bed bed = beds.get(a.getBedID());
+            Student student = students.get(a.getStudentID());
+            if (bed == null) {
+                result.skip(a, "Bed not found");
+                continue;
+            }
+            if (!"Available".equalsIgnoreCase(bed.getStatus())) {
+                result.skip(a, "Bed is no longer available");
+                continue;
+            }
+            if (student == null) {
+                result.skip(a, "Student not found");
+                continue;
+            }
+            if (living.contains(student.getStudentID()) || !seenStudents.add(student.getStudentID())) {
+                result.skip(a, "Student is already checked in");
+                continue;
+            }
+            Room room = rooms.get(bed.getRoomID());
+            DormBuilding building = room != null ? buildings.get(room.getBuildingID()) : null;
+            if (building == null) {
+                result.skip(a, "Room or building not found");
+                continue;
+            }
+
+            bed.setStatus("Occupied");
+            int current = room.getCurrentOccupancy() != null ? room.getCurrentOccupancy() : 0;
+            room.setCurrentOccupancy(current + 1);
+
+            student.setDormBuilding(building.getBuildingName());
+            student.setRoomNumber(room.getRoomNumber());
+            student.setBedNumber(bed.getBedNumber());
+            updatedStudents.add(student);
+
+            CheckInOut record = new CheckInOut();
+            record.setStudentID(student.getStudentID());
+            record.setBedID(bed.getBedID());
+            record.setCheckInDate(today);
+            record.setStatus("CurrentlyLiving");
+            records.add(record);
+            occupancyLedger.record(OccupancyEvent.CHECK_IN, bed.getBedID(), room.getRoomID(), room.getBuildingID(),
+                    student.getStudentID());
+
+            occupied.add(bed.getBedID());
+        }
+
+        bedRepository.saveAll(beds.values());
+        roomRepository.saveAll(rooms.values());
+        studentRepository.saveAll(updatedStudents);
+        checkInOutRepository.saveAll(records);
+
+        result.checkedIn += occupied.size();
+        return occupied;
+    }
+}
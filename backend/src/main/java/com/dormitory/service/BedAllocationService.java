@@ -0,0 +1,433 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Computes bed assignments for a whole cohort of unassigned students.
+ *
+ * Constraints: one gender per room (rooms that already have occupants keep their gender),
+ * students of the same major/class are kept together, and only Available beds in the selected
+ * buildings are used. The plan is built in two phases:
+ * 1. Greedy: empty rooms are split between genders in contiguous runs, then each gender's
+ *    students, ordered by major/class, are poured into its beds room by room.
+ * 2. Local search: pairwise swaps between rooms of the same building and gender that reduce
+ *    the number of distinct classes/majors per room. Each (gender, building) cell is
+ *    independent, so cells are optimised in parallel on the common fork-join pool.
+ * The plan can be returned as a dry run or committed through {@link BatchCheckInService}.
+ */
+@Service
+public class BedAllocationService {
+
+    private static final String UNKNOWN = "Unknown";
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private BatchCheckInService batchCheckInService;
+
+    @Value("${app.allocation.local-search-iterations:20000}")
+    private int localSearchIterations;
+
+    /**
+     * Build an allocation plan and, unless dryRun, commit it
+     *
+     * @param enrollmentYear Only place students of this cohort (null = all unassigned students)
+     * @param buildingIDs Only use beds in these buildings (null/empty = all buildings)
+     */
+    public Map<String, Object> allocate(Integer enrollmentYear, Collection<Integer> buildingIDs,
+                                        boolean dryRun, String performedBy) {
+        long started = System.currentTimeMillis();
+        Plan plan = buildPlan(enrollmentYear, buildingIDs);
+        long planned = System.currentTimeMillis();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("dryRun", dryRun);
+        response.put("studentsConsidered", plan.studentsConsidered);
+        response.put("assigned", plan.assignments.size());
+        response.put("unassigned", plan.unassigned);
+        response.put("roomsUsed", plan.roomsUsed);
+        response.put("mixedRoomsAfterGreedy", plan.mixedRoomsGreedy);
+        response.put("mixedRoomsAfterLocalSearch", plan.mixedRoomsFinal);
+        response.put("planningMs", planned - started);
+
+        if (dryRun) {
+            response.put("assignments", plan.describe());
+            return response;
+        }
+
+        List<BatchCheckInService.Assignment> assignments = plan.assignments.stream()
+                .map(a -> new BatchCheckInService.Assignment(a.student.getStudentID(), a.bedID))
+                .collect(Collectors.toList());
+        BatchCheckInService.BatchResult result = batchCheckInService.checkIn(assignments, performedBy);
+        response.put("checkedIn", result.getCheckedIn());
+        response.put("skipped", result.getSkipped());
+        response.put("failedChunks", result.getFailedChunks());
+        response.put("commitMs", System.currentTimeMillis() - planned);
+        return response;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Planning
+    // ---------------------------------------------------------------------------------------
+
+    private Plan buildPlan(Integer enrollmentYear, Collection<Integer> buildingIDs) {
+        Set<Integer> buildingFilter = buildingIDs != null && !buildingIDs.isEmpty()
+                ? new HashSet<>(buildingIDs) : null;
+
+        Map<String, Student> allStudents = studentRepository.findAll().stream()
+                .collect(Collectors.toMap(Student::getStudentID, s -> s));
+        Map<Integer, DormBuilding> buildings = buildingRepository.findAll().stream()
+                .collect(Collectors.toMap(DormBuilding::getBuildingID, b -> b));
+
+        // Who already occupies or holds which bed
+        Map<Integer, String> bedHolder = new HashMap<>();
+        for (CheckInOut record : checkInOutRepository.findByStatus("CurrentlyLiving")) {
+            bedHolder.put(record.getBedID(), record.getStudentID());
+        }
+        for (RoomApplication application : roomApplicationRepository.findByStatus("Pending")) {
+            bedHolder.putIfAbsent(application.getBedID(), application.getStudentID());
+        }
+        Set<String> placed = new HashSet<>(bedHolder.values());
+
+        // Rooms with their free beds and existing occupants
+        Map<Integer, RoomSlot> slots = new HashMap<>();
+        for (Room room : roomRepository.findAll()) {
+            if (buildingFilter == null || buildingFilter.contains(room.getBuildingID())) {
+                slots.put(room.getRoomID(), new RoomSlot(room, buildings.get(room.getBuildingID())));
+            }
+        }
+        for (Bed bed : bedRepository.findAll()) {
+            RoomSlot slot = slots.get(bed.getRoomID());
+            if (slot == null) continue;
+            String holderID = bedHolder.get(bed.getBedID());
+            if ("Available".equalsIgnoreCase(bed.getStatus()) && holderID == null) {
+                slot.freeBeds.add(bed);
+            } else if (holderID != null) {
+                Student holder = allStudents.get(holderID);
+                if (holder != null) {
+                    slot.addOccupant(holder, false);
+                }
+            }
+        }
+
+        // Students to place
+        Plan plan = new Plan();
+        Map<String, List<Student>> byGender = new TreeMap<>();
+        for (Student s : allStudents.values()) {
+            if (placed.contains(s.getStudentID()) || s.getRoomNumber() != null) continue;
+            if (enrollmentYear != null && !enrollmentYear.equals(s.getEnrollmentYear())) continue;
+            plan.studentsConsidered++;
+            String gender = genderOf(s);
+            if (UNKNOWN.equals(gender)) {
+                plan.unassign(s, "Gender not recorded");
+                continue;
+            }
+            byGender.computeIfAbsent(gender, k -> new ArrayList<>()).add(s);
+        }
+
+        // Split rooms between genders
+        Map<String, List<RoomSlot>> roomsByGender = new HashMap<>();
+        List<RoomSlot> emptyRooms = new ArrayList<>();
+        for (RoomSlot slot : slots.values()) {
+            if (slot.freeBeds.isEmpty() || slot.mixedGender) continue;
+            if (slot.gender == null) {
+                emptyRooms.add(slot);
+            } else {
+                roomsByGender.computeIfAbsent(slot.gender, k -> new ArrayList<>()).add(slot);
+            }
+        }
+        emptyRooms.sort(RoomSlot.ORDER);
+
+        // Largest cohort first; each gender takes a contiguous run of empty rooms for its shortfall
+        List<String> genders = new ArrayList<>(byGender.keySet());
+        genders.sort(Comparator.comparingInt((String g) -> byGender.get(g).size()).reversed());
+        int cursor = 0;
+        for (String gender : genders) {
+            List<RoomSlot> rooms = roomsByGender.computeIfAbsent(gender, k -> new ArrayList<>());
+            int shortfall = byGender.get(gender).size() - rooms.stream().mapToInt(r -> r.freeBeds.size()).sum();
+            while (shortfall > 0 && cursor < emptyRooms.size()) {
+                RoomSlot slot = emptyRooms.get(cursor++);
+                slot.gender = gender;
+                rooms.add(slot);
+                shortfall -= slot.freeBeds.size();
+            }
+        }
+
+        // Greedy fill per gender
+        List<Cell> cells = new ArrayList<>();
+        for (String gender : genders) {
+            List<RoomSlot> rooms = roomsByGender.get(gender);
+            rooms.sort(RoomSlot.ORDER);
+            List<Student> leftovers = greedyFill(byGender.get(gender), rooms);
+            for (Student s : leftovers) {
+                plan.unassign(s, "No free bed for gender " + gender);
+            }
+            Map<Integer, Cell> gCells = new LinkedHashMap<>();
+            for (RoomSlot slot : rooms) {
+                if (!slot.placed.isEmpty()) {
+                    gCells.computeIfAbsent(slot.room.getBuildingID(), k -> new Cell()).rooms.add(slot);
+                }
+            }
+            cells.addAll(gCells.values());
+        }
+
+        plan.mixedRoomsGreedy = cells.stream().mapToInt(Cell::mixedRooms).sum();
+
+        // Local search, one independent cell per (gender, building)
+        cells.parallelStream().forEach(cell -> cell.improve(localSearchIterations));
+
+        for (Cell cell : cells) {
+            for (RoomSlot slot : cell.rooms) {
+                for (int i = 0; i < slot.placed.size(); i++) {
+                    plan.assignments.add(new Placement(slot.placed.get(i), slot.freeBeds.get(i).getBedID(), slot));
+                }
+            }
+            plan.roomsUsed += cell.rooms.size();
+            plan.mixedRoomsFinal += cell.mixedRooms();
+        }
+        return plan;
+    }
+
+    /**
+     * Pour students ordered by major/class into rooms. Rooms that already hold members of a group
+     * are filled with that group first.
+     *
+     * @return students that did not fit
+     */
+    private List<Student> greedyFill(List<Student> students, List<RoomSlot> rooms) {
+        Map<String, Deque<Student>> groups = new TreeMap<>();
+        students.sort(Comparator.comparing(BedAllocationService::groupKey).thenComparing(Student::getStudentID));
+        for (Student s : students) {
+            groups.computeIfAbsent(groupKey(s), k -> new ArrayDeque<>()).add(s);
+        }
+
+        // Top up partially occupied rooms with their occupants' group
+        for (RoomSlot slot : rooms) {
+            for (String key : new ArrayList<>(slot.classCounts.keySet())) {
+                Deque<Student> group = groups.get(key);
+                while (group != null && !group.isEmpty() && slot.hasRoom()) {
+                    slot.addOccupant(group.poll(), true);
+                }
+            }
+        }
+
+        // Largest groups first, room by room
+        List<Deque<Student>> ordered = new ArrayList<>(groups.values());
+        ordered.sort(Comparator.comparingInt((Deque<Student> g) -> g.size()).reversed());
+        Iterator<RoomSlot> roomIterator = rooms.iterator();
+        RoomSlot current = null;
+        List<Student> leftovers = new ArrayList<>();
+        for (Deque<Student> group : ordered) {
+            while (!group.isEmpty()) {
+                while ((current == null || !current.hasRoom()) && roomIterator.hasNext()) {
+                    current = roomIterator.next();
+                }
+                if (current == null || !current.hasRoom()) {
+                    leftovers.addAll(group);
+                    group.clear();
+                    break;
+                }
+                current.addOccupant(group.poll(), true);
+            }
+        }
+        return leftovers;
+    }
+
+    private static String genderOf(Student s) {
+        return s.getGender() == null || s.getGender().isBlank() ? UNKNOWN : s.getGender().trim();
+    }
+
+    private static String groupKey(Student s) {
+        return nullToEmpty(s.getMajor()) + "|" + nullToEmpty(s.getStudentClass());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Plan model
+    // ---------------------------------------------------------------------------------------
+
+    private static final class Plan {
+        final List<Placement> assignments = new ArrayList<>();
+        final List<Map<String, Object>> unassigned = new ArrayList<>();
+        int studentsConsidered;
+        int roomsUsed;
+        int mixedRoomsGreedy;
+        int mixedRoomsFinal;
+
+        void unassign(Student s, String reason) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("studentID", s.getStudentID());
+            item.put("reason", reason);
+            unassigned.add(item);
+        }
+
+        List<Map<String, Object>> describe() {
+            List<Map<String, Object>> rows = new ArrayList<>(assignments.size());
+            for (Placement p : assignments) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("studentID", p.student.getStudentID());
+                row.put("name", p.student.getName());
+                row.put("major", p.student.getMajor());
+                row.put("studentClass", p.student.getStudentClass());
+                row.put("bedID", p.bedID);
+                row.put("building", p.slot.building != null ? p.slot.building.getBuildingName() : null);
+                row.put("room", p.slot.room.getRoomNumber());
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    private static final class Placement {
+        final Student student;
+        final Integer bedID;
+        final RoomSlot slot;
+
+        Placement(Student student, Integer bedID, RoomSlot slot) {
+            this.student = student;
+            this.bedID = bedID;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * A room during planning: free beds, students placed by this plan, and group counts
+     * over both existing occupants and placed students
+     */
+    private static final class RoomSlot {
+        static final Comparator<RoomSlot> ORDER = Comparator
+                .comparing((RoomSlot r) -> r.room.getBuildingID(), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(r -> nullToEmpty(r.room.getRoomNumber()));
+
+        final Room room;
+        final DormBuilding building;
+        final List<Bed> freeBeds = new ArrayList<>();
+        final List<Student> placed = new ArrayList<>();
+        final Map<String, Integer> classCounts = new HashMap<>();
+        final Map<String, Integer> majorCounts = new HashMap<>();
+        String gender;
+        boolean mixedGender;
+
+        RoomSlot(Room room, DormBuilding building) {
+            this.room = room;
+            this.building = building;
+        }
+
+        boolean hasRoom() {
+            return placed.size() < freeBeds.size();
+        }
+
+        void addOccupant(Student s, boolean newlyPlaced) {
+            if (newlyPlaced) {
+                placed.add(s);
+            } else {
+                String g = genderOf(s);
+                if (gender == null) {
+                    gender = g;
+                } else if (!gender.equals(g)) {
+                    mixedGender = true;
+                }
+            }
+            classCounts.merge(groupKey(s), 1, Integer::sum);
+            majorCounts.merge(nullToEmpty(s.getMajor()), 1, Integer::sum);
+        }
+
+        void remove(Student s) {
+            classCounts.computeIfPresent(groupKey(s), (k, v) -> v > 1 ? v - 1 : null);
+            majorCounts.computeIfPresent(nullToEmpty(s.getMajor()), (k, v) -> v > 1 ? v - 1 : null);
+        }
+
+        void add(Student s) {
+            classCounts.merge(groupKey(s), 1, Integer::sum);
+            majorCounts.merge(nullToEmpty(s.getMajor()), 1, Integer::sum);
+        }
+
+        /**
+         * Extra classes plus extra majors in the room (0 when everyone shares both)
+         */
+        int cost() {
+            return Math.max(0, classCounts.size() - 1) + Math.max(0, majorCounts.size() - 1);
+        }
+    }
+
+    /**
+     * Rooms of one gender in one building; swaps never leave the cell
+     */
+    private static final class Cell {
+        final List<RoomSlot> rooms = new ArrayList<>();
+
+        int mixedRooms() {
+            int mixed = 0;
+            for (RoomSlot r : rooms) {
+                if (r.classCounts.size() > 1) mixed++;
+            }
+            return mixed;
+        }
+
+        void improve(int iterations) {
+            if (rooms.size() < 2) return;
+            Random random = new Random(rooms.get(0).room.getRoomID());
+            int stale = 0;
+            for (int i = 0; i < iterations && stale < iterations / 4 + 1; i++) {
+                RoomSlot a = rooms.get(random.nextInt(rooms.size()));
+                RoomSlot b = rooms.get(random.nextInt(rooms.size()));
+                if (a == b || a.cost() + b.cost() == 0) {
+                    stale++;
+                    continue;
+                }
+                int ia = random.nextInt(a.placed.size());
+                int ib = random.nextInt(b.placed.size());
+                Student sa = a.placed.get(ia);
+                Student sb = b.placed.get(ib);
+                if (groupKey(sa).equals(groupKey(sb))) {
+                    stale++;
+                    continue;
+                }
+
+                int before = a.cost() + b.cost();
+                swap(a, ia, sb, b, ib, sa);
+                if (a.cost() + b.cost() < before) {
+                    stale = 0;
+                } else {
+                    swap(a, ia, sa, b, ib, sb);
+                    stale++;
+                }
+            }
+        }
+
+        private static void swap(RoomSlot a, int ia, Student intoA, RoomSlot b, int ib, Student intoB) {
+            a.remove(a.placed.get(ia));
+            b.remove(b.placed.get(ib));
+            a.placed.set(ia, intoA);
+            b.placed.set(ib, intoB);
+            a.add(intoA);
+            b.add(intoB);
+        }
+    }
+}
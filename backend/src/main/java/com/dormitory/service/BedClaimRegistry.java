@@ -0,0 +1,113 @@
+package com.dormitory.service;
+
+import com.dormitory.util.AtomicBitSet;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process view of which beds are already claimed, plus the set of beds with a booking in flight.
+ *
+ * This is only a hint used to fail fast before opening a DB transaction; the bed row lock in
+ * RoomBookingService remains the source of truth. Claims are recorded only once the claiming
+ * transaction commits, and releases likewise, so a rolled-back booking never leaves a bit behind.
+ * Claims also age out: the bits live in two generations that rotate every app.booking.claim-ttl-ms,
+ * so a bed freed outside the application (SQL, triggers) is blocked for at most two periods.
+ */
+@Component
+public class BedClaimRegistry {
+
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile AtomicBitSet current = new AtomicBitSet();
+    private volatile AtomicBitSet previous = new AtomicBitSet();
+
+    /**
+     * Start a booking attempt for the bed
+     *
+     * @return false if another attempt for the same bed is still running
+     */
+    public boolean tryBegin(Integer bedID) {
+        return inFlight.add(bedID);
+    }
+
+    public void end(Integer bedID) {
+        inFlight.remove(bedID);
+    }
+
+    public boolean isClaimed(Integer bedID) {
+        return bedID != null && bedID >= 0 && (current.get(bedID) || previous.get(bedID));
+    }
+
+    public void markClaimed(Integer bedID) {
+        if (bedID != null && bedID >= 0) {
+            current.set(bedID);
+        }
+    }
+
+    /**
+     * Forget the claim on a bed that became Available again
+     */
+    public void release(Integer bedID) {
+        if (bedID != null && bedID >= 0) {
+            current.clear(bedID);
+            previous.clear(bedID);
+        }
+    }
+
+    /**
+     * Mark the bed claimed when the current transaction commits; clear it if the transaction rolls back
+     */
+    public void claimOnCommit(Integer bedID) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markClaimed(bedID);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    markClaimed(bedID);
+                } else {
+                    release(bedID);
+                }
+            }
+        });
+    }
+
+    /**
+     * Release the bed once the current transaction has committed (immediately outside a transaction)
+     */
+    public void releaseAfterCommit(Integer bedID) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(bedID);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(bedID);
+            }
+        });
+    }
+
+    /**
+     * Forget all claims (after a bulk resync of bed status)
+     */
+    public void releaseAll() {
+        current = new AtomicBitSet();
+        previous = new AtomicBitSet();
+    }
+
+    /**
+     * Age out claims: bits not set again within two periods are forgotten
+     */
+    @Scheduled(fixedDelayString = "${app.booking.claim-ttl-ms:60000}")
+    public synchronized void rotate() {
+        previous = current;
+        current = new AtomicBitSet();
+    }
+}
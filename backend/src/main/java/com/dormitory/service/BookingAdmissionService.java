@@ -0,0 +1,63 @@
+package com.dormitory.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fast-fail admission layer in front of {@link RoomBookingService#reserveBedForApplication}.
+ *
+ * When many students click the same bed at once, only one request per bed opens a DB transaction.
+ * The others are turned away at once with a 409, without waiting on any lock: BED_NOT_AVAILABLE
+ * once the bed is claimed, CONCURRENT_MODIFICATION while the winning booking is still running.
+ */
+@Service
+public class BookingAdmissionService {
+
+    @Autowired
+    private RoomBookingService roomBookingService;
+
+    @Autowired
+    private BedClaimRegistry bedClaimRegistry;
+
+    /**
+     * Reserve a bed for a student's application, rejecting losers without touching the database.
+     */
+    public RoomBookingService.BookingResult reserveBedForApplication(String studentID, Integer bedID) {
+        if (bedID == null) {
+            return RoomBookingService.BookingResult.failure("Bed not found", "BED_NOT_FOUND");
+        }
+        if (bedClaimRegistry.isClaimed(bedID)) {
+            return alreadyClaimed();
+        }
+
+        if (!bedClaimRegistry.tryBegin(bedID)) {
+            return RoomBookingService.BookingResult.failure(
+                "This bed is being booked by another student. Please try again.",
+                "CONCURRENT_MODIFICATION"
+            );
+        }
+
+        try {
+            // Re-check: a booking that just finished may have claimed the bed
+            if (bedClaimRegistry.isClaimed(bedID)) {
+                return alreadyClaimed();
+            }
+
+            // A successful reservation marks the bed claimed itself, once it commits
+            RoomBookingService.BookingResult result = roomBookingService.reserveBedForApplication(studentID, bedID);
+            if ("BED_NOT_AVAILABLE".equals(result.getErrorCode())) {
+                bedClaimRegistry.markClaimed(bedID);
+            }
+            return result;
+        } finally {
+            bedClaimRegistry.end(bedID);
+        }
+    }
+
+    private RoomBookingService.BookingResult alreadyClaimed() {
+        return RoomBookingService.BookingResult.failure(
+            "This bed is no longer available. Someone else may have just booked it.",
+            "BED_NOT_AVAILABLE"
+        );
+    }
+}
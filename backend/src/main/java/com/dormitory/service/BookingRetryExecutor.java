@@ -0,0 +1,112 @@
+package com.dormitory.service;
+
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLTransactionRollbackException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs a booking transaction with a bounded retry on deadlock or lock-wait timeout.
+ *
+ * Each retry waits with exponential backoff and full jitter so colliding transactions
+ * do not retry in lock-step. Only transient locking failures are retried; everything
+ * else is rethrown immediately.
+ */
+@Component
+public class BookingRetryExecutor {
+
+    @Value("${app.booking.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.booking.retry.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    @Value("${app.booking.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Execute the action (which must open its own transaction), retrying transient lock failures
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        OperationStats opStats = stats.computeIfAbsent(operation, k -> new OperationStats());
+        opStats.calls.incrementAndGet();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isTransientLockFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    opStats.exhausted.incrementAndGet();
+                    throw e;
+                }
+                opStats.retries.incrementAndGet();
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Whether the exception (or any cause) is a deadlock or lock-wait timeout
+     */
+    public static boolean isTransientLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PessimisticLockingFailureException
+                    || t instanceof QueryTimeoutException
+                    || t instanceof LockAcquisitionException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof SQLTransactionRollbackException) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    /**
+     * Per-operation counters: calls, retries and calls that failed after all attempts
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        stats.forEach((operation, s) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("calls", s.calls.get());
+            item.put("retries", s.retries.get());
+            item.put("exhausted", s.exhausted.get());
+            result.put(operation, item);
+        });
+        return result;
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+        long sleep = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class OperationStats {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong exhausted = new AtomicLong();
+    }
+}
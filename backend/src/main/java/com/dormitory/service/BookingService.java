@@ -1,6 +1,7 @@
 package com.dormitory.service;
 
 import com.dormitory.entity.CheckInOut;
+import com.dormitory.entity.OccupancyEvent;
 import com.dormitory.repository.BedRepository;
 import com.dormitory.repository.CheckInOutRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +19,9 @@ public class BookingService {
     @Autowired
     private CheckInOutRepository checkInOutRepository;
 
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
     @Transactional
     public boolean bookBed(String studentId, Integer bedId) {
         // 1. Atomic Update: Try to set Bed status to Occupied
@@ -38,6 +42,8 @@ public class BookingService {
         checkIn.setStatus("CurrentlyLiving");
         
         checkInOutRepository.save(checkIn);
+        bedRepository.findById(bedId).ifPresent(bed ->
+                occupancyLedger.record(OccupancyEvent.CHECK_IN, bed, studentId));
         
         return true;
     }
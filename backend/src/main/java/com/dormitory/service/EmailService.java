@@ -2,6 +2,8 @@ package com.dormitory.service;
 
 import com.dormitory.entity.RepairRequest;
 import com.dormitory.entity.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired(required = false)
     private JavaMailSender mailSender;
 
@@ -27,7 +31,7 @@ public class EmailService {
     @Async
     public void sendCheckInNotification(Student student, String building, String room, String bed) {
         if (!emailEnabled || student.getEmail() == null || student.getEmail().isBlank()) {
-            System.out.println("[Email] Check-in notification skipped (email disabled or no email): " + student.getStudentID());
+            log.debug("Check-in notification skipped (email disabled or no email): {}", student.getStudentID());
             return;
         }
 
@@ -53,9 +57,9 @@ public class EmailService {
                 """, student.getName(), building, room, bed));
 
             mailSender.send(message);
-            System.out.println("[Email] Check-in notification sent to: " + student.getEmail());
+            log.info("Check-in notification sent to {}", student.getEmail());
         } catch (Exception e) {
-            System.err.println("[Email] Failed to send check-in notification: " + e.getMessage());
+            log.warn("Failed to send check-in notification: {}", e.getMessage());
         }
     }
 
@@ -65,7 +69,7 @@ public class EmailService {
     @Async
     public void sendCheckOutNotification(Student student) {
         if (!emailEnabled || student.getEmail() == null || student.getEmail().isBlank()) {
-            System.out.println("[Email] Check-out notification skipped (email disabled or no email): " + student.getStudentID());
+            log.debug("Check-out notification skipped (email disabled or no email): {}", student.getStudentID());
             return;
         }
 
@@ -86,9 +90,9 @@ public class EmailService {
                 """, student.getName()));
 
             mailSender.send(message);
-            System.out.println("[Email] Check-out notification sent to: " + student.getEmail());
+            log.info("Check-out notification sent to {}", student.getEmail());
         } catch (Exception e) {
-            System.err.println("[Email] Failed to send check-out notification: " + e.getMessage());
+            log.warn("Failed to send check-out notification: {}", e.getMessage());
         }
     }
 
@@ -98,7 +102,7 @@ public class EmailService {
     @Async
     public void sendRepairRequestSubmitted(Student student, RepairRequest request) {
         if (!emailEnabled || student.getEmail() == null || student.getEmail().isBlank()) {
-            System.out.println("[Email] Repair submission notification skipped: " + student.getStudentID());
+            log.debug("Repair submission notification skipped: {}", student.getStudentID());
             return;
         }
 
@@ -124,9 +128,9 @@ public class EmailService {
                 """, student.getName(), request.getRepairID(), request.getDescription()));
 
             mailSender.send(message);
-            System.out.println("[Email] Repair request notification sent to: " + student.getEmail());
+            log.info("Repair request notification sent to {}", student.getEmail());
         } catch (Exception e) {
-            System.err.println("[Email] Failed to send repair request notification: " + e.getMessage());
+            log.warn("Failed to send repair request notification: {}", e.getMessage());
         }
     }
 
@@ -136,7 +140,7 @@ public class EmailService {
     @Async
     public void sendRepairStatusUpdate(Student student, RepairRequest request, String oldStatus, String newStatus) {
         if (!emailEnabled || student.getEmail() == null || student.getEmail().isBlank()) {
-            System.out.println("[Email] Repair status update notification skipped: " + student.getStudentID());
+            log.debug("Repair status update notification skipped: {}", student.getStudentID());
             return;
         }
 
@@ -170,9 +174,9 @@ public class EmailService {
             ));
 
             mailSender.send(message);
-            System.out.println("[Email] Repair status update sent to: " + student.getEmail());
+            log.info("Repair status update sent to {}", student.getEmail());
         } catch (Exception e) {
-            System.err.println("[Email] Failed to send repair status update: " + e.getMessage());
+            log.warn("Failed to send repair status update: {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,729 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar cube over beds and students for ad-hoc pivots.
+ *
+ * There is one row per bed (with the attributes of its current occupant, if any) and one row per
+ * student without a bed. Every dimension is a dictionary-encoded int column, so a group-by is a tight
+ * loop over primitive arrays that computes a mixed-radix cell index and bumps counters; large cubes are
+ * scanned in parallel slices. Queries never touch MySQL.
+ *
+ * Snapshots are immutable and swapped atomically. Writes to Student, Bed and CheckInOut are collected by
+ * {@link OccupancyCubeListener} and patched into a copy of the affected rows on a short schedule; new
+ * beds, renamed or moved rooms and renamed buildings trigger a full rebuild.
+ */
+@Service
+public class OccupancyCube {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyCube.class);
+
+    public static final List<String> DIMENSIONS = List.of(
+            "building", "room", "bedStatus", "gender", "major", "enrollmentYear", "studentClass");
+
+    private static final int BUILDING = 0, ROOM = 1, BED_STATUS = 2, GENDER = 3, MAJOR = 4, YEAR = 5, CLASS = 6;
+
+    static final String UNASSIGNED = "Unassigned";
+    static final String VACANT = "-";
+
+    /** Row flag bits */
+    private static final byte LIVE = 1, IS_BED = 2, HAS_STUDENT = 4;
+
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int DENSE_CELL_LIMIT = 1 << 16;
+    /** Above this many changed rows a full rebuild is cheaper than patching (and keeps IN lists bounded) */
+    private static final int PATCH_LIMIT = 1_000;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    private final Dictionary[] dictionaries = new Dictionary[DIMENSIONS.size()];
+
+    private volatile Snapshot snapshot;
+
+    private final Set<Integer> dirtyBeds = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyStudents = ConcurrentHashMap.newKeySet();
+    private volatile boolean structureDirty;
+
+    public OccupancyCube() {
+        for (int d = 0; d < dictionaries.length; d++) {
+            dictionaries[d] = new Dictionary();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Storage
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Append-only string dictionary shared by all snapshots of one dimension
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = new String[16];
+        private volatile int size;
+
+        synchronized int encode(String value) {
+            String key = value == null || value.isBlank() ? "Unknown" : value;
+            Integer code = codes.get(key);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = key;
+            codes.put(key, size);
+            return size++;
+        }
+
+        synchronized Integer lookup(String value) {
+            return codes.get(value);
+        }
+
+        String decode(int code) {
+            return values[code];
+        }
+    }
+
+    /**
+     * One immutable version of the cube: parallel primitive columns plus row indexes
+     */
+    private static final class Snapshot {
+        final int rows;
+        final int[][] columns;
+        final byte[] flags;
+        final Map<Integer, Integer> rowByBed;
+        final Map<String, Integer> rowByUnhousedStudent;
+        final Map<Integer, String> occupantByBed;
+        final Map<Integer, Integer> roomByBed;
+        /** What the BUILDING and ROOM columns were built from, to tell label edits from other room writes */
+        final Map<Integer, RoomLabel> roomLabels;
+        final Map<Integer, String> buildingNames;
+        final long version;
+        final LocalDateTime builtAt = LocalDateTime.now();
+
+        Snapshot(int rows, int[][] columns, byte[] flags, Map<Integer, Integer> rowByBed,
+                 Map<String, Integer> rowByUnhousedStudent, Map<Integer, String> occupantByBed,
+                 Map<Integer, Integer> roomByBed, Map<Integer, RoomLabel> roomLabels,
+                 Map<Integer, String> buildingNames, long version) {
+            this.rows = rows;
+            this.columns = columns;
+            this.flags = flags;
+            this.rowByBed = rowByBed;
+            this.rowByUnhousedStudent = rowByUnhousedStudent;
+            this.occupantByBed = occupantByBed;
+            this.roomByBed = roomByBed;
+            this.roomLabels = roomLabels;
+            this.buildingNames = buildingNames;
+            this.version = version;
+        }
+    }
+
+    private record RoomLabel(Integer buildingID, String roomNumber) {
+    }
+
+    /**
+     * Mutable copy of a snapshot used while building or patching
+     */
+    private final class Builder {
+        int rows;
+        int[][] columns;
+        byte[] flags;
+        final Map<Integer, Integer> rowByBed;
+        final Map<String, Integer> rowByUnhousedStudent;
+        final Map<Integer, String> occupantByBed;
+        final Map<Integer, Integer> roomByBed;
+        Map<Integer, RoomLabel> roomLabels = Map.of();
+        Map<Integer, String> buildingNames = Map.of();
+
+        Builder(int capacity) {
+            columns = new int[DIMENSIONS.size()][capacity];
+            flags = new byte[capacity];
+            rowByBed = new HashMap<>();
+            rowByUnhousedStudent = new HashMap<>();
+            occupantByBed = new HashMap<>();
+            roomByBed = new HashMap<>();
+        }
+
+        Builder(Snapshot from, int extra) {
+            rows = from.rows;
+            int capacity = from.rows + extra;
+            columns = new int[DIMENSIONS.size()][];
+            for (int d = 0; d < columns.length; d++) {
+                columns[d] = Arrays.copyOf(from.columns[d], capacity);
+            }
+            flags = Arrays.copyOf(from.flags, capacity);
+            rowByBed = new HashMap<>(from.rowByBed);
+            rowByUnhousedStudent = new HashMap<>(from.rowByUnhousedStudent);
+            occupantByBed = new HashMap<>(from.occupantByBed);
+            roomByBed = new HashMap<>(from.roomByBed);
+            roomLabels = from.roomLabels; // patches never touch rooms or buildings
+            buildingNames = from.buildingNames;
+        }
+
+        int append() {
+            if (rows == flags.length) {
+                int capacity = Math.max(16, rows * 2);
+                for (int d = 0; d < columns.length; d++) {
+                    columns[d] = Arrays.copyOf(columns[d], capacity);
+                }
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            return rows++;
+        }
+
+        void setStudent(int row, Student student) {
+            columns[GENDER][row] = dictionaries[GENDER].encode(student != null ? student.getGender() : VACANT);
+            columns[MAJOR][row] = dictionaries[MAJOR].encode(student != null ? student.getMajor() : VACANT);
+            columns[YEAR][row] = dictionaries[YEAR].encode(student == null ? VACANT
+                    : student.getEnrollmentYear() != null ? String.valueOf(student.getEnrollmentYear()) : null);
+            columns[CLASS][row] = dictionaries[CLASS].encode(student != null ? student.getStudentClass() : VACANT);
+            flags[row] = (byte) (student != null ? flags[row] | HAS_STUDENT : flags[row] & ~HAS_STUDENT);
+        }
+
+        void addUnhoused(Student student) {
+            Integer row = rowByUnhousedStudent.get(student.getStudentID());
+            if (row == null) {
+                row = append();
+                rowByUnhousedStudent.put(student.getStudentID(), row);
+            }
+            columns[BUILDING][row] = dictionaries[BUILDING].encode(UNASSIGNED);
+            columns[ROOM][row] = dictionaries[ROOM].encode(UNASSIGNED);
+            columns[BED_STATUS][row] = dictionaries[BED_STATUS].encode(UNASSIGNED);
+            flags[row] = LIVE;
+            setStudent(row, student);
+        }
+
+        void removeUnhoused(String studentID) {
+            Integer row = rowByUnhousedStudent.remove(studentID);
+            if (row != null) {
+                flags[row] = 0; // tombstone, dropped on the next full rebuild
+            }
+        }
+
+        Snapshot freeze(long version) {
+            return new Snapshot(rows, columns, flags, rowByBed, rowByUnhousedStudent, occupantByBed, roomByBed,
+                    roomLabels, buildingNames, version);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Building and incremental refresh
+    // ---------------------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the whole cube from the tables
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        structureDirty = false;
+        dirtyBeds.clear();
+        dirtyStudents.clear();
+
+        Map<Integer, DormBuilding> buildings = buildingRepository.findAll().stream()
+                .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+        Map<Integer, Room> rooms = roomRepository.findAll().stream()
+                .collect(Collectors.toMap(Room::getRoomID, Function.identity()));
+        List<Bed> beds = bedRepository.findAll();
+        Map<String, Student> students = studentRepository.findAll().stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+        Map<Integer, String> occupantByBed = new HashMap<>();
+        for (CheckInOut record : checkInOutRepository.findByStatus("CurrentlyLiving")) {
+            occupantByBed.put(record.getBedID(), record.getStudentID());
+        }
+
+        Builder b = new Builder(beds.size() + students.size());
+        Set<String> housed = new HashSet<>();
+        for (Bed bed : beds) {
+            Room room = rooms.get(bed.getRoomID());
+            DormBuilding building = room != null ? buildings.get(room.getBuildingID()) : null;
+            String occupant = occupantByBed.get(bed.getBedID());
+            Student student = occupant != null ? students.get(occupant) : null;
+            if (student != null) {
+                housed.add(occupant);
+                b.occupantByBed.put(bed.getBedID(), occupant);
+            }
+            int row = b.append();
+            b.rowByBed.put(bed.getBedID(), row);
+            b.roomByBed.put(bed.getBedID(), bed.getRoomID());
+            writeBed(b, row, bed, room, building, student);
+        }
+        for (Student student : students.values()) {
+            if (!housed.contains(student.getStudentID())) {
+                b.addUnhoused(student);
+            }
+        }
+        b.roomLabels = rooms.values().stream()
+                .collect(Collectors.toMap(Room::getRoomID, r -> new RoomLabel(r.getBuildingID(), r.getRoomNumber())));
+        b.buildingNames = new HashMap<>();
+        buildings.values().forEach(building -> b.buildingNames.put(building.getBuildingID(), building.getBuildingName()));
+
+        Snapshot previous = snapshot;
+        snapshot = b.freeze(previous != null ? previous.version + 1 : 1);
+        log.info("Built {} rows in {}ms", b.rows, System.currentTimeMillis() - start);
+    }
+
+    private void writeBed(Builder b, int row, Bed bed, Room room, DormBuilding building, Student occupant) {
+        b.columns[BUILDING][row] = dictionaries[BUILDING].encode(building != null ? building.getBuildingName() : null);
+        b.columns[ROOM][row] = dictionaries[ROOM].encode(room != null ? room.getRoomNumber() : null);
+        b.columns[BED_STATUS][row] = dictionaries[BED_STATUS].encode(bed.getStatus());
+        b.flags[row] = LIVE | IS_BED;
+        b.setStudent(row, occupant);
+    }
+
+    /**
+     * Queue changed rows; called after the writing transaction commits
+     */
+    void bedChanged(Integer bedID) {
+        if (bedID != null) dirtyBeds.add(bedID);
+    }
+
+    void studentChanged(String studentID) {
+        if (studentID != null) dirtyStudents.add(studentID);
+    }
+
+    void structureChanged() {
+        structureDirty = true;
+    }
+
+    /**
+     * Patch the rows touched since the last run into a new snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.stats.cube.refresh-interval-ms:5000}")
+    public synchronized void applyChanges() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        if (structureDirty) {
+            rebuild();
+            return;
+        }
+        if (dirtyBeds.isEmpty() && dirtyStudents.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> bedIDs = drain(dirtyBeds);
+        Set<String> studentIDs = drain(dirtyStudents);
+        if (bedIDs.size() + studentIDs.size() > PATCH_LIMIT) {
+            rebuild(); // bulk import or allocation
+            return;
+        }
+
+        List<Bed> beds = bedRepository.findAllById(bedIDs);
+        for (Bed bed : beds) {
+            if (!current.rowByBed.containsKey(bed.getBedID())
+                    || !Objects.equals(current.roomByBed.get(bed.getBedID()), bed.getRoomID())) {
+                rebuild(); // new or moved bed
+                return;
+            }
+        }
+
+        // Everyone whose row may move: occupants before and after, plus edited students
+        Map<Integer, String> newOccupants = new HashMap<>();
+        for (CheckInOut record : checkInOutRepository.findByStatusAndBedIDIn("CurrentlyLiving", bedIDs)) {
+            newOccupants.put(record.getBedID(), record.getStudentID());
+        }
+        Set<String> touched = new HashSet<>(studentIDs);
+        for (Integer bedID : bedIDs) {
+            Optional.ofNullable(current.occupantByBed.get(bedID)).ifPresent(touched::add);
+        }
+        touched.addAll(newOccupants.values());
+
+        Map<String, Integer> liveBedByStudent = new HashMap<>();
+        if (!touched.isEmpty()) {
+            for (CheckInOut record : checkInOutRepository.findByStatusAndStudentIDIn("CurrentlyLiving", touched)) {
+                liveBedByStudent.put(record.getStudentID(), record.getBedID());
+            }
+        }
+        Map<String, Student> students = studentRepository.findAllById(touched).stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+
+        Builder b = new Builder(current, touched.size());
+        Map<Integer, Bed> bedsByID = beds.stream().collect(Collectors.toMap(Bed::getBedID, Function.identity()));
+        for (Integer bedID : bedIDs) {
+            Integer row = b.rowByBed.get(bedID);
+            Bed bed = bedsByID.get(bedID);
+            if (row == null) continue;
+            if (bed == null) {
+                b.flags[row] = 0; // deleted bed
+                b.rowByBed.remove(bedID);
+                b.occupantByBed.remove(bedID);
+                b.roomByBed.remove(bedID);
+                continue;
+            }
+            b.columns[BED_STATUS][row] = dictionaries[BED_STATUS].encode(bed.getStatus());
+        }
+        for (String studentID : touched) {
+            Student student = students.get(studentID);
+            Integer liveBed = liveBedByStudent.get(studentID);
+            // Clear the student from a bed they no longer hold
+            b.occupantByBed.entrySet().removeIf(e -> {
+                if (e.getValue().equals(studentID) && !e.getKey().equals(liveBed)) {
+                    b.setStudent(b.rowByBed.get(e.getKey()), null);
+                    return true;
+                }
+                return false;
+            });
+            if (student == null) {
+                b.removeUnhoused(studentID);
+                continue;
+            }
+            Integer bedRow = liveBed != null ? b.rowByBed.get(liveBed) : null;
+            if (bedRow != null) {
+                b.removeUnhoused(studentID);
+                b.occupantByBed.put(liveBed, studentID);
+                b.setStudent(bedRow, student);
+            } else {
+                b.addUnhoused(student);
+            }
+        }
+
+        snapshot = b.freeze(current.version + 1);
+    }
+
+    private static <T> Set<T> drain(Set<T> source) {
+        Set<T> drained = new HashSet<>();
+        for (T id : source) {
+            if (source.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    @Scheduled(cron = "${app.stats.cube.full-rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild(); // compacts tombstoned rows
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Query
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Group-by over the current snapshot.
+     *
+     * @param groupBy dimensions to group by (may be empty for a grand total)
+     * @param filters dimension -> accepted values; rows must match every dimension
+     */
+    public Map<String, Object> query(List<String> groupBy, Map<String, Set<String>> filters) {
+        long start = System.nanoTime();
+        Snapshot s = snapshot;
+        if (s == null) {
+            throw new IllegalStateException("Cube is not built yet");
+        }
+
+        int[] dims = new int[groupBy.size()];
+        int[] radix = new int[groupBy.size()];
+        long cells = 1;
+        for (int i = 0; i < dims.length; i++) {
+            dims[i] = dimension(groupBy.get(i));
+            radix[i] = dictionaries[dims[i]].size;
+            cells *= Math.max(1, radix[i]);
+        }
+
+        // Filters become per-dimension boolean masks over dictionary codes
+        int[] filterDims = new int[filters.size()];
+        boolean[][] masks = new boolean[filters.size()][];
+        int f = 0;
+        for (Map.Entry<String, Set<String>> e : filters.entrySet()) {
+            int d = dimension(e.getKey());
+            boolean[] mask = new boolean[dictionaries[d].size];
+            for (String value : e.getValue()) {
+                Integer code = dictionaries[d].lookup(value);
+                if (code != null && code < mask.length) mask[code] = true;
+            }
+            filterDims[f] = d;
+            masks[f++] = mask;
+        }
+
+        Map<Long, long[]> counters;
+        if (cells <= DENSE_CELL_LIMIT) {
+            long[] dense = scanDense(s, dims, radix, (int) cells, filterDims, masks);
+            counters = new HashMap<>();
+            for (int cell = 0; cell < cells; cell++) {
+                if (dense[cell * MEASURES] > 0) {
+                    counters.put((long) cell, Arrays.copyOfRange(dense, cell * MEASURES, (cell + 1) * MEASURES));
+                }
+            }
+        } else {
+            counters = scanSparse(s, dims, radix, filterDims, masks);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(counters.size());
+        for (Map.Entry<Long, long[]> e : counters.entrySet()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            long cell = e.getKey();
+            for (int i = dims.length - 1; i >= 0; i--) {
+                int code = (int) (cell % radix[i]);
+                cell /= radix[i];
+                row.put(groupBy.get(i), dictionaries[dims[i]].decode(code));
+            }
+            long[] m = e.getValue();
+            row.put("rows", m[0]);
+            row.put("beds", m[1]);
+            row.put("occupied", m[2]);
+            row.put("reserved", m[3]);
+            row.put("available", m[4]);
+            row.put("students", m[5]);
+            row.put("rate", m[1] > 0 ? Math.round(m[2] * 10000.0 / m[1]) / 100.0 : 0.0);
+            rows.add(row);
+        }
+        rows.sort((a, b) -> {
+            for (String dim : groupBy) {
+                int c = String.valueOf(a.get(dim)).compareTo(String.valueOf(b.get(dim)));
+                if (c != 0) return c;
+            }
+            return 0;
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupBy", groupBy);
+        result.put("filter", filters);
+        result.put("cells", rows);
+        result.put("snapshotVersion", s.version);
+        result.put("builtAt", s.builtAt);
+        result.put("scannedRows", s.rows);
+        result.put("elapsedMicros", (System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    /** rows, beds, occupied, reserved, available, students */
+    private static final int MEASURES = 6;
+
+    private long[] scanDense(Snapshot s, int[] dims, int[] radix, int cells, int[] filterDims, boolean[][] masks) {
+        int occupied = codeOf(BED_STATUS, "Occupied");
+        int reserved = codeOf(BED_STATUS, "Reserved");
+        int available = codeOf(BED_STATUS, "Available");
+
+        if (s.rows < PARALLEL_THRESHOLD) {
+            long[] acc = new long[cells * MEASURES];
+            scanRange(s, 0, s.rows, dims, radix, filterDims, masks, occupied, reserved, available, acc);
+            return acc;
+        }
+        int slices = Runtime.getRuntime().availableProcessors();
+        int sliceSize = (s.rows + slices - 1) / slices;
+        return IntStream.range(0, slices).parallel()
+                .mapToObj(i -> {
+                    long[] acc = new long[cells * MEASURES];
+                    scanRange(s, i * sliceSize, Math.min(s.rows, (i + 1) * sliceSize), dims, radix,
+                            filterDims, masks, occupied, reserved, available, acc);
+                    return acc;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                    return a;
+                })
+                .orElseGet(() -> new long[cells * MEASURES]);
+    }
+
+    /**
+     * Inner loop: only int array reads and adds, no objects or boxing
+     */
+    private static void scanRange(Snapshot s, int from, int to, int[] dims, int[] radix, int[] filterDims,
+                                  boolean[][] masks, int occupied, int reserved, int available, long[] acc) {
+        int[] status = s.columns[BED_STATUS];
+        byte[] flags = s.flags;
+        rows:
+        for (int r = from; r < to; r++) {
+            byte flag = flags[r];
+            if ((flag & LIVE) == 0) continue;
+            for (int f = 0; f < filterDims.length; f++) {
+                int code = s.columns[filterDims[f]][r];
+                if (code >= masks[f].length || !masks[f][code]) continue rows;
+            }
+            int cell = 0;
+            for (int i = 0; i < dims.length; i++) {
+                cell = cell * radix[i] + s.columns[dims[i]][r];
+            }
+            int base = cell * MEASURES;
+            acc[base]++;
+            if ((flag & IS_BED) != 0) {
+                acc[base + 1]++;
+                int st = status[r];
+                if (st == occupied) acc[base + 2]++;
+                else if (st == reserved) acc[base + 3]++;
+                else if (st == available) acc[base + 4]++;
+            }
+            if ((flag & HAS_STUDENT) != 0) acc[base + 5]++;
+        }
+    }
+
+    private Map<Long, long[]> scanSparse(Snapshot s, int[] dims, int[] radix, int[] filterDims, boolean[][] masks) {
+        int occupied = codeOf(BED_STATUS, "Occupied");
+        int reserved = codeOf(BED_STATUS, "Reserved");
+        int available = codeOf(BED_STATUS, "Available");
+        Map<Long, long[]> counters = new HashMap<>();
+        rows:
+        for (int r = 0; r < s.rows; r++) {
+            byte flag = s.flags[r];
+            if ((flag & LIVE) == 0) continue;
+            for (int f = 0; f < filterDims.length; f++) {
+                int code = s.columns[filterDims[f]][r];
+                if (code >= masks[f].length || !masks[f][code]) continue rows;
+            }
+            long cell = 0;
+            for (int i = 0; i < dims.length; i++) {
+                cell = cell * radix[i] + s.columns[dims[i]][r];
+            }
+            long[] m = counters.computeIfAbsent(cell, k -> new long[MEASURES]);
+            m[0]++;
+            if ((flag & IS_BED) != 0) {
+                m[1]++;
+                int st = s.columns[BED_STATUS][r];
+                if (st == occupied) m[2]++;
+                else if (st == reserved) m[3]++;
+                else if (st == available) m[4]++;
+            }
+            if ((flag & HAS_STUDENT) != 0) m[5]++;
+        }
+        return counters;
+    }
+
+    private int codeOf(int dimension, String value) {
+        Integer code = dictionaries[dimension].lookup(value);
+        return code != null ? code : -1;
+    }
+
+    private static int dimension(String name) {
+        int d = DIMENSIONS.indexOf(name);
+        if (d < 0) {
+            throw new IllegalArgumentException("Unknown dimension: " + name + " (expected one of " + DIMENSIONS + ")");
+        }
+        return d;
+    }
+
+    /**
+     * Dimensions with their current values, for building pivot UIs
+     */
+    public Map<String, Object> describe() {
+        Snapshot s = snapshot;
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        for (int d = 0; d < DIMENSIONS.size(); d++) {
+            Dictionary dict = dictionaries[d];
+            int size = dict.size;
+            List<String> list = new ArrayList<>(size);
+            for (int code = 0; code < size; code++) list.add(dict.decode(code));
+            Collections.sort(list);
+            values.put(DIMENSIONS.get(d), list);
+        }
+        result.put("dimensions", values);
+        result.put("measures", List.of("rows", "beds", "occupied", "reserved", "available", "students", "rate"));
+        result.put("rows", s != null ? s.rows : 0);
+        result.put("snapshotVersion", s != null ? s.version : 0);
+        result.put("builtAt", s != null ? s.builtAt : null);
+        return result;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Change capture (per transaction, applied after commit)
+    // ---------------------------------------------------------------------------------------
+
+    private static final class PendingChanges {
+        final Set<Integer> beds = new HashSet<>();
+        final Set<String> students = new HashSet<>();
+        boolean structure;
+    }
+
+    private void capture(Consumer<PendingChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges now = new PendingChanges();
+            change.accept(now);
+            publish(now);
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OccupancyCube.this);
+                    if (status == STATUS_COMMITTED) {
+                        publish(created);
+                    }
+                }
+            });
+            pending = created;
+        }
+        change.accept(pending);
+    }
+
+    private void publish(PendingChanges changes) {
+        changes.beds.forEach(this::bedChanged);
+        changes.students.forEach(this::studentChanged);
+        if (changes.structure) structureChanged();
+    }
+
+    void captureBed(Integer bedID) {
+        if (bedID != null) capture(p -> p.beds.add(bedID));
+    }
+
+    void captureStudent(String studentID) {
+        if (studentID != null) capture(p -> p.students.add(studentID));
+    }
+
+    void captureStructure() {
+        capture(p -> p.structure = true);
+    }
+
+    /**
+     * A room write only changes the cube if it renames or moves a room the snapshot already shows;
+     * occupancy counter updates (every booking) and rooms without beds yet are ignored
+     */
+    void captureRoom(Room room) {
+        Snapshot current = snapshot;
+        RoomLabel label = current != null ? current.roomLabels.get(room.getRoomID()) : null;
+        if (label != null && !label.equals(new RoomLabel(room.getBuildingID(), room.getRoomNumber()))) {
+            captureStructure();
+        }
+    }
+
+    void captureBuilding(DormBuilding building) {
+        Snapshot current = snapshot;
+        if (current != null && current.buildingNames.containsKey(building.getBuildingID())
+                && !Objects.equals(current.buildingNames.get(building.getBuildingID()), building.getBuildingName())) {
+            captureStructure();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.CheckInOut;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.entity.Student;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that feeds writes to the entities behind {@link OccupancyCube} into its
+ * incremental refresh (after the writing transaction commits).
+ */
+@Component
+public class OccupancyCubeListener {
+
+    @Autowired
+    @Lazy
+    private OccupancyCube occupancyCube;
+
+    @PostPersist
+    @PostUpdate
+    public void changed(Object entity) {
+        if (entity instanceof Room room) {
+            occupancyCube.captureRoom(room);
+        } else if (entity instanceof DormBuilding building) {
+            occupancyCube.captureBuilding(building);
+        } else {
+            captureRows(entity);
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Room || entity instanceof DormBuilding) {
+            occupancyCube.captureStructure();
+        } else {
+            captureRows(entity);
+        }
+    }
+
+    private void captureRows(Object entity) {
+        if (entity instanceof Bed bed) {
+            occupancyCube.captureBed(bed.getBedID());
+        } else if (entity instanceof CheckInOut record) {
+            occupancyCube.captureBed(record.getBedID());
+            occupancyCube.captureStudent(record.getStudentID());
+        } else if (entity instanceof Student student) {
+            occupancyCube.captureStudent(student.getStudentID());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.dormitory.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rooms and beds touched since the last consistency check.
+ * Fed by the occupancy ledger and by room/bed edits; drained by {@link OccupancyReconciler}.
+ */
+@Component
+public class OccupancyDirtyTracker {
+
+    private final Set<Integer> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyBeds = ConcurrentHashMap.newKeySet();
+
+    public void markRoom(Integer roomID) {
+        if (roomID != null) {
+            dirtyRooms.add(roomID);
+        }
+    }
+
+    public void markBed(Integer bedID) {
+        if (bedID != null) {
+            dirtyBeds.add(bedID);
+        }
+    }
+
+    /**
+     * Remove and return all dirty room IDs
+     */
+    public Set<Integer> drainRooms() {
+        return drain(dirtyRooms);
+    }
+
+    /**
+     * Remove and return all dirty bed IDs
+     */
+    public Set<Integer> drainBeds() {
+        return drain(dirtyBeds);
+    }
+
+    public int pendingRooms() {
+        return dirtyRooms.size();
+    }
+
+    public int pendingBeds() {
+        return dirtyBeds.size();
+    }
+
+    private static Set<Integer> drain(Set<Integer> source) {
+        Set<Integer> drained = new HashSet<>();
+        for (Integer id : source) {
+            if (source.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,439 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only occupancy event log plus projections built from it.
+ *
+ * Every reserve/release/check-in/check-out writes an {@link OccupancyEvent} in the same transaction
+ * as the state change. A snapshot of all held beds is taken periodically; the live projection is
+ * the latest snapshot plus the events after its watermark, and point-in-time questions
+ * ("occupancy of building X on date D") load the snapshot before D and replay only that building's
+ * events up to D. Derived state such as Room.currentOccupancy can be rebuilt from the projection
+ * without scanning Bed, CheckInOut and room_application.
+ *
+ * A snapshot's watermark lags its creation time by app.occupancy.snapshot-settle-seconds so that
+ * events from transactions still in flight are not skipped by the next replay. Events committed while
+ * the live projection is being reloaded are buffered and applied once the new projection is in place.
+ */
+@Service
+public class OccupancyLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyLedger.class);
+
+    @Autowired
+    private OccupancyEventRepository eventRepository;
+
+    @Autowired
+    private OccupancySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private OccupancyDirtyTracker dirtyTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.occupancy.snapshot-settle-seconds:60}")
+    private long settleSeconds;
+
+    private static final int ROOM_PAGE_SIZE = 500;
+
+    private volatile Map<Integer, BedState> live = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Guards live updates against the projection swap; reloadBuffer is non-null while a reload runs
+    private final Object liveLock = new Object();
+    private List<OccupancyEvent> reloadBuffer;
+
+    /**
+     * Occupancy of one bed in a projection; Available beds are simply absent
+     */
+    public static final class BedState {
+        final Integer roomID;
+        final Integer buildingID;
+        final char state; // O = occupied, R = reserved
+        final String studentID;
+
+        BedState(Integer roomID, Integer buildingID, char state, String studentID) {
+            this.roomID = roomID;
+            this.buildingID = buildingID;
+            this.state = state;
+            this.studentID = studentID;
+        }
+
+        public boolean isOccupied() {
+            return state == 'O';
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Writing
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Record an occupancy change for a bed; call inside the transaction that changes the bed
+     */
+    public void record(String eventType, Bed bed, String studentID) {
+        Room room = bed.getRoomID() != null ? roomRepository.findById(bed.getRoomID()).orElse(null) : null;
+        record(eventType, bed.getBedID(), bed.getRoomID(), room != null ? room.getBuildingID() : null, studentID);
+    }
+
+    /**
+     * Record an occupancy change when room and building are already known
+     */
+    public void record(String eventType, Integer bedID, Integer roomID, Integer buildingID, String studentID) {
+        OccupancyEvent event = new OccupancyEvent(eventType, bedID, roomID, buildingID, studentID);
+        eventRepository.save(event);
+        dirtyTracker.markRoom(roomID);
+        dirtyTracker.markBed(bedID);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLive(event);
+                }
+            });
+        } else {
+            applyLive(event);
+        }
+    }
+
+    private void applyLive(OccupancyEvent event) {
+        synchronized (liveLock) {
+            if (reloadBuffer != null) {
+                reloadBuffer.add(event);
+            } else if (loaded) {
+                apply(live, event);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Live projection
+    // ---------------------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureLoaded();
+    }
+
+    /**
+     * Rebuild the live projection from the latest snapshot plus later events
+     */
+    public synchronized int reload() {
+        synchronized (liveLock) {
+            loaded = false;
+            reloadBuffer = new ArrayList<>();
+        }
+        try {
+            Map<Integer, BedState> state = new ConcurrentHashMap<>();
+            OccupancySnapshot snapshot = snapshotRepository.findTopByOrderByWatermarkDesc().orElse(null);
+            if (snapshot == null) {
+                snapshot = takeGenesisSnapshot();
+            }
+            decode(snapshot.getPayload(), state, null);
+            int replayed = replay(state, null, snapshot.getWatermark(), LocalDateTime.now().plusDays(1));
+
+            int buffered;
+            synchronized (liveLock) {
+                // Some of these may already be in the replay; every event sets its bed's whole state,
+                // so applying them again in commit order leaves each bed at its latest event
+                buffered = reloadBuffer.size();
+                reloadBuffer.forEach(event -> apply(state, event));
+                live = state;
+                loaded = true;
+            }
+            log.info("Loaded snapshot {} + {} events ({} committed during the reload), {} beds held",
+                    snapshot.getWatermark(), replayed, buffered, state.size());
+            return replayed;
+        } finally {
+            synchronized (liveLock) {
+                reloadBuffer = null;
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Current occupied/reserved counts for a building (or all buildings)
+     */
+    public Map<String, Object> currentOccupancy(Integer buildingID) {
+        ensureLoaded();
+        return summarize(live, buildingID);
+    }
+
+    /**
+     * Occupied beds per room according to the live projection
+     */
+    public Map<Integer, Integer> occupiedByRoom() {
+        ensureLoaded();
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (BedState s : live.values()) {
+            if (s.isOccupied() && s.roomID != null) {
+                counts.merge(s.roomID, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Rebuild Room.currentOccupancy from the ledger, touching only rooms whose count differs.
+     * Rooms are read in pages of ROOM_PAGE_SIZE, one transaction per page.
+     *
+     * @return number of rooms updated
+     */
+    public int rebuildRoomOccupancy() {
+        reload();
+        Map<Integer, Integer> counts = occupiedByRoom();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        Integer after = Integer.MIN_VALUE;
+        while (after != null) {
+            Integer from = after;
+            RoomPage page = tx.execute(status -> {
+                List<Room> rooms = roomRepository.findByRoomIDGreaterThanOrderByRoomIDAsc(from, PageRequest.of(0, ROOM_PAGE_SIZE));
+                List<Room> changed = new ArrayList<>();
+                for (Room room : rooms) {
+                    int expected = counts.getOrDefault(room.getRoomID(), 0);
+                    if (room.getCurrentOccupancy() == null || room.getCurrentOccupancy() != expected) {
+                        room.setCurrentOccupancy(expected);
+                        changed.add(room);
+                    }
+                }
+                roomRepository.saveAll(changed);
+                return new RoomPage(rooms.size() < ROOM_PAGE_SIZE ? null : rooms.get(rooms.size() - 1).getRoomID(),
+                        changed.size());
+            });
+            updated += page.changed();
+            after = page.lastRoomID();
+        }
+        return updated;
+    }
+
+    /**
+     * One page of a room pass: the key to continue after (null when done) and the rooms changed
+     */
+    private record RoomPage(Integer lastRoomID, int changed) {
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Snapshots
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Fold events since the last snapshot into a new one (incremental, never scans Bed)
+     */
+    @Scheduled(cron = "${app.occupancy.snapshot-cron:0 0 3 * * *}")
+    public synchronized OccupancySnapshot takeSnapshot() {
+        OccupancySnapshot previous = snapshotRepository.findTopByOrderByWatermarkDesc().orElse(null);
+        if (previous == null) {
+            return takeGenesisSnapshot();
+        }
+        LocalDateTime watermark = LocalDateTime.now().minusSeconds(settleSeconds);
+        if (!watermark.isAfter(previous.getWatermark())) {
+            return previous;
+        }
+
+        Map<Integer, BedState> state = new HashMap<>();
+        decode(previous.getPayload(), state, null);
+        int folded = replay(state, null, previous.getWatermark(), watermark);
+
+        OccupancySnapshot snapshot = newSnapshot(state, watermark, folded);
+        log.info("Snapshot at {}: {} events folded, {} beds held", watermark, folded, state.size());
+        return snapshotRepository.save(snapshot);
+    }
+
+    /**
+     * First snapshot, derived once from the current tables when the ledger has no history yet
+     */
+    private OccupancySnapshot takeGenesisSnapshot() {
+        Map<Integer, Integer> buildingOfRoom = roomRepository.findAll().stream()
+                .collect(Collectors.toMap(Room::getRoomID, Room::getBuildingID, (a, b) -> a));
+        Map<Integer, String> livingOnBed = new HashMap<>();
+        for (CheckInOut record : checkInOutRepository.findByStatus("CurrentlyLiving")) {
+            livingOnBed.put(record.getBedID(), record.getStudentID());
+        }
+        Map<Integer, String> pendingOnBed = new HashMap<>();
+        for (RoomApplication application : roomApplicationRepository.findByStatus("Pending")) {
+            pendingOnBed.put(application.getBedID(), application.getStudentID());
+        }
+
+        Map<Integer, BedState> state = new HashMap<>();
+        for (Bed bed : bedRepository.findAll()) {
+            Integer buildingID = buildingOfRoom.get(bed.getRoomID());
+            if ("Occupied".equalsIgnoreCase(bed.getStatus())) {
+                state.put(bed.getBedID(), new BedState(bed.getRoomID(), buildingID, 'O', livingOnBed.get(bed.getBedID())));
+            } else if ("Reserved".equalsIgnoreCase(bed.getStatus())) {
+                state.put(bed.getBedID(), new BedState(bed.getRoomID(), buildingID, 'R', pendingOnBed.get(bed.getBedID())));
+            }
+        }
+
+        OccupancySnapshot snapshot = newSnapshot(state, LocalDateTime.now(), 0);
+        log.info("Genesis snapshot with {} beds held", state.size());
+        return snapshotRepository.save(snapshot);
+    }
+
+    private OccupancySnapshot newSnapshot(Map<Integer, BedState> state, LocalDateTime watermark, int eventCount) {
+        OccupancySnapshot snapshot = new OccupancySnapshot();
+        snapshot.setWatermark(watermark);
+        snapshot.setTakenAt(LocalDateTime.now());
+        snapshot.setBedCount(state.size());
+        snapshot.setEventCount(eventCount);
+        snapshot.setPayload(encode(state));
+        return snapshot;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Point-in-time queries
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Occupancy of a building (or all buildings when null) as of the given instant
+     */
+    public Map<String, Object> occupancyAt(Integer buildingID, LocalDateTime pointInTime) {
+        OccupancySnapshot snapshot = snapshotRepository
+                .findTopByWatermarkLessThanEqualOrderByWatermarkDesc(pointInTime).orElse(null);
+        if (snapshot == null) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("available", false);
+            result.put("reason", snapshotRepository.findTopByOrderByWatermarkAsc()
+                    .map(s -> "Ledger history starts at " + s.getWatermark())
+                    .orElse("Ledger has no snapshot yet"));
+            return result;
+        }
+
+        Map<Integer, BedState> state = new HashMap<>();
+        decode(snapshot.getPayload(), state, buildingID);
+        int replayed = replay(state, buildingID, snapshot.getWatermark(), pointInTime);
+
+        Map<String, Object> result = summarize(state, buildingID);
+        result.put("available", true);
+        result.put("at", pointInTime);
+        result.put("snapshotWatermark", snapshot.getWatermark());
+        result.put("eventsReplayed", replayed);
+        return result;
+    }
+
+    private Map<String, Object> summarize(Map<Integer, BedState> state, Integer buildingID) {
+        int occupied = 0;
+        int reserved = 0;
+        Map<Integer, Integer> rooms = new TreeMap<>();
+        for (BedState s : state.values()) {
+            if (buildingID != null && !buildingID.equals(s.buildingID)) continue;
+            if (s.isOccupied()) {
+                occupied++;
+                if (s.roomID != null) rooms.merge(s.roomID, 1, Integer::sum);
+            } else {
+                reserved++;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("buildingID", buildingID);
+        result.put("occupiedBeds", occupied);
+        result.put("reservedBeds", reserved);
+        result.put("occupiedByRoom", rooms);
+        return result;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Event folding and snapshot encoding
+    // ---------------------------------------------------------------------------------------
+
+    private int replay(Map<Integer, BedState> state, Integer buildingID, LocalDateTime after, LocalDateTime upTo) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Integer count = tx.execute(status -> {
+            int n = 0;
+            try (Stream<OccupancyEvent> events = buildingID == null
+                    ? eventRepository.streamByOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(after, upTo)
+                    : eventRepository.streamByBuildingIDAndOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(
+                            buildingID, after, upTo)) {
+                Iterator<OccupancyEvent> it = events.iterator();
+                while (it.hasNext()) {
+                    apply(state, it.next());
+                    n++;
+                }
+            }
+            return n;
+        });
+        return count != null ? count : 0;
+    }
+
+    private static void apply(Map<Integer, BedState> state, OccupancyEvent event) {
+        switch (event.getEventType()) {
+            case OccupancyEvent.RESERVE ->
+                    state.put(event.getBedID(), new BedState(event.getRoomID(), event.getBuildingID(), 'R', event.getStudentID()));
+            case OccupancyEvent.CHECK_IN ->
+                    state.put(event.getBedID(), new BedState(event.getRoomID(), event.getBuildingID(), 'O', event.getStudentID()));
+            case OccupancyEvent.RELEASE, OccupancyEvent.CHECK_OUT -> state.remove(event.getBedID());
+            default -> { }
+        }
+    }
+
+    private static String encode(Map<Integer, BedState> state) {
+        StringBuilder sb = new StringBuilder(state.size() * 24);
+        state.forEach((bedID, s) -> sb.append(bedID).append(',')
+                .append(s.roomID != null ? s.roomID : "").append(',')
+                .append(s.buildingID != null ? s.buildingID : "").append(',')
+                .append(s.state).append(',')
+                .append(s.studentID != null ? s.studentID : "").append('\n'));
+        return sb.toString();
+    }
+
+    private static void decode(String payload, Map<Integer, BedState> state, Integer buildingFilter) {
+        if (payload == null || payload.isEmpty()) return;
+        for (String line : payload.split("\n")) {
+            String[] f = line.split(",", -1);
+            if (f.length < 5) continue;
+            Integer buildingID = f[2].isEmpty() ? null : Integer.valueOf(f[2]);
+            if (buildingFilter != null && !buildingFilter.equals(buildingID)) continue;
+            state.put(Integer.valueOf(f[0]), new BedState(
+                    f[1].isEmpty() ? null : Integer.valueOf(f[1]),
+                    buildingID,
+                    f[3].charAt(0),
+                    f[4].isEmpty() ? null : f[4]));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental replacement for the full-table occupancy resync.
+ *
+ * Only rooms marked in {@link OccupancyDirtyTracker} since the last run are verified on the short
+ * interval. Changes made outside the application (database triggers, manual SQL) never mark a room,
+ * so a full pass over every room also runs nightly and is the default for the manual sync. Each room is
+ * checked and repaired in its own short transaction: its beds and then the room row are locked with
+ * NOWAIT (same bed -> room order as RoomBookingService), so a room that is being booked right now is
+ * skipped and re-queued instead of blocking the booking. Truth is CheckInOut (CurrentlyLiving) and
+ * Pending applications; Bed.status and Room.currentOccupancy are corrected to match.
+ */
+@Service
+public class OccupancyReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyReconciler.class);
+
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+    private static final int MAX_FIXES_LISTED = 100;
+    private static final int REPORT_HISTORY = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private OccupancyDirtyTracker dirtyTracker;
+
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
+    @Autowired
+    private BedClaimRegistry bedClaimRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate roomTransaction;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final Deque<DriftReport> history = new ArrayDeque<>();
+
+    @PostConstruct
+    void initRoomTransaction() {
+        roomTransaction = new TransactionTemplate(transactionManager);
+        roomTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        roomTransaction.setTimeout(10);
+    }
+
+    /**
+     * Outcome of one reconciliation run
+     */
+    public static class DriftReport {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final boolean full;
+        private long elapsedMs;
+        private int roomsChecked;
+        private int roomsFixed;
+        private int bedsFixed;
+        private int roomsDeferred;
+        private int errors;
+        private final List<String> fixes = new ArrayList<>();
+
+        DriftReport(boolean full) {
+            this.full = full;
+        }
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public boolean isFull() { return full; }
+        public long getElapsedMs() { return elapsedMs; }
+        public int getRoomsChecked() { return roomsChecked; }
+        public int getRoomsFixed() { return roomsFixed; }
+        public int getBedsFixed() { return bedsFixed; }
+        public int getRoomsDeferred() { return roomsDeferred; }
+        public int getErrors() { return errors; }
+        public List<String> getFixes() { return fixes; }
+
+        private void note(String fix) {
+            if (fixes.size() < MAX_FIXES_LISTED) {
+                fixes.add(fix);
+            }
+        }
+    }
+
+    /**
+     * Per-room result, applied to the report only after the room transaction commits
+     */
+    private static final class RoomOutcome {
+        boolean roomFixed;
+        int bedsFixed;
+        final List<String> fixes = new ArrayList<>();
+        final List<Integer> releasedBeds = new ArrayList<>();
+    }
+
+    /**
+     * Verify dirty rooms on a schedule; nothing to do when nothing was touched
+     */
+    @Scheduled(fixedDelayString = "${app.occupancy.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.occupancy.reconcile-interval-ms:300000}")
+    public void reconcileDirty() {
+        if (dirtyTracker.pendingRooms() == 0 && dirtyTracker.pendingBeds() == 0) {
+            return;
+        }
+        DriftReport report = reconcile(false);
+        if (report != null && (report.roomsFixed > 0 || report.bedsFixed > 0)) {
+            log.info("Fixed {} rooms and {} beds out of {} checked in {}ms",
+                    report.roomsFixed, report.bedsFixed, report.roomsChecked, report.elapsedMs);
+        }
+    }
+
+    /**
+     * Verify every room, catching drift the dirty tracker never saw
+     */
+    @Scheduled(cron = "${app.occupancy.full-reconcile-cron:0 15 3 * * *}")
+    public void reconcileAll() {
+        DriftReport report = reconcile(true);
+        if (report == null) {
+            log.info("Skipped the full occupancy check: another run is in progress");
+        } else if (report.roomsFixed > 0 || report.bedsFixed > 0) {
+            log.warn("Full check fixed {} rooms and {} beds out of {} in {}ms",
+                    report.roomsFixed, report.bedsFixed, report.roomsChecked, report.elapsedMs);
+        }
+    }
+
+    /**
+     * Verify and repair dirty rooms (or every room when full)
+     *
+     * @return the drift report, or null if another run is in progress
+     */
+    public DriftReport reconcile(boolean full) {
+        if (!running.tryLock()) {
+            return null;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            DriftReport report = new DriftReport(full);
+
+            Set<Integer> rooms = new TreeSet<>(dirtyTracker.drainRooms());
+            Set<Integer> beds = dirtyTracker.drainBeds();
+            if (full) {
+                rooms.addAll(roomRepository.findAllRoomIDs());
+            } else if (!beds.isEmpty()) {
+                bedRepository.findAllById(beds).forEach(b -> rooms.add(b.getRoomID()));
+            }
+
+            for (Integer roomID : rooms) {
+                report.roomsChecked++;
+                try {
+                    RoomOutcome outcome = roomTransaction.execute(status -> reconcileRoom(roomID));
+                    if (outcome == null) continue;
+                    if (outcome.roomFixed) report.roomsFixed++;
+                    report.bedsFixed += outcome.bedsFixed;
+                    outcome.fixes.forEach(report::note);
+                    outcome.releasedBeds.forEach(bedClaimRegistry::release);
+                } catch (RuntimeException e) {
+                    // Locked by a booking in progress (or failed): look at it again next run
+                    dirtyTracker.markRoom(roomID);
+                    if (BookingRetryExecutor.isTransientLockFailure(e)) {
+                        report.roomsDeferred++;
+                    } else {
+                        report.errors++;
+                        log.warn("Room {} failed: {}", roomID, e.getMessage());
+                    }
+                }
+            }
+
+            report.elapsedMs = System.currentTimeMillis() - start;
+            synchronized (history) {
+                history.addFirst(report);
+                while (history.size() > REPORT_HISTORY) {
+                    history.removeLast();
+                }
+            }
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Most recent reports, newest first
+     */
+    public List<DriftReport> getReports() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    public Map<String, Object> getPending() {
+        Map<String, Object> pending = new LinkedHashMap<>();
+        pending.put("dirtyRooms", dirtyTracker.pendingRooms());
+        pending.put("dirtyBeds", dirtyTracker.pendingBeds());
+        pending.put("running", running.isLocked());
+        return pending;
+    }
+
+    private RoomOutcome reconcileRoom(Integer roomID) {
+        List<Bed> beds = entityManager.createQuery(
+                        "SELECT b FROM Bed b WHERE b.roomID = :roomID ORDER BY b.bedID", Bed.class)
+                .setParameter("roomID", roomID)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT_HINT, 0)
+                .getResultList();
+        Room room = entityManager.find(Room.class, roomID, LockModeType.PESSIMISTIC_WRITE,
+                Map.of(LOCK_TIMEOUT_HINT, 0));
+        if (room == null) {
+            return null;
+        }
+
+        List<Integer> bedIDs = beds.stream().map(Bed::getBedID).collect(Collectors.toList());
+        Map<Integer, String> living = new HashMap<>();
+        Map<Integer, String> pending = new HashMap<>();
+        if (!bedIDs.isEmpty()) {
+            for (CheckInOut record : checkInOutRepository.findByStatusAndBedIDIn("CurrentlyLiving", bedIDs)) {
+                living.put(record.getBedID(), record.getStudentID());
+            }
+            for (RoomApplication application : roomApplicationRepository.findByStatusAndBedIDIn("Pending", bedIDs)) {
+                pending.put(application.getBedID(), application.getStudentID());
+            }
+        }
+
+        RoomOutcome outcome = new RoomOutcome();
+        for (Bed bed : beds) {
+            String current = bed.getStatus();
+            String expected;
+            if (living.containsKey(bed.getBedID())) {
+                expected = "Occupied";
+            } else if (pending.containsKey(bed.getBedID())) {
+                expected = "Reserved";
+            } else if ("Occupied".equalsIgnoreCase(current) || "Reserved".equalsIgnoreCase(current)) {
+                expected = "Available";
+            } else {
+                continue; // Available or an out-of-service status: leave as is
+            }
+            if (expected.equalsIgnoreCase(current)) {
+                continue;
+            }
+
+            bed.setStatus(expected);
+            outcome.bedsFixed++;
+            outcome.fixes.add(String.format("Bed %d (room %d): %s -> %s", bed.getBedID(), roomID, current, expected));
+            switch (expected) {
+                case "Occupied" -> occupancyLedger.record(OccupancyEvent.CHECK_IN, bed.getBedID(), roomID,
+                        room.getBuildingID(), living.get(bed.getBedID()));
+                case "Reserved" -> occupancyLedger.record(OccupancyEvent.RESERVE, bed.getBedID(), roomID,
+                        room.getBuildingID(), pending.get(bed.getBedID()));
+                default -> {
+                    occupancyLedger.record("Occupied".equalsIgnoreCase(current) ? OccupancyEvent.CHECK_OUT : OccupancyEvent.RELEASE,
+                            bed.getBedID(), roomID, room.getBuildingID(), null);
+                    outcome.releasedBeds.add(bed.getBedID());
+                }
+            }
+        }
+
+        int occupied = living.size();
+        if (room.getCurrentOccupancy() == null || room.getCurrentOccupancy() != occupied) {
+            outcome.fixes.add(String.format("Room %d: occupancy %s -> %d", roomID, room.getCurrentOccupancy(), occupied));
+            room.setCurrentOccupancy(occupied);
+            outcome.roomFixed = true;
+        }
+        return outcome;
+    }
+}
@@ -0,0 +1,451 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.OccupancySeries;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.CheckInOutRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.OccupancySeriesRepository;
+import com.dormitory.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Daily occupancy counts per building and per room, with week and month rollups.
+ *
+ * Series live in memory as int arrays (one slot per day) with precomputed weekly/monthly average and
+ * peak arrays, so a trend request is index arithmetic plus a slice. They are persisted in
+ * OccupancySeries as zigzag varint deltas. The history is backfilled from CheckInOut in one streaming
+ * pass; afterwards today's value is sampled from Room.currentOccupancy every evening.
+ */
+@Service
+public class OccupancyTimeSeries {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyTimeSeries.class);
+
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    @Autowired
+    private OccupancySeriesRepository seriesRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initTransactions() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // In-memory series
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Immutable daily series with its rollups
+     */
+    private static final class Series {
+        final String scope;
+        final int entityID;
+        final LocalDate start;
+        final int[] daily;
+        final Rollup weekly;
+        final Rollup monthly;
+
+        Series(String scope, int entityID, LocalDate start, int[] daily) {
+            this.scope = scope;
+            this.entityID = entityID;
+            this.start = start;
+            this.daily = daily;
+            this.weekly = Rollup.of(WEEK, start, daily);
+            this.monthly = Rollup.of(MONTH, start, daily);
+        }
+
+        LocalDate end() {
+            return start.plusDays(daily.length - 1);
+        }
+    }
+
+    /**
+     * Average and peak per week (Monday-based) or calendar month
+     */
+    private static final class Rollup {
+        final String unit;
+        final LocalDate first;
+        final double[] avg;
+        final int[] peak;
+
+        private Rollup(String unit, LocalDate first, double[] avg, int[] peak) {
+            this.unit = unit;
+            this.first = first;
+            this.avg = avg;
+            this.peak = peak;
+        }
+
+        static Rollup of(String unit, LocalDate start, int[] daily) {
+            LocalDate first = periodStart(unit, start);
+            int periods = daily.length == 0 ? 0 : index(unit, first, start.plusDays(daily.length - 1)) + 1;
+            double[] avg = new double[periods];
+            int[] peak = new int[periods];
+            int[] days = new int[periods];
+            for (int d = 0; d < daily.length; d++) {
+                int p = index(unit, first, start.plusDays(d));
+                avg[p] += daily[d];
+                peak[p] = Math.max(peak[p], daily[d]);
+                days[p]++;
+            }
+            for (int p = 0; p < periods; p++) {
+                avg[p] = days[p] > 0 ? Math.round(avg[p] * 100.0 / days[p]) / 100.0 : 0;
+            }
+            return new Rollup(unit, first, avg, peak);
+        }
+
+        static LocalDate periodStart(String unit, LocalDate date) {
+            return WEEK.equals(unit) ? date.with(DayOfWeek.MONDAY) : date.withDayOfMonth(1);
+        }
+
+        static int index(String unit, LocalDate first, LocalDate date) {
+            if (WEEK.equals(unit)) {
+                return (int) Math.floorDiv(ChronoUnit.DAYS.between(first, date), 7);
+            }
+            return (int) ChronoUnit.MONTHS.between(YearMonth.from(first), YearMonth.from(date));
+        }
+
+        LocalDate label(int p) {
+            return WEEK.equals(unit) ? first.plusWeeks(p) : first.plusMonths(p);
+        }
+    }
+
+    private static String key(String scope, int entityID) {
+        return scope + entityID;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Day-to-day deltas, zigzag-mapped and written as unsigned LEB128 varints
+     */
+    static byte[] encode(int[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(values.length + 8);
+        int previous = 0;
+        for (int value : values) {
+            int delta = value - previous;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                out.write((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            out.write(zigzag);
+            previous = value;
+        }
+        return out.toByteArray();
+    }
+
+    static int[] decode(byte[] data, int days) {
+        int[] values = new int[days];
+        int pos = 0;
+        int previous = 0;
+        for (int d = 0; d < days; d++) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[d] = previous;
+        }
+        return values;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Loading, backfill and daily sampling
+    // ---------------------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (load() == 0) {
+            Map<String, Object> result = backfill();
+            log.info("Backfilled {}", result);
+        }
+    }
+
+    /**
+     * Load persisted series into memory
+     *
+     * @return number of series loaded
+     */
+    public synchronized int load() {
+        List<OccupancySeries> stored = seriesRepository.findAll();
+        series.clear();
+        for (OccupancySeries s : stored) {
+            int[] daily = decode(s.getData(), s.getDays());
+            series.put(key(s.getScope(), s.getEntityID()), new Series(s.getScope(), s.getEntityID(), s.getStartDate(), daily));
+        }
+        return stored.size();
+    }
+
+    /**
+     * Rebuild all history from CheckInOut in one streaming pass and persist it.
+     * A stay counts from its check-in day up to (not including) its check-out day.
+     */
+    public synchronized Map<String, Object> backfill() {
+        long startMs = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        long todayDay = today.toEpochDay();
+
+        Map<Integer, Integer> roomByBed = bedRepository.findAll().stream()
+                .filter(b -> b.getRoomID() != null)
+                .collect(Collectors.toMap(Bed::getBedID, Bed::getRoomID));
+        Map<Integer, Integer> buildingByRoom = roomRepository.findAll().stream()
+                .filter(r -> r.getBuildingID() != null)
+                .collect(Collectors.toMap(Room::getRoomID, Room::getBuildingID));
+
+        // Per room: epochDay -> change in occupancy
+        Map<Integer, Map<Long, Integer>> diffs = new HashMap<>();
+        long[] minDay = {todayDay};
+        long[] stays = {0};
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = checkInOutRepository.streamStays()) {
+                rows.forEach(row -> {
+                    Integer roomID = roomByBed.get((Integer) row[0]);
+                    if (roomID == null) return;
+                    long in = ((LocalDate) row[1]).toEpochDay();
+                    Long out = row[2] != null ? ((LocalDate) row[2]).toEpochDay() : null;
+                    if (in > todayDay || (out != null && out <= in)) return;
+                    Map<Long, Integer> roomDiff = diffs.computeIfAbsent(roomID, k -> new HashMap<>());
+                    roomDiff.merge(in, 1, Integer::sum);
+                    if (out != null && out <= todayDay) {
+                        roomDiff.merge(out, -1, Integer::sum);
+                    }
+                    minDay[0] = Math.min(minDay[0], in);
+                    stays[0]++;
+                });
+            }
+        });
+
+        LocalDate start = LocalDate.ofEpochDay(minDay[0]);
+        int days = (int) (todayDay - minDay[0] + 1);
+        Map<String, Series> rebuilt = new HashMap<>();
+        Map<Integer, int[]> buildingTotals = new HashMap<>();
+        for (Map.Entry<Integer, Integer> room : buildingByRoom.entrySet()) {
+            int[] daily = new int[days];
+            Map<Long, Integer> roomDiff = diffs.getOrDefault(room.getKey(), Map.of());
+            int running = 0;
+            for (int d = 0; d < days; d++) {
+                running += roomDiff.getOrDefault(minDay[0] + d, 0);
+                daily[d] = running;
+            }
+            rebuilt.put(key(OccupancySeries.ROOM, room.getKey()), new Series(OccupancySeries.ROOM, room.getKey(), start, daily));
+            int[] total = buildingTotals.computeIfAbsent(room.getValue(), k -> new int[days]);
+            for (int d = 0; d < days; d++) {
+                total[d] += daily[d];
+            }
+        }
+        for (DormBuilding building : buildingRepository.findAll()) {
+            int[] total = buildingTotals.getOrDefault(building.getBuildingID(), new int[days]);
+            rebuilt.put(key(OccupancySeries.BUILDING, building.getBuildingID()),
+                    new Series(OccupancySeries.BUILDING, building.getBuildingID(), start, total));
+        }
+
+        series.clear();
+        series.putAll(rebuilt);
+        long bytes = persist(rebuilt.values(), true);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stays", stays[0]);
+        result.put("series", rebuilt.size());
+        result.put("from", start);
+        result.put("days", days);
+        result.put("bytes", bytes);
+        result.put("elapsedMs", System.currentTimeMillis() - startMs);
+        return result;
+    }
+
+    /**
+     * Record today's occupancy of every room and building (gaps since the last sample carry the last value)
+     */
+    @Scheduled(cron = "${app.stats.trends.sample-cron:0 55 23 * * *}")
+    public synchronized void sampleToday() {
+        LocalDate today = LocalDate.now();
+        Map<Integer, Integer> buildingCounts = new HashMap<>();
+        List<Series> changed = new ArrayList<>();
+
+        for (Room room : roomRepository.findAll()) {
+            int count = room.getCurrentOccupancy() != null ? room.getCurrentOccupancy() : 0;
+            changed.add(withValue(OccupancySeries.ROOM, room.getRoomID(), today, count));
+            if (room.getBuildingID() != null) {
+                buildingCounts.merge(room.getBuildingID(), count, Integer::sum);
+            }
+        }
+        for (DormBuilding building : buildingRepository.findAll()) {
+            changed.add(withValue(OccupancySeries.BUILDING, building.getBuildingID(), today,
+                    buildingCounts.getOrDefault(building.getBuildingID(), 0)));
+        }
+        persist(changed, false);
+    }
+
+    private Series withValue(String scope, int entityID, LocalDate day, int value) {
+        String key = key(scope, entityID);
+        Series current = series.get(key);
+        Series next;
+        if (current == null) {
+            next = new Series(scope, entityID, day, new int[]{value});
+        } else {
+            int index = (int) ChronoUnit.DAYS.between(current.start, day);
+            int[] daily = Arrays.copyOf(current.daily, Math.max(current.daily.length, index + 1));
+            int last = current.daily.length > 0 ? current.daily[current.daily.length - 1] : 0;
+            Arrays.fill(daily, current.daily.length, daily.length, last);
+            daily[index] = value;
+            next = new Series(scope, entityID, current.start, daily);
+        }
+        series.put(key, next);
+        return next;
+    }
+
+    /**
+     * Upsert the given series (or replace everything)
+     *
+     * @return total encoded bytes written
+     */
+    private long persist(Collection<Series> toSave, boolean replaceAll) {
+        Long bytes = writeTransaction.execute(status -> {
+            if (replaceAll) {
+                seriesRepository.deleteAllInBatch();
+            }
+            Map<String, OccupancySeries> existing = replaceAll ? Map.of() : seriesRepository.findAll().stream()
+                    .collect(Collectors.toMap(s -> key(s.getScope(), s.getEntityID()), Function.identity()));
+            List<OccupancySeries> rows = new ArrayList<>(toSave.size());
+            long total = 0;
+            for (Series s : toSave) {
+                OccupancySeries row = existing.getOrDefault(key(s.scope, s.entityID), new OccupancySeries());
+                row.setScope(s.scope);
+                row.setEntityID(s.entityID);
+                row.setStartDate(s.start);
+                row.setDays(s.daily.length);
+                row.setData(encode(s.daily));
+                row.setUpdatedAt(LocalDateTime.now());
+                total += row.getData().length;
+                rows.add(row);
+            }
+            seriesRepository.saveAll(rows);
+            return total;
+        });
+        return bytes != null ? bytes : 0;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Trend of one building or room between from and to (inclusive, clamped to the recorded range)
+     *
+     * @return null if there is no series for the entity
+     */
+    public Map<String, Object> trend(String scope, int entityID, String granularity, LocalDate from, LocalDate to) {
+        Series s = series.get(key(scope, entityID));
+        if (s == null) {
+            return null;
+        }
+        LocalDate lo = from.isBefore(s.start) ? s.start : from;
+        LocalDate hi = to.isAfter(s.end()) ? s.end() : to;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", granularity);
+        List<LocalDate> labels = new ArrayList<>();
+        if (lo.isAfter(hi)) {
+            result.put("labels", labels);
+            result.put("values", new int[0]);
+            return result;
+        }
+
+        if (DAY.equals(granularity)) {
+            int a = (int) ChronoUnit.DAYS.between(s.start, lo);
+            int b = (int) ChronoUnit.DAYS.between(s.start, hi);
+            for (int d = a; d <= b; d++) labels.add(s.start.plusDays(d));
+            result.put("labels", labels);
+            result.put("values", Arrays.copyOfRange(s.daily, a, b + 1));
+        } else {
+            Rollup r = WEEK.equals(granularity) ? s.weekly : s.monthly;
+            int a = Rollup.index(r.unit, r.first, lo);
+            int b = Rollup.index(r.unit, r.first, hi);
+            for (int p = a; p <= b; p++) labels.add(r.label(p));
+            result.put("labels", labels);
+            result.put("values", Arrays.copyOfRange(r.avg, a, b + 1));
+            result.put("peaks", Arrays.copyOfRange(r.peak, a, b + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Trends of every building, for dashboard charts
+     */
+    public List<Map<String, Object>> buildingTrends(String granularity, LocalDate from, LocalDate to) {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (DormBuilding building : buildingRepository.findAll()) {
+            Map<String, Object> trend = trend(OccupancySeries.BUILDING, building.getBuildingID(), granularity, from, to);
+            if (trend == null) continue;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("buildingID", building.getBuildingID());
+            item.put("name", building.getBuildingName());
+            item.putAll(trend);
+            data.add(item);
+        }
+        return data;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("series", series.size());
+        stats.put("from", series.values().stream().map(s -> s.start).min(Comparator.naturalOrder()).orElse(null));
+        stats.put("to", series.values().stream().map(Series::end).max(Comparator.naturalOrder()).orElse(null));
+        return stats;
+    }
+}
@@ -0,0 +1,149 @@
+package com.dormitory.service;
+
+import com.dormitory.config.QueryScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-handler SQL statement and row counts, with flags for suspicious requests.
+ *
+ * A request is flagged when it runs more statements or fetches more rows than the configured limits,
+ * or when one statement is repeated often enough to look like an N+1 loop (the same SELECT issued once
+ * per item of a list). Flagged requests are logged; the aggregates back /api/admin/query-stats.
+ */
+@Service
+public class QueryStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsService.class);
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Value("${app.query-stats.max-statements:30}")
+    private int maxStatements;
+
+    @Value("${app.query-stats.max-rows:5000}")
+    private long maxRows;
+
+    @Value("${app.query-stats.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    private final Map<String, HandlerStats> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Aggregated counts for one controller method
+     */
+    public static class HandlerStats {
+        private final String handler;
+        private long requests;
+        private long flagged;
+        private long totalStatements;
+        private int maxStatements;
+        private long totalRows;
+        private long maxRows;
+        private int worstRepeatCount;
+        private String worstRepeatedSql;
+        private String lastFlagReason;
+        private LocalDateTime lastFlaggedAt;
+
+        HandlerStats(String handler) {
+            this.handler = handler;
+        }
+
+        synchronized void add(QueryScope scope, String flagReason) {
+            requests++;
+            totalStatements += scope.getStatements();
+            maxStatements = Math.max(maxStatements, scope.getStatements());
+            totalRows += scope.getRows();
+            maxRows = Math.max(maxRows, scope.getRows());
+            if (scope.getMostRepeatedCount() > worstRepeatCount) {
+                worstRepeatCount = scope.getMostRepeatedCount();
+                worstRepeatedSql = scope.getMostRepeatedSql();
+            }
+            if (flagReason != null) {
+                flagged++;
+                lastFlagReason = flagReason;
+                lastFlaggedAt = LocalDateTime.now();
+            }
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("handler", handler);
+            item.put("requests", requests);
+            item.put("flagged", flagged);
+            item.put("avgStatements", requests > 0 ? Math.round(totalStatements * 10.0 / requests) / 10.0 : 0.0);
+            item.put("maxStatements", maxStatements);
+            item.put("avgRows", requests > 0 ? Math.round(totalRows * 10.0 / requests) / 10.0 : 0.0);
+            item.put("maxRows", maxRows);
+            item.put("worstRepeatCount", worstRepeatCount);
+            item.put("worstRepeatedSql", worstRepeatedSql);
+            item.put("lastFlagReason", lastFlagReason);
+            item.put("lastFlaggedAt", lastFlaggedAt);
+            return item;
+        }
+
+        synchronized int getMaxStatements() { return maxStatements; }
+        synchronized long getFlagged() { return flagged; }
+    }
+
+    /**
+     * Record a finished request
+     */
+    public void record(String handler, String method, String path, QueryScope scope) {
+        String reason = flagReason(scope);
+        handlers.computeIfAbsent(handler, HandlerStats::new).add(scope, reason);
+        appMetrics.recordRequestQueries(handler, scope.getStatements(), scope.getRows());
+        if (reason != null) {
+            log.warn("{} {} ({}): {} - {}", method, path, handler, scope, reason);
+        }
+    }
+
+    private String flagReason(QueryScope scope) {
+        List<String> reasons = new ArrayList<>();
+        if (scope.getStatements() > maxStatements) {
+            reasons.add("more than " + maxStatements + " statements");
+        }
+        if (scope.getRows() > maxRows) {
+            reasons.add("more than " + maxRows + " rows");
+        }
+        if (scope.getMostRepeatedCount() >= repeatThreshold) {
+            reasons.add("possible N+1, " + scope.getMostRepeatedCount() + "x: " + abbreviate(scope.getMostRepeatedSql()));
+        }
+        return reasons.isEmpty() ? null : String.join("; ", reasons);
+    }
+
+    /**
+     * Worst handlers first: flagged ones ordered by flag count, then by peak statement count
+     */
+    public Map<String, Object> topOffenders(int limit) {
+        List<HandlerStats> sorted = new ArrayList<>(handlers.values());
+        sorted.sort(Comparator.comparingLong(HandlerStats::getFlagged)
+                .thenComparingInt(HandlerStats::getMaxStatements)
+                .reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholds", Map.of(
+                "maxStatements", maxStatements,
+                "maxRows", maxRows,
+                "repeatThreshold", repeatThreshold));
+        result.put("handlers", handlers.size());
+        result.put("top", sorted.stream().limit(Math.max(1, limit)).map(HandlerStats::toMap).toList());
+        return result;
+    }
+
+    public void reset() {
+        handlers.clear();
+    }
+
+    private static String abbreviate(String sql) {
+        return sql != null && sql.length() > 200 ? sql.substring(0, 200) + "..." : sql;
+    }
+}
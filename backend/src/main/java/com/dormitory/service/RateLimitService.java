@@ -0,0 +1,166 @@
+package com.dormitory.service;
+
+import com.dormitory.util.SlidingWindowSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory sliding-window rate limits for unauthenticated, expensive endpoints.
+ *
+ * Each named limit allows a number of attempts per key (client address or username) within a sliding
+ * window, counted in a {@link SlidingWindowSketch}: lock-free and in fixed memory however many distinct
+ * addresses or usernames an attacker cycles through. Approximate counting can only overestimate, so a
+ * collision may throttle a key slightly early but never lets extra attempts through. Callers check the
+ * limit first thing in the handler, before any captcha, database or hashing work.
+ */
+@Service
+public class RateLimitService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
+
+    public static final String LOGIN_IP = "login-ip";
+    public static final String LOGIN_USERNAME = "login-username";
+    public static final String CAPTCHA_IP = "captcha-ip";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Value("${app.rate-limit.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${app.rate-limit.sketch-width:8192}")
+    private int sketchWidth;
+
+    @Value("${app.rate-limit.login-per-ip:30}")
+    private int loginPerIp;
+
+    @Value("${app.rate-limit.login-per-ip-window-seconds:60}")
+    private int loginPerIpWindow;
+
+    @Value("${app.rate-limit.login-per-username:10}")
+    private int loginPerUsername;
+
+    @Value("${app.rate-limit.login-per-username-window-seconds:300}")
+    private int loginPerUsernameWindow;
+
+    @Value("${app.rate-limit.captcha-per-ip:20}")
+    private int captchaPerIp;
+
+    @Value("${app.rate-limit.captcha-per-ip-window-seconds:60}")
+    private int captchaPerIpWindow;
+
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+
+    /**
+     * One named limit: at most maxAttempts per key within the window
+     */
+    public static class Limit {
+        private final String name;
+        private final int maxAttempts;
+        private final SlidingWindowSketch sketch;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        Limit(String name, int maxAttempts, SlidingWindowSketch sketch, Counter allowed, Counter rejected) {
+            this.name = name;
+            this.maxAttempts = maxAttempts;
+            this.sketch = sketch;
+            this.allowed = allowed;
+            this.rejected = rejected;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", name);
+            item.put("maxAttempts", maxAttempts);
+            item.put("windowSeconds", sketch.getWindowMillis() / 1000);
+            item.put("allowed", (long) allowed.count());
+            item.put("rejected", (long) rejected.count());
+            item.put("memoryBytes", sketch.memoryBytes());
+            return item;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        register(LOGIN_IP, loginPerIp, loginPerIpWindow);
+        register(LOGIN_USERNAME, loginPerUsername, loginPerUsernameWindow);
+        register(CAPTCHA_IP, captchaPerIp, captchaPerIpWindow);
+    }
+
+    private void register(String name, int maxAttempts, int windowSeconds) {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(sketchDepth, sketchWidth, windowSeconds * 1000L);
+        Counter allowed = Counter.builder("dormitory.ratelimit.requests").tag("limit", name).tag("outcome", "allowed")
+                .description("Rate-limited requests by outcome").register(meterRegistry);
+        Counter rejected = Counter.builder("dormitory.ratelimit.requests").tag("limit", name).tag("outcome", "rejected")
+                .description("Rate-limited requests by outcome").register(meterRegistry);
+        limits.put(name, new Limit(name, maxAttempts, sketch, allowed, rejected));
+    }
+
+    /**
+     * Count an attempt for the key and decide whether it may proceed. Rejected attempts are counted
+     * too, so a client that keeps retrying stays throttled until it slows down.
+     */
+    public boolean tryAcquire(String limitName, String key) {
+        Limit limit = limits.get(limitName);
+        if (!enabled || limit == null || key == null || key.isEmpty()) {
+            return true;
+        }
+        long attempts = limit.sketch.incrementAndEstimate(key.toLowerCase(Locale.ROOT), System.currentTimeMillis());
+        if (attempts > limit.maxAttempts) {
+            limit.rejected.increment();
+            if (attempts == limit.maxAttempts + 1) {
+                log.warn("Rate limit {} reached for {}", limitName, key);
+            }
+            return false;
+        }
+        limit.allowed.increment();
+        return true;
+    }
+
+    /**
+     * Seconds a throttled client should wait: one window at most
+     */
+    public long retryAfterSeconds(String limitName) {
+        Limit limit = limits.get(limitName);
+        return limit != null ? Math.max(1, limit.sketch.getWindowMillis() / 1000) : 60;
+    }
+
+    /**
+     * Client address; the first X-Forwarded-For entry only when running behind a trusted proxy
+     */
+    public String clientAddress(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma >= 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("limits", limits.values().stream().map(Limit::toMap).toList());
+        return stats;
+    }
+}
@@ -0,0 +1,156 @@
+package com.dormitory.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-indexed queue of pending bed reservations.
+ * Each entry becomes available once its application has been pending longer than the
+ * configured TTL, so expiry never has to scan the Bed or room_application tables.
+ * Entries are not removed on approve/reject; the expiry path re-checks the status.
+ * Applications whose expiry keeps failing are retried with a growing delay and, after the last
+ * attempt, parked as dead letters for an admin to look at instead of being retried forever.
+ */
+@Component
+public class ReservationExpiryQueue {
+
+    @Value("${app.booking.reservation-ttl-hours:72}")
+    private long reservationTtlHours;
+
+    private final DelayQueue<Expiry> queue = new DelayQueue<>();
+    private final Map<Integer, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final Map<Integer, DeadLetter> deadLetters = new ConcurrentHashMap<>();
+
+    /**
+     * An application whose expiry failed on every attempt
+     */
+    public record DeadLetter(Integer applicationID, int attempts, String lastError, LocalDateTime failedAt) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("dormitory.booking.expiry.pending", queue, DelayQueue::size)
+                .description("Pending reservations waiting for their expiry time")
+                .register(meterRegistry);
+        Gauge.builder("dormitory.booking.expiry.dead", deadLetters, Map::size)
+                .description("Reservations whose expiry failed on every attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedule expiry of an application based on its apply time
+     */
+    public void schedule(Integer applicationID, LocalDateTime applyTime) {
+        LocalDateTime start = applyTime != null ? applyTime : LocalDateTime.now();
+        long expiresAt = start.plusHours(reservationTtlHours)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.add(new Expiry(applicationID, expiresAt));
+    }
+
+    /**
+     * Count a failed expiry attempt
+     *
+     * @return attempts failed so far for this application
+     */
+    public int recordFailure(Integer applicationID) {
+        return failedAttempts.merge(applicationID, 1, Integer::sum);
+    }
+
+    /**
+     * Re-queue an application whose expiry failed so it is retried after the given delay
+     */
+    public void retryLater(Integer applicationID, long delayMillis) {
+        queue.add(new Expiry(applicationID, System.currentTimeMillis() + delayMillis));
+    }
+
+    /**
+     * Stop retrying an application whose expiry keeps failing
+     */
+    public void deadLetter(Integer applicationID, String error) {
+        Integer attempts = failedAttempts.remove(applicationID);
+        deadLetters.put(applicationID, new DeadLetter(applicationID, attempts != null ? attempts : 0, error, LocalDateTime.now()));
+    }
+
+    /**
+     * Forget earlier failures once an application has been expired (or found already processed)
+     */
+    public void succeeded(Integer applicationID) {
+        if (!failedAttempts.isEmpty()) {
+            failedAttempts.remove(applicationID);
+        }
+    }
+
+    /**
+     * Remove and return up to maxItems application IDs whose reservation has expired
+     */
+    public List<Integer> drainExpired(int maxItems) {
+        List<Expiry> expired = new ArrayList<>();
+        queue.drainTo(expired, maxItems);
+        List<Integer> ids = new ArrayList<>(expired.size());
+        for (Expiry e : expired) {
+            ids.add(e.applicationID);
+        }
+        return ids;
+    }
+
+    public void clear() {
+        queue.clear();
+        failedAttempts.clear();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getReservationTtlHours() {
+        return reservationTtlHours;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", queue.size());
+        stats.put("retrying", failedAttempts.size());
+        stats.put("deadLetters", deadLetters.values().stream()
+                .sorted((a, b) -> b.failedAt().compareTo(a.failedAt()))
+                .toList());
+        return stats;
+    }
+
+    private static final class Expiry implements Delayed {
+        private final Integer applicationID;
+        private final long expiresAtMillis;
+
+        private Expiry(Integer applicationID, long expiresAtMillis) {
+            this.applicationID = applicationID;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Expiry) other).expiresAtMillis);
+        }
+    }
+}
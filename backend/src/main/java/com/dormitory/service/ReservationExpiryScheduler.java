@@ -0,0 +1,119 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.RoomApplication;
+import com.dormitory.repository.RoomApplicationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Releases beds held by applications that stayed Pending longer than the reservation TTL.
+ * The queue is rebuilt from room_application.applyTime on startup and fed by
+ * RoomBookingService after each successful reservation.
+ */
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    @Autowired
+    private ReservationExpiryQueue expiryQueue;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private RoomBookingService roomBookingService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Value("${app.booking.expiry-batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.booking.expiry-max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.booking.expiry-retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    /**
+     * Rebuild the expiry queue from all pending applications
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildQueue() {
+        expiryQueue.clear();
+        List<RoomApplication> pending = roomApplicationRepository.findByStatus("Pending");
+        for (RoomApplication application : pending) {
+            expiryQueue.schedule(application.getApplicationID(), application.getApplyTime());
+        }
+        log.info("Tracking {} pending reservations", pending.size());
+    }
+
+    /**
+     * Expire due reservations in batches, one transaction per batch. A batch that fails is retried one
+     * application at a time, so a single bad row only delays itself; the rest of the queue keeps draining.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.expiry-check-interval-ms:60000}")
+    public void releaseExpiredReservations() {
+        String reason = String.format("Reservation expired: not processed within %d hours",
+                expiryQueue.getReservationTtlHours());
+
+        List<Integer> batch;
+        while (!(batch = expiryQueue.drainExpired(batchSize)).isEmpty()) {
+            List<Integer> expired;
+            try {
+                expired = roomBookingService.expireReservations(batch, reason);
+                batch.forEach(expiryQueue::succeeded);
+            } catch (Exception e) {
+                if (batch.size() == 1) {
+                    failed(batch.get(0), e);
+                    continue;
+                }
+                log.warn("Failed to expire batch of {}, retrying one by one: {}", batch.size(), e.getMessage());
+                expired = expireOneByOne(batch, reason);
+            }
+            for (Integer applicationID : expired) {
+                auditService.log("EXPIRE_APPLICATION", "ROOM_APPLICATION", applicationID.toString(),
+                        reason, "system");
+            }
+            if (!expired.isEmpty()) {
+                log.info("Released {} expired reservations", expired.size());
+            }
+        }
+    }
+
+    private List<Integer> expireOneByOne(List<Integer> batch, String reason) {
+        List<Integer> expired = new ArrayList<>();
+        for (Integer applicationID : batch) {
+            try {
+                expired.addAll(roomBookingService.expireReservations(List.of(applicationID), reason));
+                expiryQueue.succeeded(applicationID);
+            } catch (Exception e) {
+                failed(applicationID, e);
+            }
+        }
+        return expired;
+    }
+
+    private void failed(Integer applicationID, Exception e) {
+        int attempts = expiryQueue.recordFailure(applicationID);
+        if (attempts >= maxAttempts) {
+            expiryQueue.deadLetter(applicationID, e.getMessage());
+            log.error("Giving up expiring application {} after {} attempts", applicationID, attempts, e);
+        } else {
+            // Delayed (doubling per attempt), so this tick's drain loop does not pick it up again
+            expiryQueue.retryLater(applicationID, retryDelayMs << (attempts - 1));
+            log.warn("Failed to expire application {} (attempt {} of {}): {}",
+                    applicationID, attempts, maxAttempts, e.getMessage());
+        }
+    }
+}
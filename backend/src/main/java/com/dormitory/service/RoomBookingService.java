@@ -2,27 +2,40 @@ package com.dormitory.service;
 
 import com.dormitory.entity.*;
 import com.dormitory.repository.*;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service for handling room/bed bookings with proper concurrency control.
- * 
+ *
  * CONCURRENCY SAFETY:
- * - Uses pessimistic locking (SELECT FOR UPDATE) when reading bed for modification
- * - Uses optimistic locking (@Version) as a fallback safety mechanism
- * - All booking operations are wrapped in SERIALIZABLE transactions
- * - Atomic status updates prevent race conditions
- * 
+ * - Each booking runs in its own READ_COMMITTED transaction (REQUIRES_NEW, so a caller's
+ *   transaction is suspended rather than joined); invariants are enforced by explicit row locks
+ *   (SELECT FOR UPDATE) and unique keys rather than SERIALIZABLE next-key locks
+ * - Locks are always taken in the order application -> bed -> room to avoid deadlocks
+ * - Unique keys: one Pending application per student (RoomApplication.pendingStudentID)
+ *   and one CurrentlyLiving record per bed (CheckInOut.liveBedID)
+ * - Uses optimistic locking (@Version) on Bed as a fallback safety mechanism
+ * - Deadlocks and lock-wait timeouts are retried with backoff by BookingRetryExecutor
+ *
  * This ensures that two students CANNOT book the same bed simultaneously.
  */
 @Service
@@ -49,6 +62,38 @@ public class RoomBookingService {
     @Autowired
     private DormBuildingRepository buildingRepository;
 
+    @Autowired
+    private ReservationExpiryQueue reservationExpiryQueue;
+
+    @Autowired
+    private BedClaimRegistry bedClaimRegistry;
+
+    @Autowired
+    private BookingRetryExecutor retryExecutor;
+
+    @Autowired
+    private OccupancyLedger occupancyLedger;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate bookingTransaction;
+
+    @PostConstruct
+    void initBookingTransaction() {
+        bookingTransaction = new TransactionTemplate(transactionManager);
+        // Always a transaction of our own: joining a caller's would keep its isolation level, and a
+        // retry after a deadlock would re-run inside a transaction already marked rollback-only
+        bookingTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        bookingTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
     /**
      * Result object for booking operations
      */
@@ -56,6 +101,10 @@ public class RoomBookingService {
         private final boolean success;
         private final String message;
         private final String errorCode;
+        // Where a reservation landed, so callers can answer without reading the tables again
+        private String buildingName;
+        private String roomNumber;
+        private String bedNumber;
 
         private BookingResult(boolean success, String message, String errorCode) {
             this.success = success;
@@ -67,6 +116,14 @@ public class RoomBookingService {
             return new BookingResult(true, message, null);
         }
 
+        public static BookingResult reserved(String message, String buildingName, String roomNumber, String bedNumber) {
+            BookingResult result = new BookingResult(true, message, null);
+            result.buildingName = buildingName;
+            result.roomNumber = roomNumber;
+            result.bedNumber = bedNumber;
+            return result;
+        }
+
         public static BookingResult failure(String message, String errorCode) {
             return new BookingResult(false, message, errorCode);
         }
@@ -74,23 +131,25 @@ public class RoomBookingService {
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public String getErrorCode() { return errorCode; }
+        public String getBuildingName() { return buildingName; }
+        public String getRoomNumber() { return roomNumber; }
+        public String getBedNumber() { return bedNumber; }
     }
 
     /**
      * Reserve a bed for a student's application.
      * Uses pessimistic locking to prevent concurrent reservations.
-     * 
+     *
      * @param studentID The student applying
      * @param bedID The bed to reserve
      * @return BookingResult indicating success or failure with reason
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public BookingResult reserveBedForApplication(String studentID, Integer bedID) {
-        try {
+        return runBooking("reserve", "An error occurred while processing your application: ", status -> {
             // Acquire pessimistic write lock on the bed row
-            // This blocks other transactions from reading/modifying until we commit
-            Bed bed = entityManager.find(Bed.class, bedID, LockModeType.PESSIMISTIC_WRITE);
-            
+            // This blocks other transactions from modifying it until we commit
+            Bed bed = lockRow(Bed.class, bedID);
+
             if (bed == null) {
                 return BookingResult.failure("Bed not found", "BED_NOT_FOUND");
             }
@@ -103,13 +162,11 @@ public class RoomBookingService {
                 );
             }
 
-            // Check if student already has a pending application
+            // Fast check for an existing pending application (plain read, no shared locks);
+            // the unique key on pendingStudentID catches the concurrent case below
             boolean hasPending = roomApplicationRepository.existsByStudentIDAndStatus(studentID, "Pending");
             if (hasPending) {
-                return BookingResult.failure(
-                    "You already have a pending room application",
-                    "EXISTING_APPLICATION"
-                );
+                return existingApplication();
             }
 
             // Mark bed as Reserved (not fully occupied yet, pending approval)
@@ -123,37 +180,46 @@ public class RoomBookingService {
             application.setBedID(bedID);
             application.setStatus("Pending");
             application.setApplyTime(LocalDateTime.now());
-            roomApplicationRepository.save(application);
-
-            return BookingResult.success("Application submitted successfully");
-
-        } catch (ObjectOptimisticLockingFailureException e) {
-            // Another transaction modified the bed concurrently
-            return BookingResult.failure(
-                "This bed was just modified by another request. Please try again.",
-                "CONCURRENT_MODIFICATION"
-            );
-        } catch (Exception e) {
-            return BookingResult.failure(
-                "An error occurred while processing your application: " + e.getMessage(),
-                "SYSTEM_ERROR"
-            );
-        }
+            try {
+                roomApplicationRepository.saveAndFlush(application);
+            } catch (DataIntegrityViolationException e) {
+                // Another request from the same student won the race
+                status.setRollbackOnly();
+                return existingApplication();
+            }
+            occupancyLedger.record(OccupancyEvent.RESERVE, bed, studentID);
+            bedClaimRegistry.claimOnCommit(bedID);
+
+            // Start the reservation clock only once the reservation is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reservationExpiryQueue.schedule(application.getApplicationID(), application.getApplyTime());
+                }
+            });
+
+            // Room and building are second-level cached
+            Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
+            DormBuilding building = room != null ? buildingRepository.findById(room.getBuildingID()).orElse(null) : null;
+            return BookingResult.reserved("Application submitted successfully",
+                    building != null ? building.getBuildingName() : null,
+                    room != null ? room.getRoomNumber() : null,
+                    bed.getBedNumber());
+        });
     }
 
     /**
      * Approve a room application and check in the student.
      * Uses pessimistic locking to ensure atomic bed assignment.
-     * 
+     *
      * @param applicationID The application to approve
      * @param approverUsername Who is approving
      * @return BookingResult indicating success or failure
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public BookingResult approveApplicationAndCheckIn(Integer applicationID, String approverUsername) {
-        try {
-            // Get application
-            RoomApplication application = roomApplicationRepository.findById(applicationID).orElse(null);
+        return runBooking("approve", "Error approving application: ", status -> {
+            // Lock the application so two managers cannot process it at once
+            RoomApplication application = lockRow(RoomApplication.class, applicationID);
             if (application == null) {
                 return BookingResult.failure("Application not found", "APPLICATION_NOT_FOUND");
             }
@@ -166,7 +232,7 @@ public class RoomBookingService {
             }
 
             // Acquire pessimistic lock on the bed
-            Bed bed = entityManager.find(Bed.class, application.getBedID(), LockModeType.PESSIMISTIC_WRITE);
+            Bed bed = lockRow(Bed.class, application.getBedID());
             if (bed == null) {
                 return BookingResult.failure("Bed no longer exists", "BED_NOT_FOUND");
             }
@@ -186,8 +252,8 @@ public class RoomBookingService {
                 );
             }
 
-            // Get related entities
-            Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
+            // Lock the room row: occupancy is a counter shared by every bed in the room
+            Room room = lockRow(Room.class, bed.getRoomID());
             if (room == null) {
                 return BookingResult.failure("Room not found", "ROOM_NOT_FOUND");
             }
@@ -217,45 +283,44 @@ public class RoomBookingService {
             student.setBedNumber(bed.getBedNumber());
             studentRepository.save(student);
 
-            // 4. Create check-in record
+            // 4. Update application status
+            application.setStatus("Approved");
+            application.setProcessTime(LocalDateTime.now());
+            application.setProcessedBy(approverUsername);
+            roomApplicationRepository.save(application);
+
+            // 5. Create check-in record (unique liveBedID rejects a second live check-in)
             CheckInOut checkInOut = new CheckInOut();
             checkInOut.setStudentID(student.getStudentID());
             checkInOut.setBedID(bed.getBedID());
             checkInOut.setCheckInDate(LocalDate.now());
             checkInOut.setStatus("CurrentlyLiving");
-            checkInOutRepository.save(checkInOut);
+            try {
+                checkInOutRepository.saveAndFlush(checkInOut);
+            } catch (DataIntegrityViolationException e) {
+                status.setRollbackOnly();
+                return BookingResult.failure(
+                    "This bed has already been assigned to another student",
+                    "BED_OCCUPIED"
+                );
+            }
 
-            // 5. Update application status
-            application.setStatus("Approved");
-            application.setProcessTime(LocalDateTime.now());
-            application.setProcessedBy(approverUsername);
-            roomApplicationRepository.save(application);
+            occupancyLedger.record(OccupancyEvent.CHECK_IN, bed.getBedID(), room.getRoomID(), room.getBuildingID(),
+                    student.getStudentID());
 
             return BookingResult.success(String.format(
                 "Student %s successfully checked in to %s Room %s Bed %s",
                 student.getName(), building.getBuildingName(), room.getRoomNumber(), bed.getBedNumber()
             ));
-
-        } catch (ObjectOptimisticLockingFailureException e) {
-            return BookingResult.failure(
-                "Concurrent modification detected. Please try again.",
-                "CONCURRENT_MODIFICATION"
-            );
-        } catch (Exception e) {
-            return BookingResult.failure(
-                "Error approving application: " + e.getMessage(),
-                "SYSTEM_ERROR"
-            );
-        }
+        });
     }
 
     /**
      * Reject an application and release the reserved bed.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public BookingResult rejectApplication(Integer applicationID, String rejectReason, String rejectorUsername) {
-        try {
-            RoomApplication application = roomApplicationRepository.findById(applicationID).orElse(null);
+        return runBooking("reject", "Error rejecting application: ", status -> {
+            RoomApplication application = lockRow(RoomApplication.class, applicationID);
             if (application == null) {
                 return BookingResult.failure("Application not found", "APPLICATION_NOT_FOUND");
             }
@@ -268,12 +333,14 @@ public class RoomBookingService {
             }
 
             // Get bed with lock
-            Bed bed = entityManager.find(Bed.class, application.getBedID(), LockModeType.PESSIMISTIC_WRITE);
-            
+            Bed bed = lockRow(Bed.class, application.getBedID());
+
             // If bed was reserved for this application, make it available again
             if (bed != null && "Reserved".equalsIgnoreCase(bed.getStatus())) {
                 bed.setStatus("Available");
                 bedRepository.save(bed);
+                bedClaimRegistry.releaseAfterCommit(bed.getBedID());
+                occupancyLedger.record(OccupancyEvent.RELEASE, bed, application.getStudentID());
             }
 
             // Update application
@@ -284,25 +351,66 @@ public class RoomBookingService {
             roomApplicationRepository.save(application);
 
             return BookingResult.success("Application rejected");
+        });
+    }
 
-        } catch (Exception e) {
-            return BookingResult.failure(
-                "Error rejecting application: " + e.getMessage(),
-                "SYSTEM_ERROR"
-            );
+    /**
+     * Expire stale pending applications and release their reserved beds.
+     * Applications that were approved or rejected in the meantime are skipped.
+     *
+     * @param applicationIDs Applications whose reservation TTL has passed
+     * @param reason Reject reason recorded on each expired application
+     * @return IDs of the applications that were actually expired
+     */
+    public List<Integer> expireReservations(List<Integer> applicationIDs, String reason) {
+        Timer.Sample sample = appMetrics.startTimer();
+        String outcome = "SYSTEM_ERROR";
+        try {
+            List<Integer> expired = expireWithRetry(applicationIDs, reason);
+            outcome = null;
+            return expired;
+        } finally {
+            appMetrics.recordBooking(sample, "expire", outcome);
         }
     }
 
+    private List<Integer> expireWithRetry(List<Integer> applicationIDs, String reason) {
+        return retryExecutor.execute("expire", () -> bookingTransaction.execute(status -> {
+            List<Integer> expired = new ArrayList<>();
+            for (Integer applicationID : applicationIDs) {
+                RoomApplication application = lockRow(RoomApplication.class, applicationID);
+                if (application == null || !"Pending".equals(application.getStatus())) {
+                    continue;
+                }
+
+                Bed bed = lockRow(Bed.class, application.getBedID());
+                if (bed != null && "Reserved".equalsIgnoreCase(bed.getStatus())) {
+                    bed.setStatus("Available");
+                    bedRepository.save(bed);
+                    bedClaimRegistry.releaseAfterCommit(bed.getBedID());
+                    occupancyLedger.record(OccupancyEvent.RELEASE, bed, application.getStudentID());
+                }
+
+                application.setStatus("Rejected");
+                application.setProcessTime(LocalDateTime.now());
+                application.setProcessedBy("system");
+                application.setRejectReason(reason);
+                roomApplicationRepository.save(application);
+                expired.add(applicationID);
+            }
+            return expired;
+        }));
+    }
+
     /**
      * Direct bed booking (for admin/manager direct check-in without application).
      * Uses atomic update to prevent race conditions.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public BookingResult directCheckIn(String studentID, Integer bedID) {
-        try {
+        return runBooking("direct-check-in", "Error during check-in: ", status -> {
             // Atomic update - only succeeds if bed is Available
             int rowsUpdated = bedRepository.occupyBed(bedID);
-            
+
             if (rowsUpdated == 0) {
                 return BookingResult.failure(
                     "Bed is not available. It may have been booked by someone else.",
@@ -310,19 +418,18 @@ public class RoomBookingService {
                 );
             }
 
-            // Bed is now occupied, proceed with check-in
-            Bed bed = bedRepository.findById(bedID).orElse(null);
-            Room room = roomRepository.findById(bed.getRoomID()).orElse(null);
-            DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
             Student student = studentRepository.findById(studentID).orElse(null);
-
             if (student == null) {
-                // Rollback - release the bed
-                bed.setStatus("Available");
-                bedRepository.save(bed);
+                // Roll back - releases the bed
+                status.setRollbackOnly();
                 return BookingResult.failure("Student not found", "STUDENT_NOT_FOUND");
             }
 
+            // Bed is now occupied, proceed with check-in
+            Bed bed = bedRepository.findById(bedID).orElse(null);
+            Room room = lockRow(Room.class, bed.getRoomID());
+            DormBuilding building = buildingRepository.findById(room.getBuildingID()).orElse(null);
+
             // Update room occupancy
             room.setCurrentOccupancy(room.getCurrentOccupancy() + 1);
             roomRepository.save(room);
@@ -339,15 +446,72 @@ public class RoomBookingService {
             checkInOut.setBedID(bedID);
             checkInOut.setCheckInDate(LocalDate.now());
             checkInOut.setStatus("CurrentlyLiving");
-            checkInOutRepository.save(checkInOut);
+            try {
+                checkInOutRepository.saveAndFlush(checkInOut);
+            } catch (DataIntegrityViolationException e) {
+                status.setRollbackOnly();
+                return BookingResult.failure(
+                    "Bed is not available. It may have been booked by someone else.",
+                    "BED_NOT_AVAILABLE"
+                );
+            }
+
+            occupancyLedger.record(OccupancyEvent.CHECK_IN, bedID, room.getRoomID(), room.getBuildingID(), studentID);
 
             return BookingResult.success("Check-in successful");
+        });
+    }
+
+    /**
+     * SELECT ... FOR UPDATE on one row, traced as its own span so lock waits show up in /api/admin/traces
+     */
+    private <T> T lockRow(Class<T> type, Object id) {
+        Tracer.Span span = tracer.start("lock " + type.getSimpleName(), "lock");
+        try {
+            return entityManager.find(type, id, LockModeType.PESSIMISTIC_WRITE);
+        } catch (RuntimeException e) {
+            if (span != null) span.fail(e);
+            throw e;
+        } finally {
+            tracer.finish(span);
+        }
+    }
 
-        } catch (Exception e) {
+    /**
+     * Run one booking operation in a READ_COMMITTED transaction with bounded retry,
+     * translating infrastructure failures into a BookingResult.
+     */
+    private BookingResult runBooking(String operation, String errorPrefix, TransactionCallback<BookingResult> work) {
+        Timer.Sample sample = appMetrics.startTimer();
+        BookingResult result = runWithRetry(operation, errorPrefix, work);
+        appMetrics.recordBooking(sample, operation, result != null ? result.getErrorCode() : "SYSTEM_ERROR");
+        return result;
+    }
+
+    private BookingResult runWithRetry(String operation, String errorPrefix, TransactionCallback<BookingResult> work) {
+        try {
+            return retryExecutor.execute(operation, () -> bookingTransaction.execute(work));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Another transaction modified the bed concurrently
             return BookingResult.failure(
-                "Error during check-in: " + e.getMessage(),
-                "SYSTEM_ERROR"
+                "This bed was just modified by another request. Please try again.",
+                "CONCURRENT_MODIFICATION"
             );
+        } catch (RuntimeException e) {
+            if (BookingRetryExecutor.isTransientLockFailure(e)) {
+                return BookingResult.failure(
+                    "The booking system is busy right now. Please try again.",
+                    "CONCURRENT_MODIFICATION"
+                );
+            }
+            return BookingResult.failure(errorPrefix + e.getMessage(), "SYSTEM_ERROR");
         }
     }
+
+    private BookingResult existingApplication() {
+        return BookingResult.failure(
+            "You already have a pending room application",
+            "EXISTING_APPLICATION"
+        );
+    }
 }
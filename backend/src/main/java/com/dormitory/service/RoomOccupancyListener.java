@@ -0,0 +1,33 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on Room and DormBuilding that queues the affected RoomOccupancy rows
+ * for refresh once the writing transaction commits.
+ */
+@Component
+public class RoomOccupancyListener {
+
+    @Autowired
+    @Lazy
+    private RoomOccupancyService roomOccupancyService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Room room) {
+            roomOccupancyService.roomChanged(room.getRoomID());
+        } else if (entity instanceof DormBuilding building) {
+            roomOccupancyService.buildingChanged(building.getBuildingID());
+        }
+    }
+}
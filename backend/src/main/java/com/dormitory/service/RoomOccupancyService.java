@@ -0,0 +1,348 @@
+package com.dormitory.service;
+
+import com.dormitory.dto.OccupancyPage;
+import com.dormitory.dto.OccupancyRow;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.entity.RoomOccupancy;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomOccupancyRepository;
+import com.dormitory.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the materialized RoomOccupancy table and serves the occupancy grid from it.
+ *
+ * Room and DormBuilding writes are collected per transaction by {@link RoomOccupancyListener};
+ * after commit the touched rows are refreshed in one REQUIRES_NEW transaction. The grid query uses
+ * keyset pagination over (sort column, buildingName, roomNumber, roomID), so the cost of a page
+ * does not grow with its depth, and building/room filters are prefix matches that can use the index.
+ */
+@Service
+public class RoomOccupancyService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomOccupancyService.class);
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "building", "buildingName",
+            "room", "roomNumber",
+            "capacity", "capacity",
+            "current", "currentOccupancy",
+            "rate", "occupancyRate");
+
+    private static final char CURSOR_SEPARATOR = '\u001F';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private RoomOccupancyRepository roomOccupancyRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate refreshTransaction;
+
+    @PostConstruct
+    void initRefreshTransaction() {
+        refreshTransaction = new TransactionTemplate(transactionManager);
+        refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Rooms and buildings written in the current transaction
+     */
+    private static final class PendingRefresh {
+        final Set<Integer> roomIDs = new HashSet<>();
+        final Set<Integer> buildingIDs = new HashSet<>();
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Maintenance
+    // ---------------------------------------------------------------------------------------
+
+    public void roomChanged(Integer roomID) {
+        if (roomID != null) {
+            pending(p -> p.roomIDs.add(roomID));
+        }
+    }
+
+    public void buildingChanged(Integer buildingID) {
+        if (buildingID != null) {
+            pending(p -> p.buildingIDs.add(buildingID));
+        }
+    }
+
+    private void pending(Consumer<PendingRefresh> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingRefresh now = new PendingRefresh();
+            change.accept(now);
+            refresh(now);
+            return;
+        }
+        PendingRefresh pending = (PendingRefresh) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingRefresh created = new PendingRefresh();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RoomOccupancyService.this);
+                    if (status == STATUS_COMMITTED) {
+                        refresh(created);
+                    }
+                }
+            });
+            pending = created;
+        }
+        change.accept(pending);
+    }
+
+    private void refresh(PendingRefresh pending) {
+        try {
+            refreshTransaction.executeWithoutResult(status -> {
+                if (!pending.buildingIDs.isEmpty()) {
+                    // Building renamed or removed: rebuild all of its rows
+                    roomOccupancyRepository.deleteByBuildingIDs(pending.buildingIDs);
+                    roomRepository.findByBuildingIDIn(pending.buildingIDs)
+                            .forEach(r -> pending.roomIDs.add(r.getRoomID()));
+                }
+                if (pending.roomIDs.isEmpty()) {
+                    return;
+                }
+
+                Map<Integer, Room> rooms = roomRepository.findAllById(pending.roomIDs).stream()
+                        .collect(Collectors.toMap(Room::getRoomID, Function.identity()));
+                Map<Integer, DormBuilding> buildings = buildingRepository.findAllById(
+                                rooms.values().stream().map(Room::getBuildingID).collect(Collectors.toSet())).stream()
+                        .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+
+                List<RoomOccupancy> upserts = new ArrayList<>();
+                for (Integer roomID : pending.roomIDs) {
+                    Room room = rooms.get(roomID);
+                    DormBuilding building = room != null ? buildings.get(room.getBuildingID()) : null;
+                    if (building == null) {
+                        roomOccupancyRepository.findById(roomID).ifPresent(roomOccupancyRepository::delete);
+                    } else {
+                        upserts.add(toRow(room, building));
+                    }
+                }
+                roomOccupancyRepository.saveAll(upserts);
+            });
+        } catch (RuntimeException e) {
+            // The next write to the room (or a reconciler fix) refreshes it again
+            log.warn("Refresh failed for rooms {}: {}", pending.roomIDs, e.getMessage());
+        }
+    }
+
+    /**
+     * Populate the table on startup when it does not cover every room
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePopulated() {
+        if (roomOccupancyRepository.count() != roomRepository.count()) {
+            int rows = rebuildAll();
+            log.info("Materialized {} rooms", rows);
+        }
+    }
+
+    /**
+     * Recompute every row from Room and DormBuilding
+     */
+    public int rebuildAll() {
+        Integer rows = refreshTransaction.execute(status -> {
+            Map<Integer, DormBuilding> buildings = buildingRepository.findAll().stream()
+                    .collect(Collectors.toMap(DormBuilding::getBuildingID, Function.identity()));
+            List<RoomOccupancy> all = new ArrayList<>();
+            for (Room room : roomRepository.findAll()) {
+                DormBuilding building = buildings.get(room.getBuildingID());
+                if (building != null) {
+                    all.add(toRow(room, building));
+                }
+            }
+            roomOccupancyRepository.deleteAllInBatch();
+            roomOccupancyRepository.saveAll(all);
+            return all.size();
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static RoomOccupancy toRow(Room room, DormBuilding building) {
+        int capacity = room.getCapacity() != null ? room.getCapacity() : 0;
+        int current = room.getCurrentOccupancy() != null ? room.getCurrentOccupancy() : 0;
+
+        RoomOccupancy row = new RoomOccupancy();
+        row.setRoomID(room.getRoomID());
+        row.setBuildingID(building.getBuildingID());
+        row.setBuildingName(building.getBuildingName() != null ? building.getBuildingName() : "");
+        row.setRoomNumber(room.getRoomNumber() != null ? room.getRoomNumber() : "");
+        row.setCapacity(capacity);
+        row.setCurrentOccupancy(current);
+        row.setOccupancyRate(capacity > 0 ? Math.round(current * 10000.0 / capacity) / 100.0 : 0.0);
+        row.setUpdatedAt(LocalDateTime.now());
+        return row;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Grid query
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * One page of the occupancy grid. With a cursor (from the previous page's nextCursor) the page
+     * is found by keyset; without one, page/size fall back to an offset for the first pages.
+     */
+    public OccupancyPage findPage(int page, int size, String building, String room, Double minRate, Double maxRate,
+                                  String sort, String order, String cursor) {
+        String sortCol = SORT_COLUMNS.getOrDefault(sort == null ? "" : sort.toLowerCase(), "buildingName");
+        boolean desc = order != null && order.equalsIgnoreCase("desc");
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(List.of(sortCol, "buildingName", "roomNumber", "roomID")));
+
+        StringBuilder where = new StringBuilder(" WHERE 1=1");
+        Map<String, Object> params = new HashMap<>();
+        if (building != null && !building.isBlank()) {
+            where.append(" AND o.buildingName LIKE :building ESCAPE '!'");
+            params.put("building", likePrefix(building.trim()));
+        }
+        if (room != null && !room.isBlank()) {
+            where.append(" AND o.roomNumber LIKE :room ESCAPE '!'");
+            params.put("room", likePrefix(room.trim()));
+        }
+        if (minRate != null) {
+            where.append(" AND o.occupancyRate >= :minRate");
+            params.put("minRate", minRate);
+        }
+        if (maxRate != null) {
+            where.append(" AND o.occupancyRate <= :maxRate");
+            params.put("maxRate", maxRate);
+        }
+
+        TypedQuery<Long> countQuery = entityManager.createQuery(
+                "SELECT COUNT(o) FROM RoomOccupancy o" + where, Long.class);
+        params.forEach(countQuery::setParameter);
+        long total = countQuery.getSingleResult();
+
+        StringBuilder keyset = new StringBuilder();
+        List<Object> cursorValues = decodeCursor(cursor, keys);
+        if (cursorValues != null) {
+            String cmp = desc ? "<" : ">";
+            keyset.append(" AND (");
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) keyset.append(" OR ");
+                keyset.append("(");
+                for (int j = 0; j < i; j++) {
+                    keyset.append("o.").append(keys.get(j)).append(" = :k").append(j).append(" AND ");
+                }
+                keyset.append("o.").append(keys.get(i)).append(' ').append(cmp).append(" :k").append(i).append(")");
+            }
+            keyset.append(")");
+        }
+
+        String dir = desc ? " DESC" : " ASC";
+        String orderBy = keys.stream().map(k -> "o." + k + dir).collect(Collectors.joining(", "));
+        TypedQuery<RoomOccupancy> dataQuery = entityManager.createQuery(
+                "SELECT o FROM RoomOccupancy o" + where + keyset + " ORDER BY " + orderBy, RoomOccupancy.class);
+        params.forEach(dataQuery::setParameter);
+        if (cursorValues != null) {
+            for (int i = 0; i < cursorValues.size(); i++) {
+                dataQuery.setParameter("k" + i, cursorValues.get(i));
+            }
+        } else {
+            dataQuery.setFirstResult((page - 1) * size);
+        }
+        dataQuery.setMaxResults(size);
+        List<RoomOccupancy> rows = dataQuery.getResultList();
+
+        List<OccupancyRow> items = new ArrayList<>(rows.size());
+        for (RoomOccupancy r : rows) {
+            OccupancyRow o = new OccupancyRow();
+            o.setBuildingName(r.getBuildingName());
+            o.setRoomNumber(r.getRoomNumber());
+            o.setCapacity(r.getCapacity());
+            o.setCurrentOccupancy(r.getCurrentOccupancy());
+            o.setOccupancyRate(r.getOccupancyRate());
+            items.add(o);
+        }
+
+        OccupancyPage result = new OccupancyPage(items, total, page, size);
+        if (rows.size() == size) {
+            result.setNextCursor(encodeCursor(rows.get(rows.size() - 1), keys));
+        }
+        return result;
+    }
+
+    private static String likePrefix(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static Object keyValue(RoomOccupancy row, String key) {
+        return switch (key) {
+            case "buildingName" -> row.getBuildingName();
+            case "roomNumber" -> row.getRoomNumber();
+            case "capacity" -> row.getCapacity();
+            case "currentOccupancy" -> row.getCurrentOccupancy();
+            case "occupancyRate" -> row.getOccupancyRate();
+            default -> row.getRoomID();
+        };
+    }
+
+    private static String encodeCursor(RoomOccupancy row, List<String> keys) {
+        String raw = keys.stream()
+                .map(k -> String.valueOf(keyValue(row, k)))
+                .collect(Collectors.joining(String.valueOf(CURSOR_SEPARATOR)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the key values, or null when there is no (valid) cursor
+     */
+    private static List<Object> decodeCursor(String cursor, List<String> keys) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(CURSOR_SEPARATOR), -1);
+            if (parts.length != keys.size()) {
+                return null;
+            }
+            List<Object> values = new ArrayList<>(parts.length);
+            for (int i = 0; i < parts.length; i++) {
+                values.add(switch (keys.get(i)) {
+                    case "buildingName", "roomNumber" -> parts[i];
+                    case "occupancyRate" -> Double.valueOf(parts[i]);
+                    default -> Integer.valueOf(parts[i]);
+                });
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.dormitory.service;
+
+import com.dormitory.config.QueryCountingDataSource;
+import com.dormitory.util.SampledLogger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.temporal.Temporal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Slow-query log with automatic EXPLAIN capture.
+ *
+ * Every JDBC statement is timed by {@link QueryCountingDataSource}; statements above the threshold are
+ * reported here with their bind parameters, aggregated by fingerprint (the SQL with literals replaced by
+ * '?', IN lists collapsed and whitespace normalised) and, for SELECT/UPDATE/DELETE, explained on a
+ * background thread using the captured parameters. Plans are refreshed at most every few minutes per
+ * fingerprint; when a refreshed plan differs from the previous one the entry is marked planChanged,
+ * which is how an index regression after a deploy shows up in the report.
+ */
+@Service
+public class SlowQueryService implements QueryCountingDataSource.SlowStatementListener {
+
+    private static final SampledLogger log = SampledLogger.of(SlowQueryService.class, 5);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(select|update|delete|with)\\b.*");
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.slow-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.slow-query.threshold-ms:200}")
+    private long thresholdMs;
+
+    @Value("${app.slow-query.explain:true}")
+    private boolean explain;
+
+    @Value("${app.slow-query.explain-refresh-minutes:10}")
+    private long explainRefreshMinutes;
+
+    @Value("${app.slow-query.max-fingerprints:500}")
+    private int maxFingerprints;
+
+    private long thresholdNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor explainExecutor;
+
+    /**
+     * Aggregate for one statement fingerprint
+     */
+    public static class Entry {
+        private final String fingerprint;
+        private final LocalDateTime firstSeen = LocalDateTime.now();
+        private String sampleSql;
+        private Map<Integer, Object> lastParameters;
+        private LocalDateTime lastSeen;
+        private long count;
+        private double totalMs;
+        private double maxMs;
+        private List<Map<String, Object>> plan;
+        private List<Map<String, Object>> previousPlan;
+        private LocalDateTime planCapturedAt;
+        private String planError;
+        private boolean planChanged;
+        private boolean explainPending;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        synchronized void add(String sql, Map<Integer, Object> parameters, double ms) {
+            count++;
+            totalMs += ms;
+            if (ms >= maxMs) {
+                // keep the slowest execution as the sample
+                maxMs = ms;
+                sampleSql = sql;
+                lastParameters = parameters;
+            }
+            lastSeen = LocalDateTime.now();
+        }
+
+        synchronized boolean claimExplain(long refreshMinutes) {
+            if (explainPending || (planCapturedAt != null && planCapturedAt.plusMinutes(refreshMinutes).isAfter(LocalDateTime.now()))) {
+                return false;
+            }
+            explainPending = true;
+            return true;
+        }
+
+        synchronized void setPlan(List<Map<String, Object>> newPlan, String error) {
+            explainPending = false;
+            planCapturedAt = LocalDateTime.now();
+            planError = error;
+            if (newPlan != null) {
+                if (plan != null && !plan.equals(newPlan)) {
+                    previousPlan = plan;
+                    planChanged = true;
+                }
+                plan = newPlan;
+            }
+        }
+
+        synchronized double getTotalMs() { return totalMs; }
+        synchronized double getMaxMs() { return maxMs; }
+        synchronized long getCount() { return count; }
+        synchronized boolean isPlanChanged() { return planChanged; }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("fingerprint", fingerprint);
+            item.put("count", count);
+            item.put("totalMs", round(totalMs));
+            item.put("avgMs", count > 0 ? round(totalMs / count) : 0.0);
+            item.put("maxMs", round(maxMs));
+            item.put("firstSeen", firstSeen);
+            item.put("lastSeen", lastSeen);
+            item.put("slowestSql", sampleSql);
+            item.put("slowestParameters", lastParameters);
+            item.put("plan", plan);
+            item.put("planCapturedAt", planCapturedAt);
+            item.put("planError", planError);
+            item.put("planChanged", planChanged);
+            if (planChanged) {
+                item.put("previousPlan", previousPlan);
+            }
+            return item;
+        }
+    }
+
+    @PostConstruct
+    void register() {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+                r -> {
+                    Thread t = new Thread(r, "slow-query-explain");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        if (enabled) {
+            QueryCountingDataSource.setSlowStatementListener(this);
+        }
+    }
+
+    @PreDestroy
+    void unregister() {
+        QueryCountingDataSource.setSlowStatementListener(null);
+        explainExecutor.shutdownNow();
+    }
+
+    @Override
+    public long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    @Override
+    public void slowStatement(String sql, Map<Integer, Object> parameters, long nanos) {
+        if (Thread.currentThread().getName().equals("slow-query-explain")) {
+            return; // never report our own EXPLAINs
+        }
+        double ms = nanos / 1_000_000.0;
+        String fingerprint = fingerprint(sql);
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxFingerprints) {
+                return;
+            }
+            entry = entries.computeIfAbsent(fingerprint, Entry::new);
+        }
+        Map<Integer, Object> safeParameters = sanitize(parameters);
+        entry.add(sql, safeParameters, ms);
+        log.info("Slow statement ({} ms): {}", round(ms), abbreviate(sql));
+
+        if (explain && safeParameters != null && EXPLAINABLE.matcher(sql).matches() && entry.claimExplain(explainRefreshMinutes)) {
+            Entry target = entry;
+            explainExecutor.execute(() -> capturePlan(target, sql, safeParameters));
+        }
+    }
+
+    /**
+     * Run EXPLAIN with the captured parameters on the raw pool (not timed, not counted)
+     */
+    private void capturePlan(Entry entry, String sql, Map<Integer, Object> parameters) {
+        List<Map<String, Object>> plan = new ArrayList<>();
+        try (Connection connection = dataSource.unwrap(DataSource.class).getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            connection.setReadOnly(true);
+            for (Map.Entry<Integer, Object> p : parameters.entrySet()) {
+                statement.setObject(p.getKey(), p.getValue());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        row.put(meta.getColumnLabel(i), rs.getObject(i));
+                    }
+                    plan.add(row);
+                }
+            }
+            entry.setPlan(plan, null);
+        } catch (SQLException | RuntimeException e) {
+            entry.setPlan(null, e.getMessage());
+        }
+    }
+
+    /**
+     * Ranked report: sort by total (default), max or count
+     */
+    public Map<String, Object> report(int limit, String sort) {
+        Comparator<Entry> order = switch (sort == null ? "total" : sort) {
+            case "max" -> Comparator.comparingDouble(Entry::getMaxMs);
+            case "count" -> Comparator.comparingLong(Entry::getCount);
+            default -> Comparator.comparingDouble(Entry::getTotalMs);
+        };
+        List<Map<String, Object>> items = entries.values().stream()
+                .sorted(order.reversed())
+                .limit(Math.max(1, limit))
+                .map(Entry::toMap)
+                .toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("thresholdMs", thresholdMs);
+        result.put("fingerprints", entries.size());
+        result.put("planChanges", entries.values().stream().filter(Entry::isPlanChanged).count());
+        result.put("queries", items);
+        return result;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Statement shape without literal values, so executions with different values aggregate together
+     */
+    static String fingerprint(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("in (?...)");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keep simple values for the report and for EXPLAIN; null if any parameter cannot be replayed
+     */
+    private static Map<Integer, Object> sanitize(Map<Integer, Object> parameters) {
+        Map<Integer, Object> safe = new TreeMap<>();
+        for (Map.Entry<Integer, Object> p : parameters.entrySet()) {
+            Object value = p.getValue();
+            if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Temporal
+                    || value instanceof java.util.Date) {
+                safe.put(p.getKey(), value);
+            } else if (value instanceof String str) {
+                if (str.length() > MAX_PARAMETER_LENGTH) {
+                    return null;
+                }
+                safe.put(p.getKey(), str);
+            } else {
+                return null;
+            }
+        }
+        return safe;
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() > 300 ? sql.substring(0, 300) + "..." : sql;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
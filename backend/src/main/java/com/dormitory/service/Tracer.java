@@ -0,0 +1,244 @@
+package com.dormitory.service;
+
+import com.dormitory.config.CorrelationIdFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process span tracing with a local in-memory store, no external collector.
+ *
+ * Spans are opened by TracingAspect around controller, service and repository calls (and by hand around
+ * row locks), nest through a thread-local "current span", and follow async hand-offs through
+ * MdcTaskDecorator. A span without a parent starts a new trace; when that root span ends the trace is
+ * kept in a bounded ring of recent traces, from which /api/admin/traces lists the slowest.
+ * Spans of async work that outlive their root are still attached to it as they finish.
+ *
+ * Deliberately a plain @Component, not a @Service, so the tracing aspect never wraps it.
+ */
+@Component
+public class Tracer {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    @Value("${app.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tracing.max-traces:2000}")
+    private int maxTraces;
+
+    @Value("${app.tracing.max-spans-per-trace:500}")
+    private int maxSpansPerTrace;
+
+    private final Deque<Span> recent = new ArrayDeque<>();
+
+    /**
+     * One timed operation; the root span of a trace also carries the trace-wide fields
+     */
+    public static class Span {
+        private final String traceId;
+        private final int spanId;
+        @JsonIgnore
+        private final Span root;
+        private final String name;
+        private final String kind;
+        private final String thread;
+        private final Instant startedAt;
+        @JsonIgnore
+        private final long startNanos;
+        private volatile long durationNanos = -1;
+        private volatile String error;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final List<Span> children = new ArrayList<>();
+        @JsonIgnore
+        private final AtomicInteger spanCount;
+        /** Span that was current on this thread when this one started; restored when it ends */
+        @JsonIgnore
+        private Span previous;
+
+        Span(Span parent, String name, String kind) {
+            this.root = parent != null ? parent.root : this;
+            this.traceId = parent != null ? parent.traceId : Long.toHexString(ThreadLocalRandom.current().nextLong());
+            this.spanCount = parent != null ? parent.spanCount : new AtomicInteger();
+            this.spanId = spanCount.incrementAndGet();
+            this.name = name;
+            this.kind = kind;
+            this.thread = Thread.currentThread().getName();
+            this.startedAt = Instant.now();
+            this.startNanos = System.nanoTime();
+        }
+
+        public Span attribute(String key, String value) {
+            if (value != null) {
+                synchronized (root) {
+                    attributes.put(key, value);
+                }
+            }
+            return this;
+        }
+
+        public void fail(Throwable t) {
+            error = t.getClass().getSimpleName() + (t.getMessage() != null ? ": " + t.getMessage() : "");
+        }
+
+        public String getTraceId() { return traceId; }
+        public int getSpanId() { return spanId; }
+        public String getName() { return name; }
+        public String getKind() { return kind; }
+        public String getThread() { return thread; }
+        public Instant getStartedAt() { return startedAt; }
+        public String getError() { return error; }
+
+        /** Milliseconds, or null while the span is still running */
+        public Double getDurationMs() {
+            long d = durationNanos;
+            return d < 0 ? null : Math.round(d / 10_000.0) / 100.0;
+        }
+
+        public Map<String, String> getAttributes() {
+            synchronized (root) {
+                return new LinkedHashMap<>(attributes);
+            }
+        }
+
+        public List<Span> getChildren() {
+            synchronized (root) {
+                return new ArrayList<>(children);
+            }
+        }
+
+        boolean isRoot() { return root == this; }
+        long durationNanos() { return durationNanos; }
+        int spanCount() { return spanCount.get(); }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------------------------------
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make the given span the current parent (for async hand-offs)
+     *
+     * @return the span that was current before, to be restored afterwards
+     */
+    public static Span swap(Span span) {
+        Span previous = CURRENT.get();
+        if (span != null) {
+            CURRENT.set(span);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Open a span as a child of the current one (or as a new trace)
+     *
+     * @return the span, or null when tracing is disabled or the trace is full
+     */
+    public Span start(String name, String kind) {
+        if (!enabled) {
+            return null;
+        }
+        Span parent = CURRENT.get();
+        if (parent != null && parent.spanCount.get() >= maxSpansPerTrace) {
+            return null;
+        }
+        Span span = new Span(parent, name, kind);
+        if (parent != null) {
+            synchronized (span.root) {
+                parent.children.add(span);
+            }
+        } else {
+            span.attribute("correlationId", MDC.get(CorrelationIdFilter.MDC_KEY));
+        }
+        span.previous = parent;
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Close a span opened by {@link #start} on this thread
+     */
+    public void finish(Span span) {
+        if (span == null) {
+            return;
+        }
+        span.durationNanos = System.nanoTime() - span.startNanos;
+        swap(span.previous);
+        if (span.isRoot()) {
+            synchronized (recent) {
+                recent.addFirst(span);
+                while (recent.size() > maxTraces) {
+                    recent.removeLast();
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Slowest recent traces, summarised (no span tree)
+     */
+    public Map<String, Object> slowest(int limit, String nameFilter) {
+        List<Span> traces;
+        synchronized (recent) {
+            traces = new ArrayList<>(recent);
+        }
+        List<Map<String, Object>> items = traces.stream()
+                .filter(t -> nameFilter == null || nameFilter.isBlank() || t.name.contains(nameFilter)
+                        || t.getAttributes().getOrDefault("http", "").contains(nameFilter))
+                .sorted(Comparator.comparingLong(Span::durationNanos).reversed())
+                .limit(Math.max(1, limit))
+                .map(Tracer::summary)
+                .toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("tracesKept", traces.size());
+        result.put("traces", items);
+        return result;
+    }
+
+    public Span find(String traceId) {
+        synchronized (recent) {
+            for (Span trace : recent) {
+                if (trace.traceId.equals(traceId)) {
+                    return trace;
+                }
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    private static Map<String, Object> summary(Span trace) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("traceId", trace.traceId);
+        item.put("name", trace.name);
+        item.put("startedAt", trace.startedAt);
+        item.put("durationMs", trace.getDurationMs());
+        item.put("spans", trace.spanCount());
+        item.put("error", trace.error);
+        item.putAll(trace.getAttributes());
+        return item;
+    }
+}
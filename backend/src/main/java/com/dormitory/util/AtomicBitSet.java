@@ -0,0 +1,53 @@
+package com.dormitory.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, unbounded bit set for non-negative int keys.
+ * Bits are stored in 64K-bit pages that are allocated on first use, so sparse
+ * ID ranges stay small. set/clear/get are safe to call from any thread.
+ */
+public class AtomicBitSet {
+
+    private static final int PAGE_BITS = 16;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / 64;
+
+    private final ConcurrentHashMap<Integer, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    public boolean get(int index) {
+        AtomicLongArray page = pages.get(index >>> PAGE_BITS);
+        if (page == null) return false;
+        return (page.get(wordIndex(index)) & mask(index)) != 0;
+    }
+
+    /**
+     * Set the bit
+     * @return true if the bit was previously clear
+     */
+    public boolean set(int index) {
+        AtomicLongArray page = pages.computeIfAbsent(index >>> PAGE_BITS, k -> new AtomicLongArray(WORDS_PER_PAGE));
+        long mask = mask(index);
+        long previous = page.getAndAccumulate(wordIndex(index), mask, (word, m) -> word | m);
+        return (previous & mask) == 0;
+    }
+
+    public void clear(int index) {
+        AtomicLongArray page = pages.get(index >>> PAGE_BITS);
+        if (page != null) {
+            page.getAndAccumulate(wordIndex(index), ~mask(index), (word, m) -> word & m);
+        }
+    }
+
+    public void clearAll() {
+        pages.clear();
+    }
+
+    private static int wordIndex(int index) {
+        return (index & ((1 << PAGE_BITS) - 1)) >>> 6;
+    }
+
+    private static long mask(int index) {
+        return 1L << (index & 63);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dormitory.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate-limited INFO logging for high-frequency events (audit writes, per-row seeding messages).
+ *
+ * At most {@code perSecond} events are written in each one-second window; the rest are counted and
+ * reported as a single "suppressed" line when the next event gets through. Setting the logger to
+ * DEBUG turns sampling off and writes every event.
+ */
+public class SampledLogger {
+
+    private final Logger delegate;
+    private final int perSecond;
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger emitted = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public SampledLogger(Logger delegate, int perSecond) {
+        this.delegate = delegate;
+        this.perSecond = Math.max(1, perSecond);
+    }
+
+    public static SampledLogger of(Class<?> type, int perSecond) {
+        return new SampledLogger(LoggerFactory.getLogger(type), perSecond);
+    }
+
+    public void info(String format, Object arg) {
+        if (admit()) delegate.info(format, arg);
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (admit()) delegate.info(format, arg1, arg2);
+    }
+
+    public void info(String format, Object... args) {
+        if (admit()) delegate.info(format, args);
+    }
+
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    private boolean admit() {
+        if (!delegate.isInfoEnabled()) {
+            return false;
+        }
+        if (delegate.isDebugEnabled()) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            emitted.set(0);
+        }
+        if (emitted.incrementAndGet() > perSecond) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            delegate.info("{} similar events suppressed by sampling (limit {}/s)", dropped, perSecond);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package com.dormitory.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free approximate event counter per key over a sliding time window, in fixed memory.
+ *
+ * Counts live in a count-min sketch ({@code depth} rows of {@code width} counters; a key increments one
+ * counter per row and its count is the smallest of them), so memory does not grow with the number of
+ * distinct keys and estimates can only be too high, never too low. Two fixed windows are kept, the
+ * current and the previous one; the sliding count is current + previous weighted by how much of the
+ * previous window still overlaps the sliding one. Keys are hashed with a per-instance random seed so
+ * colliding keys cannot be precomputed.
+ */
+public class SlidingWindowSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long windowMillis;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final AtomicReference<Window> window;
+
+    private static final class Window {
+        final long start;
+        final AtomicIntegerArray counts;
+        /** Counts of the window just before this one, or null if it was empty */
+        final AtomicIntegerArray previous;
+
+        Window(long start, AtomicIntegerArray counts, AtomicIntegerArray previous) {
+            this.start = start;
+            this.counts = counts;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * @param depth        number of hash rows (more rows, fewer overestimates)
+     * @param width        counters per row, rounded up to a power of two
+     * @param windowMillis length of the sliding window
+     */
+    public SlidingWindowSketch(int depth, int width, long windowMillis) {
+        this.depth = Math.max(1, depth);
+        int w = Math.max(16, Integer.highestOneBit(Math.max(1, width - 1)) << 1);
+        this.mask = w - 1;
+        this.windowMillis = windowMillis;
+        this.window = new AtomicReference<>(new Window(0, new AtomicIntegerArray(this.depth * w), null));
+    }
+
+    /**
+     * Count one event for the key
+     *
+     * @return estimated events for the key in the sliding window, including this one
+     */
+    public long incrementAndEstimate(String key, long nowMillis) {
+        Window w = current(nowMillis);
+        long h = hash(key);
+        double previousWeight = previousWeight(w, nowMillis);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(h, row);
+            long count = w.counts.incrementAndGet(index);
+            if (w.previous != null) {
+                count += (long) (w.previous.get(index) * previousWeight);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated events for the key in the sliding window, without counting one
+     */
+    public long estimate(String key, long nowMillis) {
+        Window w = current(nowMillis);
+        long h = hash(key);
+        double previousWeight = previousWeight(w, nowMillis);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(h, row);
+            long count = w.counts.get(index);
+            if (w.previous != null) {
+                count += (long) (w.previous.get(index) * previousWeight);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /** Bytes held by the counters (current and previous window) */
+    public long memoryBytes() {
+        return 2L * depth * (mask + 1) * Integer.BYTES;
+    }
+
+    /**
+     * The window containing now, rotating if it has ended. A losing CAS just uses the winner's window.
+     */
+    private Window current(long nowMillis) {
+        while (true) {
+            Window w = window.get();
+            if (nowMillis < w.start + windowMillis) {
+                return w;
+            }
+            long start = nowMillis - Math.floorMod(nowMillis, windowMillis);
+            // Only the window immediately before contributes; anything older is out of the sliding range
+            AtomicIntegerArray previous = start - w.start == windowMillis ? w.counts : null;
+            Window next = new Window(start, new AtomicIntegerArray(w.counts.length()), previous);
+            if (window.compareAndSet(w, next)) {
+                return next;
+            }
+        }
+    }
+
+    /** Share of the previous window still inside the sliding window ending now */
+    private double previousWeight(Window w, long nowMillis) {
+        // clamped: a caller that read the clock just before another thread rotated can be slightly behind
+        return Math.min(1.0, Math.max(0.0, 1.0 - (double) (nowMillis - w.start) / windowMillis));
+    }
+
+    private int index(long h, int row) {
+        // Kirsch-Mitzenmacher: row hashes derived from the two halves of one 64-bit hash
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private long hash(String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        // SplitMix64 finaliser
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,35 @@
+package com.dormitory;
+
+import jakarta.servlet.http.Cookie;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Signed "auth" cookies for MockMvc tests, in the format AuthController issues on login
+ */
+public final class TestTokens {
+
+    // Default of app.auth.secret, which the test profile does not override
+    private static final String SECRET = "change-me";
+
+    private TestTokens() {
+    }
+
+    public static Cookie authCookie(String username, String role) {
+        long exp = System.currentTimeMillis() / 1000L + 3600;
+        String payload = String.format("{\"username\":\"%s\",\"role\":\"%s\",\"exp\":%d}", username, role, exp);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payloadB64 = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] sig = mac.doFinal(payloadB64.getBytes(StandardCharsets.UTF_8));
+            return new Cookie("auth", payloadB64 + "." + encoder.encodeToString(sig));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dormitory.config;
+
+import com.dormitory.TestTokens;
+import com.dormitory.entity.UserAccount;
+import com.dormitory.repository.UserAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Permits are taken per connection checkout, so only student work that reaches the pool is limited
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConnectionBulkheadInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConnectionBulkheadInterceptor bulkhead;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    private Object originalLane;
+    private Object originalTimeout;
+    private String studentName;
+    private String managerName;
+
+    @BeforeEach
+    void setUp() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        studentName = "student-" + tag;
+        userAccountRepository.save(account(studentName, "Student"));
+        managerName = "manager-" + tag;
+        userAccountRepository.save(account(managerName, "DormManager"));
+
+        originalLane = ReflectionTestUtils.getField(bulkhead, "studentLane");
+        originalTimeout = ReflectionTestUtils.getField(bulkhead, "acquireTimeoutMs");
+        ReflectionTestUtils.setField(bulkhead, "acquireTimeoutMs", 10L);
+    }
+
+    @AfterEach
+    void restore() {
+        ReflectionTestUtils.setField(bulkhead, "studentLane", originalLane);
+        ReflectionTestUtils.setField(bulkhead, "acquireTimeoutMs", originalTimeout);
+    }
+
+    @Test
+    void exhaustedStudentShareOnlyRefusesStudentCheckouts() throws Exception {
+        ReflectionTestUtils.setField(bulkhead, "studentLane", new Semaphore(0));
+
+        mockMvc.perform(get("/api/auth/captcha")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/student-portal/my-applications").cookie(TestTokens.authCookie(studentName, "Student")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        mockMvc.perform(get("/api/applications").cookie(TestTokens.authCookie(managerName, "DormManager")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void permitIsReturnedWhenTheConnectionIsClosed() throws Exception {
+        Semaphore lane = new Semaphore(1);
+        ReflectionTestUtils.setField(bulkhead, "studentLane", lane);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/student-portal/my-applications").cookie(TestTokens.authCookie(studentName, "Student")))
+                    .andExpect(status().isOk());
+        }
+        assertThat(lane.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void statsReportThePoolBehindTheWrappedDataSource() {
+        assertThat(bulkhead.getStats().get("pools")).asInstanceOf(MAP).containsKey("dormitory-pool");
+    }
+
+    private static UserAccount account(String username, String role) {
+        UserAccount account = new UserAccount();
+        account.setUsername(username);
+        account.setPasswordHash("unused");
+        account.setRole(role);
+        return account;
+    }
+}
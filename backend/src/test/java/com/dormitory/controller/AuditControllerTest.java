@@ -0,0 +1,36 @@
+package com.dormitory.controller;
+
+import com.dormitory.TestTokens;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuditControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exportRunsUnderItsOwnAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/audit/search/export")
+                        .cookie(TestTokens.authCookie("admin", "Admin")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(600_000L);
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+}
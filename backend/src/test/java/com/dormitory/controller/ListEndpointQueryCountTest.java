@@ -0,0 +1,168 @@
+package com.dormitory.controller;
+
+import com.dormitory.TestTokens;
+import com.dormitory.config.QueryScope;
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The enriched list endpoints must run a fixed number of statements however many rows they return
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListEndpointQueryCountTest {
+
+    private static final int ROWS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    private String managerName;
+    private String studentName;
+
+    @BeforeEach
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+
+        DormBuilding building = new DormBuilding();
+        building.setBuildingName("Counted " + tag);
+        building.setLocation("Test");
+        building = buildingRepository.save(building);
+
+        // One room, bed, student, application and stay per row, so per-row lookups would all be misses
+        String applicant = null;
+        List<RoomApplication> applications = new ArrayList<>();
+        List<CheckInOut> stays = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Room room = new Room();
+            room.setBuildingID(building.getBuildingID());
+            room.setRoomNumber(String.valueOf(100 + i));
+            room.setCapacity(1);
+            room.setCurrentOccupancy(0);
+            room.setRoomType("Standard");
+            room = roomRepository.save(room);
+
+            Bed bed = new Bed();
+            bed.setRoomID(room.getRoomID());
+            bed.setBedNumber("1");
+            bed.setStatus("Available");
+            bed = bedRepository.save(bed);
+
+            Student student = new Student();
+            student.setStudentID(tag + "-" + i);
+            student.setName("Student " + i);
+            student.setGender("Female");
+            student.setMajor("Major " + i);
+            studentRepository.save(student);
+
+            // The first student applies for every bed; the rest apply for their own
+            if (applicant == null) {
+                applicant = student.getStudentID();
+            }
+            RoomApplication application = new RoomApplication();
+            application.setStudentID(i % 2 == 0 ? applicant : student.getStudentID());
+            application.setBedID(bed.getBedID());
+            application.setStatus("Rejected");
+            application.setApplyTime(LocalDateTime.now().minusMinutes(i));
+            applications.add(application);
+
+            // Dated ahead of anything else in the shared test database so they make the recent list
+            CheckInOut stay = new CheckInOut();
+            stay.setStudentID(student.getStudentID());
+            stay.setBedID(bed.getBedID());
+            stay.setCheckInDate(LocalDate.of(2100, 1, 1).plusDays(i));
+            stay.setCheckOutDate(LocalDate.of(2100, 6, 1).plusDays(i));
+            stay.setStatus("CheckedOut");
+            stays.add(stay);
+        }
+        roomApplicationRepository.saveAll(applications);
+        checkInOutRepository.saveAll(stays);
+
+        managerName = "manager-" + tag;
+        userAccountRepository.save(account(managerName, "DormManager", null));
+        studentName = "student-" + tag;
+        userAccountRepository.save(account(studentName, "Student", applicant));
+
+        // Rooms and buildings are in the second-level cache; count the cold path
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void allApplicationsAreEnrichedWithAFixedNumberOfQueries() throws Exception {
+        assertQueryCount(get("/api/applications").cookie(TestTokens.authCookie(managerName, "DormManager")), ROWS);
+    }
+
+    @Test
+    void recentActivityIsEnrichedWithAFixedNumberOfQueries() throws Exception {
+        assertQueryCount(get("/api/stats/recent-activity").cookie(TestTokens.authCookie(managerName, "DormManager")), ROWS);
+    }
+
+    @Test
+    void myApplicationsAreEnrichedWithAFixedNumberOfQueries() throws Exception {
+        assertQueryCount(get("/api/student-portal/my-applications").cookie(TestTokens.authCookie(studentName, "Student")), ROWS / 2);
+    }
+
+    private void assertQueryCount(RequestBuilder request, int minRows) throws Exception {
+        try (QueryScope scope = QueryScope.open()) {
+            mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(greaterThanOrEqualTo(minRows)));
+            // Account lookup, the list itself, then one batched lookup per related table
+            scope.assertMaxStatements(8).assertMaxRepeats(2);
+        }
+    }
+
+    private static UserAccount account(String username, String role, String studentID) {
+        UserAccount account = new UserAccount();
+        account.setUsername(username);
+        account.setPasswordHash("unused");
+        account.setRole(role);
+        account.setRelatedStudentID(studentID);
+        return account;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dormitory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApplicationQueueServiceTest {
+
+    private final CountDownLatch bookingMayFinish = new CountDownLatch(1);
+    private ApplicationQueueService queue;
+
+    @BeforeEach
+    void setUp() {
+        // Bookings block until the test lets them finish
+        BookingAdmissionService admission = mock(BookingAdmissionService.class);
+        when(admission.reserveBedForApplication(anyString(), anyInt())).thenAnswer(invocation -> {
+            bookingMayFinish.await(10, TimeUnit.SECONDS);
+            return RoomBookingService.BookingResult.failure("taken", "BED_NOT_AVAILABLE");
+        });
+
+        queue = new ApplicationQueueService();
+        ReflectionTestUtils.setField(queue, "bookingAdmissionService", admission);
+        ReflectionTestUtils.setField(queue, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "capacity", 10);
+        ReflectionTestUtils.setField(queue, "workers", 1);
+        ReflectionTestUtils.setField(queue, "ticketTtlMinutes", 10L);
+        ReflectionTestUtils.invokeMethod(queue, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingMayFinish.countDown();
+        ReflectionTestUtils.invokeMethod(queue, "stop");
+    }
+
+    @Test
+    void resubmittingForTheSameBedReturnsTheSameTicket() {
+        ApplicationQueueService.Ticket first = queue.submit("S1", 1, "s1");
+
+        assertThat(queue.submit("S1", 1, "s1")).isSameAs(first);
+    }
+
+    @Test
+    void submittingForAnotherBedWhileQueuedIsRefused() {
+        ApplicationQueueService.Ticket first = queue.submit("S1", 1, "s1");
+
+        assertThatThrownBy(() -> queue.submit("S1", 2, "s1"))
+                .isInstanceOfSatisfying(ApplicationQueueService.TicketConflictException.class, e -> {
+                    assertThat(e.getTicketId()).isEqualTo(first.getTicketId());
+                    assertThat(e.getBedID()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void waitTimesOutWithoutCompletingTheTicket() throws Exception {
+        ApplicationQueueService.Ticket ticket = queue.submit("S1", 1, "s1");
+
+        CompletableFuture<RoomBookingService.BookingResult> wait = queue.awaitAsync(ticket, 50);
+        assertThat(wait.get(5, TimeUnit.SECONDS)).isNull();
+
+        bookingMayFinish.countDown();
+        RoomBookingService.BookingResult result = queue.awaitAsync(ticket, 5_000).get(5, TimeUnit.SECONDS);
+        assertThat(result.getErrorCode()).isEqualTo("BED_NOT_AVAILABLE");
+        assertThat(ticket.getStatus()).isEqualTo(ApplicationQueueService.TicketStatus.DONE);
+    }
+}
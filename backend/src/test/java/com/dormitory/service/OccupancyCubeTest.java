@@ -0,0 +1,96 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Room writes only rebuild the cube when they change what its building and room columns show
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OccupancyCubeTest {
+
+    @Autowired
+    private OccupancyCube occupancyCube;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void createRoomAndRebuild() {
+        DormBuilding building = new DormBuilding();
+        building.setBuildingName("Cube");
+        building.setLocation("Test");
+        building = buildingRepository.save(building);
+
+        room = new Room();
+        room.setBuildingID(building.getBuildingID());
+        room.setRoomNumber("C-" + System.nanoTime());
+        room.setCapacity(4);
+        room.setCurrentOccupancy(0);
+        room.setRoomType("Standard");
+        room = roomRepository.save(room);
+
+        Bed bed = new Bed();
+        bed.setRoomID(room.getRoomID());
+        bed.setBedNumber("1");
+        bed.setStatus("Available");
+        bedRepository.save(bed);
+
+        occupancyCube.rebuild();
+    }
+
+    @Test
+    void occupancyCounterUpdateDoesNotRebuild() {
+        long version = snapshotVersion();
+
+        room.setCurrentOccupancy(1);
+        room = roomRepository.save(room);
+        occupancyCube.applyChanges();
+
+        assertThat(snapshotVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void renamedRoomRebuilds() {
+        long version = snapshotVersion();
+
+        room.setRoomNumber(room.getRoomNumber() + "-renamed");
+        room = roomRepository.save(room);
+        occupancyCube.applyChanges();
+
+        assertThat(snapshotVersion()).isGreaterThan(version);
+        assertThat(roomValues()).contains(room.getRoomNumber());
+    }
+
+    private long snapshotVersion() {
+        return (Long) occupancyCube.describe().get("snapshotVersion");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> roomValues() {
+        return ((Map<String, List<String>>) occupancyCube.describe().get("dimensions")).get("room");
+    }
+}
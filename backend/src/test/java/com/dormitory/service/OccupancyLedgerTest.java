@@ -0,0 +1,103 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.OccupancyEvent;
+import com.dormitory.entity.OccupancySnapshot;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.OccupancyEventRepository;
+import com.dormitory.repository.OccupancySnapshotRepository;
+import com.dormitory.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OccupancyLedgerTest {
+
+    private OccupancyEventRepository eventRepository;
+    private RoomRepository roomRepository;
+    private OccupancyLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        OccupancySnapshot snapshot = new OccupancySnapshot();
+        snapshot.setWatermark(LocalDateTime.now().minusHours(1));
+        snapshot.setPayload("1,10,100,O,S1\n");
+        OccupancySnapshotRepository snapshotRepository = mock(OccupancySnapshotRepository.class);
+        when(snapshotRepository.findTopByOrderByWatermarkDesc()).thenReturn(Optional.of(snapshot));
+
+        eventRepository = mock(OccupancyEventRepository.class);
+        when(eventRepository.streamByOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(any(), any()))
+                .thenAnswer(invocation -> Stream.empty());
+        roomRepository = mock(RoomRepository.class);
+
+        ledger = new OccupancyLedger();
+        ReflectionTestUtils.setField(ledger, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(ledger, "snapshotRepository", snapshotRepository);
+        ReflectionTestUtils.setField(ledger, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(ledger, "dirtyTracker", mock(OccupancyDirtyTracker.class));
+        ReflectionTestUtils.setField(ledger, "transactionManager", mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void eventsCommittedDuringReloadAreKept() {
+        // Check-ins commit while the replay is still reading the event log
+        when(eventRepository.streamByOccurredAtAfterAndOccurredAtLessThanEqualOrderByOccurredAtAscIdAsc(any(), any()))
+                .thenAnswer(invocation -> {
+                    ledger.record(OccupancyEvent.CHECK_IN, 2, 10, 100, "S2");
+                    ledger.record(OccupancyEvent.CHECK_IN, 3, 11, 100, "S3");
+                    ledger.record(OccupancyEvent.CHECK_OUT, 1, 10, 100, "S1");
+                    return Stream.empty();
+                });
+
+        ledger.reload();
+
+        assertThat(ledger.occupiedByRoom()).isEqualTo(Map.of(10, 1, 11, 1));
+    }
+
+    @Test
+    void eventsAfterReloadApplyToTheNewProjection() {
+        ledger.reload();
+        ledger.record(OccupancyEvent.CHECK_IN, 2, 10, 100, "S2");
+
+        assertThat(ledger.occupiedByRoom()).isEqualTo(Map.of(10, 2));
+    }
+
+    @Test
+    void roomOccupancyIsRebuiltPageByPage() {
+        // 1,200 rooms, all recorded as holding one student; the snapshot puts one in room 10
+        List<Room> rooms = new ArrayList<>();
+        for (int id = 1; id <= 1_200; id++) {
+            Room room = new Room();
+            room.setRoomID(id);
+            room.setCurrentOccupancy(1);
+            rooms.add(room);
+        }
+        when(roomRepository.findByRoomIDGreaterThanOrderByRoomIDAsc(anyInt(), any(Pageable.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return rooms.stream().filter(r -> r.getRoomID() > after).limit(size).toList();
+        });
+
+        int updated = ledger.rebuildRoomOccupancy();
+
+        assertThat(updated).isEqualTo(1_199);
+        assertThat(rooms).filteredOn(r -> r.getCurrentOccupancy() == 1).extracting(Room::getRoomID).containsExactly(10);
+        verify(roomRepository, times(3)).findByRoomIDGreaterThanOrderByRoomIDAsc(anyInt(), any(Pageable.class));
+        verify(roomRepository, never()).findAll();
+        verify(roomRepository, times(3)).saveAll(anyList());
+    }
+}
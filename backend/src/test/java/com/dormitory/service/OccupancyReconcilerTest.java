@@ -0,0 +1,96 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.Bed;
+import com.dormitory.entity.DormBuilding;
+import com.dormitory.entity.Room;
+import com.dormitory.repository.BedRepository;
+import com.dormitory.repository.DormBuildingRepository;
+import com.dormitory.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drift written straight to the database (as by a trigger or a manual UPDATE) marks no room dirty
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OccupancyReconcilerTest {
+
+    @Autowired
+    private OccupancyReconciler occupancyReconciler;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Room room;
+    private Bed bed;
+
+    @BeforeEach
+    void createRoomWithExternalDrift() {
+        DormBuilding building = new DormBuilding();
+        building.setBuildingName("Drift");
+        building.setLocation("Test");
+        building = buildingRepository.save(building);
+
+        room = new Room();
+        room.setBuildingID(building.getBuildingID());
+        room.setRoomNumber("101");
+        room.setCapacity(4);
+        room.setCurrentOccupancy(0);
+        room.setRoomType("Standard");
+        room = roomRepository.save(room);
+
+        bed = new Bed();
+        bed.setRoomID(room.getRoomID());
+        bed.setBedNumber("1");
+        bed.setStatus("Available");
+        bed = bedRepository.save(bed);
+
+        // Nobody lives here, but the tables say otherwise
+        occupancyReconciler.reconcile(false);
+        jdbcTemplate.update("UPDATE room SET current_occupancy = 3 WHERE roomid = ?", room.getRoomID());
+        jdbcTemplate.update("UPDATE bed SET status = 'Occupied' WHERE bedid = ?", bed.getBedID());
+    }
+
+    @Test
+    void incrementalCheckDoesNotSeeExternalDrift() {
+        occupancyReconciler.reconcile(false);
+
+        assertThat(occupancy()).isEqualTo(3);
+        assertThat(bedStatus()).isEqualTo("Occupied");
+    }
+
+    @Test
+    void fullCheckRepairsExternalDrift() {
+        occupancyReconciler.reconcileAll();
+
+        assertThat(occupancy()).isZero();
+        assertThat(bedStatus()).isEqualTo("Available");
+        assertThat(occupancyReconciler.getReports().get(0).isFull()).isTrue();
+    }
+
+    // Read the tables directly: the second-level cache never saw the external UPDATEs
+
+    private Integer occupancy() {
+        return jdbcTemplate.queryForObject("SELECT current_occupancy FROM room WHERE roomid = ?", Integer.class, room.getRoomID());
+    }
+
+    private String bedStatus() {
+        return jdbcTemplate.queryForObject("SELECT status FROM bed WHERE bedid = ?", String.class, bed.getBedID());
+    }
+}
@@ -0,0 +1,92 @@
+package com.dormitory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReservationExpirySchedulerTest {
+
+    private static final int POISONED = 2;
+
+    private ReservationExpiryQueue queue;
+    private RoomBookingService roomBookingService;
+    private AuditService auditService;
+    private ReservationExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        queue = new ReservationExpiryQueue();
+        ReflectionTestUtils.setField(queue, "reservationTtlHours", 72L);
+        ReflectionTestUtils.setField(queue, "meterRegistry", new SimpleMeterRegistry());
+        queue.registerGauge();
+
+        // Expiring application 2 always fails, so every batch containing it fails too
+        roomBookingService = mock(RoomBookingService.class);
+        when(roomBookingService.expireReservations(anyList(), anyString())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            if (ids.contains(POISONED)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return ids;
+        });
+        auditService = mock(AuditService.class);
+
+        scheduler = new ReservationExpiryScheduler();
+        ReflectionTestUtils.setField(scheduler, "expiryQueue", queue);
+        ReflectionTestUtils.setField(scheduler, "roomBookingService", roomBookingService);
+        ReflectionTestUtils.setField(scheduler, "auditService", auditService);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 100);
+        ReflectionTestUtils.setField(scheduler, "maxAttempts", 3);
+        ReflectionTestUtils.setField(scheduler, "retryDelayMs", 60_000L);
+
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(100);
+        for (int id = 1; id <= 5; id++) {
+            queue.schedule(id, longAgo);
+        }
+    }
+
+    @Test
+    void failingApplicationDoesNotBlockTheRestOfItsBatch() {
+        scheduler.releaseExpiredReservations();
+
+        for (int id : List.of(1, 3, 4, 5)) {
+            verify(auditService).log(eq("EXPIRE_APPLICATION"), eq("ROOM_APPLICATION"), eq(String.valueOf(id)), anyString(), eq("system"));
+        }
+        verify(auditService, never()).log(anyString(), anyString(), eq(String.valueOf(POISONED)), anyString(), anyString());
+
+        // Only the failing application is left, waiting for its retry delay
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.drainExpired(10)).isEmpty();
+        assertThat(queue.getStats()).containsEntry("retrying", 1);
+    }
+
+    @Test
+    void applicationIsDeadLetteredAfterTheLastAttempt() {
+        ReflectionTestUtils.setField(scheduler, "retryDelayMs", 0L);
+
+        scheduler.releaseExpiredReservations();
+
+        // After the failed batch, one call per attempt until maxAttempts
+        verify(roomBookingService, times(3)).expireReservations(eq(List.of(POISONED)), anyString());
+        assertThat(queue.size()).isZero();
+        Map<String, Object> stats = queue.getStats();
+        assertThat(stats).containsEntry("retrying", 0);
+        assertThat((List<?>) stats.get("deadLetters")).singleElement()
+                .isInstanceOfSatisfying(ReservationExpiryQueue.DeadLetter.class, dead -> {
+                    assertThat(dead.applicationID()).isEqualTo(POISONED);
+                    assertThat(dead.attempts()).isEqualTo(3);
+                    assertThat(dead.lastError()).isEqualTo("constraint violation");
+                });
+    }
+}
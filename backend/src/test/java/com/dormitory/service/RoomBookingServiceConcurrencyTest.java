@@ -0,0 +1,230 @@
+package com.dormitory.service;
+
+import com.dormitory.entity.*;
+import com.dormitory.repository.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking invariants under concurrent requests, on the real services and an embedded database:
+ * one winner per bed, one pending application per student, one check-in per approval, and booking
+ * transactions independent of the caller's.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class RoomBookingServiceConcurrencyTest {
+
+    private static final int THREADS = 24;
+    private static final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private RoomBookingService roomBookingService;
+
+    @Autowired
+    private DormBuildingRepository buildingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedRepository bedRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private RoomApplicationRepository roomApplicationRepository;
+
+    @Autowired
+    private CheckInOutRepository checkInOutRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Room room;
+
+    @BeforeEach
+    void createRoom() {
+        DormBuilding building = new DormBuilding();
+        building.setBuildingName("Test-" + sequence.incrementAndGet());
+        building.setLocation("Test");
+        building = buildingRepository.save(building);
+
+        room = new Room();
+        room.setBuildingID(building.getBuildingID());
+        room.setRoomNumber("101");
+        room.setCapacity(THREADS);
+        room.setCurrentOccupancy(0);
+        room.setRoomType("Standard");
+        room = roomRepository.save(room);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentReservationsOfOneBedHaveOneWinner() throws Exception {
+        Integer bedID = newBed();
+        List<String> students = newStudents(THREADS);
+
+        List<RoomBookingService.BookingResult> results =
+                race(THREADS, i -> roomBookingService.reserveBedForApplication(students.get(i), bedID));
+
+        assertThat(results).filteredOn(RoomBookingService.BookingResult::isSuccess).singleElement()
+                .satisfies(winner -> {
+                    // The response is built from these, without reading the tables again
+                    assertThat(winner.getBuildingName()).startsWith("Test-");
+                    assertThat(winner.getRoomNumber()).isEqualTo("101");
+                    assertThat(winner.getBedNumber()).isEqualTo(bedRepository.findById(bedID).orElseThrow().getBedNumber());
+                });
+        assertThat(results).filteredOn(r -> !r.isSuccess())
+                .extracting(RoomBookingService.BookingResult::getErrorCode)
+                .allMatch(code -> code.equals("BED_NOT_AVAILABLE") || code.equals("CONCURRENT_MODIFICATION"));
+        assertThat(bedRepository.findById(bedID).orElseThrow().getStatus()).isEqualTo("Reserved");
+        assertThat(pendingApplications(bedID)).hasSize(1);
+    }
+
+    @Test
+    void concurrentApplicationsByOneStudentLeaveOnePending() throws Exception {
+        String studentID = newStudents(1).get(0);
+        List<Integer> beds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            beds.add(newBed());
+        }
+
+        List<RoomBookingService.BookingResult> results =
+                race(THREADS, i -> roomBookingService.reserveBedForApplication(studentID, beds.get(i)));
+
+        assertThat(results).filteredOn(RoomBookingService.BookingResult::isSuccess).hasSize(1);
+        assertThat(roomApplicationRepository.findByStudentIDAndStatus(studentID, "Pending")).hasSize(1);
+        // Losing reservations were rolled back, so their beds are free again
+        assertThat(bedRepository.findAllById(beds)).filteredOn(b -> "Reserved".equals(b.getStatus())).hasSize(1);
+    }
+
+    @Test
+    void concurrentApprovalsCheckInOnce() throws Exception {
+        Integer bedID = newBed();
+        String studentID = newStudents(1).get(0);
+        assertThat(roomBookingService.reserveBedForApplication(studentID, bedID).isSuccess()).isTrue();
+        Integer applicationID = roomApplicationRepository.findByStudentIDAndStatus(studentID, "Pending").get(0).getApplicationID();
+
+        List<RoomBookingService.BookingResult> results =
+                race(THREADS, i -> roomBookingService.approveApplicationAndCheckIn(applicationID, "manager" + i));
+
+        assertThat(results).filteredOn(RoomBookingService.BookingResult::isSuccess).hasSize(1);
+        assertThat(liveStays(bedID)).hasSize(1);
+        assertThat(roomRepository.findById(room.getRoomID()).orElseThrow().getCurrentOccupancy()).isEqualTo(1);
+        assertThat(bedRepository.findById(bedID).orElseThrow().getStatus()).isEqualTo("Occupied");
+    }
+
+    @Test
+    void approvalRacingRejectionHasOneOutcome() throws Exception {
+        Integer bedID = newBed();
+        String studentID = newStudents(1).get(0);
+        assertThat(roomBookingService.reserveBedForApplication(studentID, bedID).isSuccess()).isTrue();
+        Integer applicationID = roomApplicationRepository.findByStudentIDAndStatus(studentID, "Pending").get(0).getApplicationID();
+
+        List<RoomBookingService.BookingResult> results = race(THREADS, i -> i % 2 == 0
+                ? roomBookingService.approveApplicationAndCheckIn(applicationID, "manager")
+                : roomBookingService.rejectApplication(applicationID, "test", "manager"));
+
+        assertThat(results).filteredOn(RoomBookingService.BookingResult::isSuccess).hasSize(1);
+        RoomApplication application = roomApplicationRepository.findById(applicationID).orElseThrow();
+        String bedStatus = bedRepository.findById(bedID).orElseThrow().getStatus();
+        if ("Approved".equals(application.getStatus())) {
+            assertThat(bedStatus).isEqualTo("Occupied");
+            assertThat(liveStays(bedID)).hasSize(1);
+        } else {
+            assertThat(application.getStatus()).isEqualTo("Rejected");
+            assertThat(bedStatus).isEqualTo("Available");
+            assertThat(liveStays(bedID)).isEmpty();
+        }
+    }
+
+    @Test
+    void bookingDoesNotJoinTheCallersTransaction() {
+        Integer bedID = newBed();
+        String studentID = newStudents(1).get(0);
+
+        // The caller's transaction rolls back; the booking committed on its own
+        RoomBookingService.BookingResult result = transactionTemplate.execute(status -> {
+            RoomBookingService.BookingResult r = roomBookingService.reserveBedForApplication(studentID, bedID);
+            status.setRollbackOnly();
+            return r;
+        });
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(roomApplicationRepository.findByStudentIDAndStatus(studentID, "Pending")).hasSize(1);
+        assertThat(bedRepository.findById(bedID).orElseThrow().getStatus()).isEqualTo("Reserved");
+    }
+
+    /**
+     * Run the calls from separate threads, released at the same moment
+     */
+    private <T> List<T> race(int calls, IntFunction<T> call) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                go.await();
+                return call.apply(index);
+            }));
+        }
+        go.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private List<RoomApplication> pendingApplications(Integer bedID) {
+        return roomApplicationRepository.findByStatus("Pending").stream()
+                .filter(a -> bedID.equals(a.getBedID()))
+                .toList();
+    }
+
+    private List<CheckInOut> liveStays(Integer bedID) {
+        return checkInOutRepository.findByStatus("CurrentlyLiving").stream()
+                .filter(c -> bedID.equals(c.getBedID()))
+                .toList();
+    }
+
+    private Integer newBed() {
+        Bed bed = new Bed();
+        bed.setRoomID(room.getRoomID());
+        bed.setBedNumber(String.valueOf(sequence.incrementAndGet()));
+        bed.setStatus("Available");
+        return bedRepository.save(bed).getBedID();
+    }
+
+    private List<String> newStudents(int count) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Student student = new Student();
+            student.setStudentID("T" + sequence.incrementAndGet());
+            student.setName("Test Student " + i);
+            student.setGender("Female");
+            student.setEnrollmentYear(2026);
+            students.add(student);
+        }
+        return studentRepository.saveAll(students).stream().map(Student::getStudentID).toList();
+    }
+}
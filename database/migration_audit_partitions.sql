@@ -0,0 +1,46 @@
+-- Migration: monthly range partitions and finder indexes for audit_log
+-- Every AuditController finder filters on one column and orders by timestamp, so each gets a
+-- (column, timestamp) index. The table is range-partitioned by month on timestamp; the backend
+-- (AuditRetentionService) keeps future months split off pmax and archives + drops months older
+-- than app.audit.retention-months. MySQL requires the partition column in the primary key.
+-- Run once on an existing database; new databases get the indexes from the entity, and can run
+-- this script afterwards to add the partitioning.
+
+CREATE INDEX idx_audit_log_timestamp ON audit_log (timestamp);
+CREATE INDEX idx_audit_log_entity_type ON audit_log (entity_type, timestamp);
+CREATE INDEX idx_audit_log_entity_id ON audit_log (entity_id, timestamp);
+CREATE INDEX idx_audit_log_performed_by ON audit_log (performed_by, timestamp);
+CREATE INDEX idx_audit_log_action ON audit_log (action, timestamp);
+
+ALTER TABLE audit_log DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp);
+
+-- Rows before 2025 land in p_old; retention removes them with batched deletes
+ALTER TABLE audit_log PARTITION BY RANGE COLUMNS (timestamp) (
+    PARTITION p_old VALUES LESS THAN ('2025-01-01'),
+    PARTITION p202501 VALUES LESS THAN ('2025-02-01'),
+    PARTITION p202502 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p202503 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p202504 VALUES LESS THAN ('2025-05-01'),
+    PARTITION p202505 VALUES LESS THAN ('2025-06-01'),
+    PARTITION p202506 VALUES LESS THAN ('2025-07-01'),
+    PARTITION p202507 VALUES LESS THAN ('2025-08-01'),
+    PARTITION p202508 VALUES LESS THAN ('2025-09-01'),
+    PARTITION p202509 VALUES LESS THAN ('2025-10-01'),
+    PARTITION p202510 VALUES LESS THAN ('2025-11-01'),
+    PARTITION p202511 VALUES LESS THAN ('2025-12-01'),
+    PARTITION p202512 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+    PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+    PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+    PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+    PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+    PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+    PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p202701 VALUES LESS THAN ('2027-02-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
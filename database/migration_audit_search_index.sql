@@ -0,0 +1,5 @@
+-- Migration: index for the IP filter of /api/audit/search
+-- The other search filters reuse the (column, timestamp) indexes from migration_audit_partitions.sql;
+-- InnoDB appends the primary key (id, timestamp) to each, which covers the (timestamp, id) keyset order.
+
+CREATE INDEX idx_audit_log_ip_address ON audit_log (ip_address, timestamp);
@@ -0,0 +1,37 @@
+-- Migration: Unique keys that replace SERIALIZABLE isolation in RoomBookingService
+-- Booking transactions now run at READ COMMITTED with explicit row locks. These keys
+-- guarantee the invariants that SERIALIZABLE used to protect with gap locks:
+--   * at most one Pending application per student   (room_application.pending_studentid)
+--   * at most one CurrentlyLiving record per bed     (check_in_out.live_bedid)
+-- The columns are maintained by the entities (@PrePersist/@PreUpdate); this script adds
+-- them and backfills existing rows. Run it BEFORE starting the new backend.
+
+ALTER TABLE room_application ADD COLUMN pending_studentid VARCHAR(255) NULL;
+ALTER TABLE check_in_out ADD COLUMN live_bedid INT NULL;
+
+-- Keep only the newest Pending application per student; older duplicates are rejected
+UPDATE room_application a
+JOIN room_application b
+  ON a.studentid = b.studentid
+ AND a.status = 'Pending' AND b.status = 'Pending'
+ AND a.applicationid < b.applicationid
+SET a.status = 'Rejected',
+    a.process_time = NOW(),
+    a.processed_by = 'system',
+    a.reject_reason = 'Duplicate pending application';
+
+UPDATE room_application SET pending_studentid = studentid WHERE status = 'Pending';
+
+-- A bed with several live records keeps the most recent one
+UPDATE check_in_out c
+JOIN check_in_out d
+  ON c.bedid = d.bedid
+ AND c.status = 'CurrentlyLiving' AND d.status = 'CurrentlyLiving'
+ AND c.recordid < d.recordid
+SET c.status = 'CheckedOut',
+    c.check_out_date = CURDATE();
+
+UPDATE check_in_out SET live_bedid = bedid WHERE status = 'CurrentlyLiving';
+
+ALTER TABLE room_application ADD CONSTRAINT uk_room_application_pending_student UNIQUE (pending_studentid);
+ALTER TABLE check_in_out ADD CONSTRAINT uk_check_in_out_live_bed UNIQUE (live_bedid);
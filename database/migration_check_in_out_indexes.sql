@@ -0,0 +1,7 @@
+-- Migration: lookup indexes for check_in_out
+-- Batch check-in and allocation look up live records by student and by bed for hundreds of ids at a
+-- time (status IN-list queries). The foreign key indexes cover only the first column; these also
+-- cover status, and exist in schemas generated by Hibernate (which has no foreign keys to index).
+
+CREATE INDEX idx_check_in_out_student_status ON check_in_out (studentid, status);
+CREATE INDEX idx_check_in_out_bed_status ON check_in_out (bedid, status);
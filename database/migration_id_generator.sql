@@ -0,0 +1,33 @@
+-- Migration: Switch high-volume tables from AUTO_INCREMENT ids to pooled table ids
+-- Hibernate cannot batch inserts for IDENTITY columns, so Bed, CheckInOut, AuditLog,
+-- RoomApplication and RepairRequest now allocate ids in blocks of 50 from id_generator.
+-- Run this BEFORE starting the new backend so the generator continues after existing ids.
+-- Table and column names are the physical ones Hibernate uses (Spring's snake_case naming);
+-- gen_name is the entity name (pkColumnValue).
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    gen_name  VARCHAR(255) NOT NULL PRIMARY KEY,
+    gen_value BIGINT
+);
+
+-- gen_value holds the next id to hand out (pooled-lo optimizer)
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'Bed', COALESCE(MAX(bedid), 0) + 1 FROM bed
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'CheckInOut', COALESCE(MAX(recordid), 0) + 1 FROM check_in_out
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'RepairRequest', COALESCE(MAX(repairid), 0) + 1 FROM repair_request
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'AuditLog', COALESCE(MAX(id), 0) + 1 FROM audit_log
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'RoomApplication', COALESCE(MAX(applicationid), 0) + 1 FROM room_application
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
@@ -29,15 +29,16 @@ export default function AuditPage() {
   const load = async () => {
     setLoading(true)
     try {
-      let url = `/api/audit?page=${page}&size=${pageSize}`
+      const paging = `page=${page}&size=${pageSize}`
+      let url = `/api/audit?${paging}`
       
-      // Apply filters
+      // Apply filters (all finders are paginated)
       if (filterEntity) {
-        url = `/api/audit/entity/${encodeURIComponent(filterEntity)}`
+        url = `/api/audit/entity/${encodeURIComponent(filterEntity)}?${paging}`
       } else if (filterAction) {
-        url = `/api/audit/action/${encodeURIComponent(filterAction)}`
+        url = `/api/audit/action/${encodeURIComponent(filterAction)}?${paging}`
       } else if (filterUser) {
-        url = `/api/audit/user/${encodeURIComponent(filterUser)}`
+        url = `/api/audit/user/${encodeURIComponent(filterUser)}?${paging}`
       }
 
       const res = await fetch(url)
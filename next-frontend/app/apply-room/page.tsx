@@ -108,15 +108,27 @@ export default function ApplyRoomPage() {
     setMessage(null)
 
     try {
-      const res = await fetch('/api/student-portal/apply-room', {
+      let res = await fetch('/api/student-portal/apply-room', {
         method: 'POST',
         headers: { 'Content-Type': 'application/json' },
         body: JSON.stringify({ bedID: selectedBed })
       })
 
-      const data = await res.json()
+      let data = await res.json()
+
+      // 202: still waiting in the application queue, poll the ticket until it is processed
+      while (res.status === 202 && data.ticketId) {
+        setMessage({ type: 'success', text: `排队中，前面还有 ${data.position ?? 0} 人…` })
+        res = await fetch(`/api/student-portal/apply-room/tickets/${data.ticketId}?waitMs=10000`)
+        data = await res.json()
+      }
       
       if (!res.ok) {
+        // An earlier application for another bed is still in the queue
+        if (res.status === 409 && data.code === 'APPLICATION_IN_QUEUE') {
+          setMessage({ type: 'error', text: '您已有一个床位申请正在排队，请等待其处理完成。' })
+          return
+        }
         // Handle concurrent booking conflict (409 status)
         if (res.status === 409) {
           const errorMsg = data.error || '该床位刚被其他学生预定。'